@@ -0,0 +1,58 @@
+package JIZAS.BrightMinds.config;
+
+import JIZAS.BrightMinds.service.ContentExportService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+
+@Configuration
+public class ContentExportConfig implements WebMvcConfigurer {
+
+    @Value("${brightminds.export.enabled:false}")
+    private boolean enabled;
+
+    @Value("${brightminds.export.dir:./content-export}")
+    private String exportDir;
+
+    // One thread: publishes are rare and must not interleave writes to the same story
+    @Bean
+    public ThreadPoolTaskExecutor contentExportExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("content-export-");
+        return executor;
+    }
+
+    // Range requests are handled by the resource handler; .gz siblings are picked for gzip clients
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        if (!enabled) return;
+        String location = Paths.get(exportDir).toAbsolutePath().normalize().toUri().toString();
+
+        // Index files point at the current hashed files and change on every publish
+        registry.addResourceHandler(ContentExportService.URL_PREFIX + "/index/**")
+                .addResourceLocations(location + "index/")
+                .setCacheControl(CacheControl.noCache())
+                .resourceChain(false)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new PathResourceResolver());
+
+        // Everything else is content-hashed and never changes
+        registry.addResourceHandler(ContentExportService.URL_PREFIX + "/**")
+                .addResourceLocations(location)
+                .setCacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new PathResourceResolver());
+    }
+}
@@ -0,0 +1,30 @@
+package JIZAS.BrightMinds.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class ContentWarmupConfig {
+
+    @Value("${brightminds.prefetch.warmup-threads:1}")
+    private int warmupThreads;
+
+    @Value("${brightminds.prefetch.warmup-queue:100}")
+    private int warmupQueue;
+
+    // Small, bounded pool: warmup is best effort and must never pile up behind gameplay
+    @Bean
+    public ThreadPoolTaskExecutor contentWarmupExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(warmupThreads);
+        executor.setMaxPoolSize(warmupThreads);
+        executor.setQueueCapacity(warmupQueue);
+        executor.setThreadNamePrefix("content-warmup-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        return executor;
+    }
+}
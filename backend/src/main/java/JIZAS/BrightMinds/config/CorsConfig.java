@@ -23,18 +23,21 @@ public class CorsConfig {
                 "Authorization",
                 "Content-Type",
                 "X-Requested-With",
-                "X-GameMaster-Id"
+                "X-GameMaster-Id",
+                "Idempotency-Key"
         ));
         configuration.setExposedHeaders(Arrays.asList(
                 "Authorization",
                 "Location",
                 "Content-Disposition",
-                "Retry-After"
+                "Retry-After",
+                "ETag"
         ));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/api/**", configuration);
+        source.registerCorsConfiguration("/content/**", configuration);
         // Allow swagger docs too (useful during testing)
         source.registerCorsConfiguration("/swagger-ui/**", configuration);
         source.registerCorsConfiguration("/api-docs/**", configuration);
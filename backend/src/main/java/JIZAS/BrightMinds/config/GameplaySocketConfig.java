@@ -0,0 +1,89 @@
+package JIZAS.BrightMinds.config;
+
+import JIZAS.BrightMinds.controller.GameplaySocketEndpoint;
+import JIZAS.BrightMinds.security.JwtService;
+import JIZAS.BrightMinds.service.GameAnswerService;
+import JIZAS.BrightMinds.service.GameSessionStore;
+import JIZAS.BrightMinds.service.ProgressService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ServletContextEvent;
+import jakarta.servlet.ServletContextListener;
+import jakarta.websocket.DeploymentException;
+import jakarta.websocket.server.ServerContainer;
+import jakarta.websocket.server.ServerEndpointConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * Registers {@link GameplaySocketEndpoint} at /ws/game with the servlet container's own WebSocket
+ * support (JSR 356), which embedded Tomcat already provides. Runs as a context listener because
+ * the container's ServerContainer only exists once its initializers have run.
+ */
+@Component
+public class GameplaySocketConfig implements ServletContextListener {
+
+    public static final String PATH = "/ws/game";
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Value("${brightminds.gameplay-socket.enabled:true}")
+    private boolean enabled;
+
+    @Value("${brightminds.gameplay-socket.max-frames-per-minute:600}")
+    private int maxFramesPerMinute;
+
+    @Value("${brightminds.gameplay-socket.idle-timeout-ms:300000}")
+    private long idleTimeoutMs;
+
+    @Value("${cors.allowed-origins}")
+    private String allowedOrigins;
+
+    @Override
+    public void contextInitialized(ServletContextEvent event) {
+        if (!enabled) return;
+        ServerContainer container = (ServerContainer) event.getServletContext().getAttribute(ServerContainer.class.getName());
+        if (container == null) {
+            System.err.println("GameplaySocketConfig: No WebSocket support in the servlet container, " + PATH + " is not available");
+            return;
+        }
+        try {
+            container.addEndpoint(ServerEndpointConfig.Builder.create(GameplaySocketEndpoint.class, PATH)
+                    .configurator(new Configurator())
+                    .build());
+        } catch (DeploymentException e) {
+            System.err.println("GameplaySocketConfig: Could not register " + PATH + ": " + e.getMessage());
+        }
+    }
+
+    // Builds each connection's endpoint from Spring beans; beans are looked up here, not at startup
+    private class Configurator extends ServerEndpointConfig.Configurator {
+
+        @Override
+        public boolean checkOrigin(String originHeaderValue) {
+            // Browsers always send Origin; only pages from the allowed origins may connect
+            return originHeaderValue == null || Arrays.stream(allowedOrigins.split(","))
+                    .map(String::trim)
+                    .anyMatch(originHeaderValue::equals);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T getEndpointInstance(Class<T> endpointClass) {
+            return (T) new GameplaySocketEndpoint(
+                    applicationContext.getBean(JwtService.class),
+                    applicationContext.getBean(UserDetailsService.class),
+                    applicationContext.getBean(ProgressService.class),
+                    applicationContext.getBean(GameAnswerService.class),
+                    applicationContext.getBean(GameSessionStore.class),
+                    applicationContext.getBean(ObjectMapper.class),
+                    maxFramesPerMinute,
+                    idleTimeoutMs);
+        }
+    }
+}
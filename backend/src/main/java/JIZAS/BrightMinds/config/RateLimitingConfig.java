@@ -51,7 +51,8 @@ public class RateLimitingConfig implements WebMvcConfigurer {
                 .excludePathPatterns(
                     "/api/seeder/**",
                     "/api/assets/**",
-                    "/api/game/scene/**"
+                    "/api/game/scene/**",
+                    "/api/game/story/*/bundle"
                 ); 
     }
 
@@ -0,0 +1,10 @@
+package JIZAS.BrightMinds.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Background jobs such as the progress write-behind flush
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -83,6 +83,9 @@ public class SecurityConfig {
                         .requestMatchers("/api/users").permitAll() // Allow user creation without auth
                         .requestMatchers("/api/stories/**").permitAll() // Allow public access to stories for game loading
                         .requestMatchers("/api/game/scene/**").permitAll() // Allow public access to scene data for game loading
+                        .requestMatchers(HttpMethod.GET, "/api/game/story/*/bundle").permitAll() // Whole-story bundle, same content as scene data
+                        .requestMatchers(HttpMethod.GET, "/content/**").permitAll() // Static content export, same content as the two above
+                        .requestMatchers(HttpMethod.GET, "/ws/game").permitAll() // Gameplay WebSocket; authenticates with the JWT in its first frame
                         
                         // TODO: Remove seeder permitAll after production seeding is complete
                         .requestMatchers("/api/seeder/**").permitAll()
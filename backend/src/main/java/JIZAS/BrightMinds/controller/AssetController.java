@@ -1,12 +1,12 @@
 package JIZAS.BrightMinds.controller;
 
+import JIZAS.BrightMinds.dto.AssetPageDTO;
 import JIZAS.BrightMinds.entity.Asset;
 import JIZAS.BrightMinds.service.AssetService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Optional;
 
 @RestController
@@ -24,9 +24,12 @@ public class AssetController {
 		return new ResponseEntity<>(service.create(a), HttpStatus.CREATED);
 	}
 
+	// Cursor-paginated: pass the previous page's nextCursor to continue, type to filter (e.g. sprite, audio)
 	@GetMapping
-	public ResponseEntity<List<Asset>> list() {
-		return new ResponseEntity<>(service.listAll(), HttpStatus.OK);
+	public ResponseEntity<AssetPageDTO> list(@RequestParam(required = false) Long cursor,
+											 @RequestParam(required = false) String type,
+											 @RequestParam(defaultValue = "50") int limit) {
+		return new ResponseEntity<>(service.listPage(cursor, type, limit), HttpStatus.OK);
 	}
 
 	@GetMapping("/{id}")
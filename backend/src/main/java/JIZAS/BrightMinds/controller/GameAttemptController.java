@@ -1,5 +1,8 @@
 package JIZAS.BrightMinds.controller;
 
+import JIZAS.BrightMinds.dto.AttemptBatchResultDTO;
+import JIZAS.BrightMinds.dto.AttemptPageDTO;
+import JIZAS.BrightMinds.dto.AttemptSubmissionDTO;
 import JIZAS.BrightMinds.dto.GameAttemptDTO;
 import JIZAS.BrightMinds.service.GameAttemptService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -14,6 +17,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Optional;
 
@@ -39,11 +43,6 @@ public class GameAttemptController {
             @Parameter(description = "End attempt date (ISO format)") 
             @RequestParam String endAttemptDate) {
         
-        System.out.println("GameAttemptController: Received request to save game attempt");
-        System.out.println("Parameters: userId=" + userId + ", storyId=" + storyId + ", score=" + score + 
-                          ", totalPossibleScore=" + totalPossibleScore + ", startDate=" + startAttemptDate + 
-                          ", endDate=" + endAttemptDate);
-        
         try {
             // Parse the ISO date strings to LocalDateTime
             // Handle both with and without timezone (Z) suffix
@@ -58,7 +57,6 @@ public class GameAttemptController {
             GameAttemptDTO attempt = gameAttemptService.saveGameAttempt(
                     userId, storyId, score, totalPossibleScore, 
                     startDate, endDate);
-            System.out.println("GameAttemptController: Successfully saved attempt with ID: " + attempt.getAttemptId());
             return ResponseEntity.status(HttpStatus.CREATED).body(attempt);
         } catch (Exception e) {
             System.err.println("GameAttemptController: Error saving game attempt: " + e.getMessage());
@@ -70,7 +68,7 @@ public class GameAttemptController {
     @PostMapping("/complete-game")
     @PreAuthorize("hasRole('PLAYER')")
     @Operation(summary = "Complete a game and save attempt with progress cleanup", 
-               description = "Records a completed game attempt and automatically deletes the associated progress to save data")
+               description = "Records a completed game attempt and marks the associated progress completed")
     public ResponseEntity<GameAttemptDTO> completeGameAndSaveAttempt(
             @Parameter(description = "User ID") @RequestParam Long userId,
             @Parameter(description = "Story ID") @RequestParam Integer storyId,
@@ -81,11 +79,6 @@ public class GameAttemptController {
             @Parameter(description = "End attempt date (ISO format)") 
             @RequestParam String endAttemptDate) {
         
-        System.out.println("GameAttemptController: Received request to complete game and save attempt");
-        System.out.println("Parameters: userId=" + userId + ", storyId=" + storyId + ", score=" + score + 
-                          ", totalPossibleScore=" + totalPossibleScore + ", startDate=" + startAttemptDate + 
-                          ", endDate=" + endAttemptDate);
-        
         try {
             // Parse the ISO date strings to LocalDateTime
             // Handle both with and without timezone (Z) suffix
@@ -100,7 +93,6 @@ public class GameAttemptController {
             GameAttemptDTO attempt = gameAttemptService.saveGameAttemptAndCleanupProgress(
                     userId, storyId, score, totalPossibleScore, 
                     startDate, endDate);
-            System.out.println("GameAttemptController: Successfully completed game and saved attempt with ID: " + attempt.getAttemptId());
             return ResponseEntity.status(HttpStatus.CREATED).body(attempt);
         } catch (Exception e) {
             System.err.println("GameAttemptController: Error completing game and saving attempt: " + e.getMessage());
@@ -109,6 +101,21 @@ public class GameAttemptController {
         }
     }
 
+    @PostMapping("/batch")
+    @PreAuthorize("hasRole('PLAYER')")
+    @Operation(summary = "Save many completed games at once",
+               description = "Records up to " + GameAttemptService.MAX_BATCH_SIZE + " completed games, e.g. ones played offline. "
+                       + "Invalid entries are listed by position under 'rejected'; the others are saved.")
+    public ResponseEntity<AttemptBatchResultDTO> saveGameAttemptBatch(@RequestBody List<AttemptSubmissionDTO> submissions) {
+        try {
+            AttemptBatchResultDTO result = gameAttemptService.saveGameAttemptBatch(submissions);
+            return ResponseEntity.status(HttpStatus.CREATED).body(result);
+        } catch (IllegalArgumentException e) {
+            System.err.println("GameAttemptController: Rejected attempt batch: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
     @GetMapping("/user/{userId}")
     @Operation(summary = "Get all attempts for a user", 
                description = "Retrieves the complete match history for a user")
@@ -131,6 +138,39 @@ public class GameAttemptController {
         return ResponseEntity.ok(attempts);
     }
 
+    @GetMapping("/user/{userId}/history")
+    @Operation(summary = "Get a page of match history",
+               description = "Cursor-paginated match history, newest first, optionally between two end dates. "
+                       + "Pass the previous page's nextCursor to continue; nextCursor is null on the last page.")
+    public ResponseEntity<AttemptPageDTO> getUserHistory(
+            @Parameter(description = "User ID") @PathVariable Long userId,
+            @Parameter(description = "Cursor from the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int limit,
+            @Parameter(description = "Start date (ISO format)") @RequestParam(required = false) String startDate,
+            @Parameter(description = "End date (ISO format)") @RequestParam(required = false) String endDate) {
+        try {
+            return ResponseEntity.ok(gameAttemptService.getAttemptHistory(
+                    userId, null, parseDate(startDate), parseDate(endDate), cursor, limit));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    @GetMapping("/user/{userId}/story/{storyId}/history")
+    @Operation(summary = "Get a page of match history for a story",
+               description = "Cursor-paginated attempts for one story, newest first")
+    public ResponseEntity<AttemptPageDTO> getUserStoryHistory(
+            @Parameter(description = "User ID") @PathVariable Long userId,
+            @Parameter(description = "Story ID") @PathVariable Integer storyId,
+            @Parameter(description = "Cursor from the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(gameAttemptService.getAttemptHistory(userId, storyId, null, null, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
     @GetMapping("/user/{userId}/story/{storyId}")
     @Operation(summary = "Get attempts for a specific story", 
                description = "Retrieves all attempts for a user on a specific story")
@@ -235,4 +275,10 @@ public class GameAttemptController {
         System.out.println("Test endpoint: Found " + attempts.size() + " attempts for user " + userId);
         return ResponseEntity.ok(attempts);
     }
+
+    // ISO date, with or without a trailing Z; null stays null
+    private static LocalDateTime parseDate(String value) {
+        if (value == null || value.isBlank()) return null;
+        return LocalDateTime.parse(value.endsWith("Z") ? value.substring(0, value.length() - 1) : value);
+    }
 }
@@ -1,15 +1,26 @@
 package JIZAS.BrightMinds.controller;
 
 import JIZAS.BrightMinds.dto.*;
+import JIZAS.BrightMinds.service.ContentLanguage;
+import JIZAS.BrightMinds.service.ContentPayloadCache;
+import JIZAS.BrightMinds.service.ContentWarmupService;
+import JIZAS.BrightMinds.service.GameAnswerService;
 import JIZAS.BrightMinds.service.GameService;
+import JIZAS.BrightMinds.service.GameSessionStore;
 import JIZAS.BrightMinds.service.ProgressService;
 import JIZAS.BrightMinds.service.UserResponseService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.transaction.TransactionException;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/game")
@@ -24,11 +35,57 @@ public class GameController {
     @Autowired
     private UserResponseService userResponseService;
 
+    @Autowired
+    private ContentPayloadCache contentPayloadCache;
+
+    @Autowired
+    private ContentWarmupService contentWarmupService;
+
+    @Autowired
+    private GameAnswerService gameAnswerService;
+
+    @Autowired
+    private GameSessionStore gameSessionStore;
+
+    // Body is the cached GameSceneDTO JSON, written without re-serializing.
+    // ?lang=en|tl returns a single-language variant, ?lang=auto picks one from Accept-Language.
     @GetMapping("/scene/{sceneId}")
-    public ResponseEntity<GameSceneDTO> getGameScene(@PathVariable Integer sceneId) {
+    public ResponseEntity<byte[]> getGameScene(@PathVariable Integer sceneId,
+                                               @RequestParam(value = "lang", required = false) String lang,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT_LANGUAGE, required = false) String acceptLanguage,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        try {
+            ContentLanguage language = ContentLanguage.resolve(lang, acceptLanguage);
+            boolean negotiated = "auto".equalsIgnoreCase(lang);
+            ResponseEntity<byte[]> response = contentPayloadCache.scene(sceneId, language)
+                    .map(payload -> payload.toResponse(ifNoneMatch, acceptEncoding, negotiated))
+                    .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+            // Next scenes are almost always requested next; get them serialized ahead of time
+            contentWarmupService.warmAfter(sceneId, language);
+            return response;
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (RuntimeException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    // Body is the cached StoryBundleDTO JSON, written without re-serializing; lang works as for scenes
+    @GetMapping("/story/{storyId}/bundle")
+    public ResponseEntity<byte[]> getStoryBundle(@PathVariable Integer storyId,
+                                                 @RequestParam(value = "lang", required = false) String lang,
+                                                 @RequestHeader(value = HttpHeaders.ACCEPT_LANGUAGE, required = false) String acceptLanguage,
+                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                 @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         try {
-            GameSceneDTO gameScene = gameService.getGameScene(sceneId);
-            return new ResponseEntity<>(gameScene, HttpStatus.OK);
+            ContentLanguage language = ContentLanguage.resolve(lang, acceptLanguage);
+            boolean negotiated = "auto".equalsIgnoreCase(lang);
+            return contentPayloadCache.bundle(storyId, language)
+                    .map(payload -> payload.toResponse(ifNoneMatch, acceptEncoding, negotiated))
+                    .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         } catch (RuntimeException e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
@@ -104,8 +161,8 @@ public class GameController {
     @PostMapping("/restart/{userId}/{storyId}")
     public ResponseEntity<GameProgressDTO> restartGame(@PathVariable Long userId, @PathVariable Integer storyId) {
         try {
-            // Delete existing progress
-            progressService.deleteByUserAndStory(userId, storyId);
+            // Reset existing progress in place
+            progressService.resetProgress(userId, storyId);
             
             // Return fresh progress
             GameProgressDTO progress = new GameProgressDTO();
@@ -147,4 +204,182 @@ public class GameController {
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
         }
     }
-}
\ No newline at end of file
+
+    // Sequenced, retry-safe variants of the two saves above: reply with a small ack, not the progress view
+    @PostMapping("/progress/scene")
+    public ResponseEntity<ProgressAckDTO> saveSceneSequenced(@RequestBody SaveProgressDTO saveProgressDTO,
+                                                            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        try {
+            if (idempotencyKey != null) saveProgressDTO.setIdempotencyKey(idempotencyKey);
+            ProgressAckDTO ack = progressService.saveSceneSequenced(saveProgressDTO);
+            if (ack != null) {
+                return new ResponseEntity<>(ack, HttpStatus.OK);
+            } else {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @PostMapping("/progress/wrong-answer")
+    public ResponseEntity<ProgressAckDTO> saveWrongAnswerSequenced(@RequestBody SaveProgressDTO saveProgressDTO,
+                                                                  @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        try {
+            if (idempotencyKey != null) saveProgressDTO.setIdempotencyKey(idempotencyKey);
+            ProgressAckDTO ack = progressService.saveWrongAnswerSequenced(saveProgressDTO);
+            if (ack != null) {
+                return new ResponseEntity<>(ack, HttpStatus.OK);
+            } else {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    // Checks the answer server-side, records the response and updates progress in one call
+    @PostMapping("/answer")
+    public ResponseEntity<AnswerResultDTO> submitAnswer(@RequestBody AnswerSubmissionDTO submission,
+                                                        @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        try {
+            if (idempotencyKey != null) submission.setIdempotencyKey(idempotencyKey);
+            AnswerResultDTO result = gameAnswerService.submit(submission);
+            if (result != null) {
+                return new ResponseEntity<>(result, HttpStatus.OK);
+            } else {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    // Partial update of answerStates / perQuestionState / questionMistakes; returns only the new version
+    @PatchMapping("/progress/{userId}/{storyId}")
+    public ResponseEntity<ProgressVersionDTO> patchProgress(@PathVariable Long userId, @PathVariable Integer storyId,
+                                                            @RequestBody ProgressPatchDTO patch) {
+        try {
+            ProgressVersionDTO version = progressService.patchProgress(userId, storyId, patch);
+            if (version != null) {
+                return new ResponseEntity<>(version, HttpStatus.OK);
+            } else {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    // Opens a gameplay session for the signed-in user; the /session/{sessionId}/** calls below
+    // reuse the user, story content and progress it resolved instead of looking them up again
+    @PostMapping("/session/{storyId}")
+    public ResponseEntity<GameSessionDTO> openSession(@PathVariable Integer storyId, @AuthenticationPrincipal User principal) {
+        if (principal == null) return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        try {
+            GameSessionDTO session = progressService.openSession(principal.getUsername(), storyId);
+            if (session != null) {
+                return new ResponseEntity<>(session, HttpStatus.OK);
+            } else {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @GetMapping("/session/{sessionId}/progress")
+    public ResponseEntity<GameProgressDTO> getSessionProgress(@PathVariable String sessionId, @AuthenticationPrincipal User principal) {
+        return session(sessionId, principal)
+                .map(session -> new ResponseEntity<>(progressService.sessionProgress(session), HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @GetMapping("/session/{sessionId}/next-scene")
+    public ResponseEntity<Integer> getSessionNextScene(@PathVariable String sessionId, @AuthenticationPrincipal User principal) {
+        GameSessionStore.GameSession session = session(sessionId, principal).orElse(null);
+        if (session == null) return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        Integer nextSceneId = progressService.getNextSceneId(session);
+        if (nextSceneId != null) {
+            return new ResponseEntity<>(nextSceneId, HttpStatus.OK);
+        } else {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    // userId and storyId come from the session; any in the body are ignored
+    @PostMapping("/session/{sessionId}/progress/scene")
+    public ResponseEntity<ProgressAckDTO> saveSessionScene(@PathVariable String sessionId, @AuthenticationPrincipal User principal,
+                                                           @RequestBody SaveProgressDTO saveProgressDTO,
+                                                           @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        GameSessionStore.GameSession session = session(sessionId, principal).orElse(null);
+        if (session == null) return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        try {
+            if (idempotencyKey != null) saveProgressDTO.setIdempotencyKey(idempotencyKey);
+            ProgressAckDTO ack = progressService.saveSceneSequenced(saveProgressDTO, session);
+            if (ack != null) {
+                return new ResponseEntity<>(ack, HttpStatus.OK);
+            } else {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @PostMapping("/session/{sessionId}/progress/wrong-answer")
+    public ResponseEntity<ProgressAckDTO> saveSessionWrongAnswer(@PathVariable String sessionId, @AuthenticationPrincipal User principal,
+                                                                 @RequestBody SaveProgressDTO saveProgressDTO,
+                                                                 @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        GameSessionStore.GameSession session = session(sessionId, principal).orElse(null);
+        if (session == null) return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        try {
+            if (idempotencyKey != null) saveProgressDTO.setIdempotencyKey(idempotencyKey);
+            ProgressAckDTO ack = progressService.saveWrongAnswerSequenced(saveProgressDTO, session);
+            if (ack != null) {
+                return new ResponseEntity<>(ack, HttpStatus.OK);
+            } else {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @PostMapping("/session/{sessionId}/answer")
+    public ResponseEntity<AnswerResultDTO> submitSessionAnswer(@PathVariable String sessionId, @AuthenticationPrincipal User principal,
+                                                               @RequestBody AnswerSubmissionDTO submission,
+                                                               @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        GameSessionStore.GameSession session = session(sessionId, principal).orElse(null);
+        if (session == null) return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        try {
+            if (idempotencyKey != null) submission.setIdempotencyKey(idempotencyKey);
+            AnswerResultDTO result = gameAnswerService.submit(submission, session);
+            if (result != null) {
+                return new ResponseEntity<>(result, HttpStatus.OK);
+            } else {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @DeleteMapping("/session/{sessionId}")
+    public ResponseEntity<Void> closeSession(@PathVariable String sessionId, @AuthenticationPrincipal User principal) {
+        session(sessionId, principal).ifPresent(session -> gameSessionStore.close(session.getId()));
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    // Database and transaction failures are ours, not the client's: answer 500 so the request is retried
+    @ExceptionHandler({DataAccessException.class, TransactionException.class})
+    public ResponseEntity<Void> handleStorageFailure(RuntimeException e) {
+        return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    // Empty when the session is unknown, idle too long or belongs to another user
+    private Optional<GameSessionStore.GameSession> session(String sessionId, User principal) {
+        if (principal == null) return Optional.empty();
+        return gameSessionStore.get(sessionId, principal.getUsername());
+    }
+}
@@ -3,6 +3,9 @@ package JIZAS.BrightMinds.controller;
 import JIZAS.BrightMinds.dto.UserUpdateDTO;
 import JIZAS.BrightMinds.dto.UserViewDTO;
 import JIZAS.BrightMinds.service.GameMasterService;
+import JIZAS.BrightMinds.service.OutboxWorker;
+import JIZAS.BrightMinds.service.ProgressReaper;
+import JIZAS.BrightMinds.service.TimePartitioning;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -26,6 +29,15 @@ public class GameMasterController {
     @Autowired
     private GameMasterService gameMasterService;
 
+    @Autowired
+    private ProgressReaper progressReaper;
+
+    @Autowired
+    private OutboxWorker outboxWorker;
+
+    @Autowired
+    private TimePartitioning timePartitioning;
+
     @GetMapping("/students")
     @PreAuthorize("hasRole('GAMEMASTER')")
     public ResponseEntity<List<UserViewDTO>> getMyStudents(@RequestHeader(value = "X-GameMaster-Id", defaultValue = "1") Long gameMasterId) {
@@ -93,4 +105,25 @@ public class GameMasterController {
         gameMasterService.resetStudentPassword(gameMasterId, studentId);
         return ResponseEntity.ok(Map.of("message", "Password reset successfully. Student must change password on next login."));
     }
+
+    // Rows removed by the abandoned-progress reaper, per run and since startup
+    @GetMapping("/maintenance/progress-reaper")
+    @PreAuthorize("hasRole('GAMEMASTER')")
+    public ResponseEntity<Map<String, Object>> getProgressReaperStats() {
+        return ResponseEntity.ok(progressReaper.stats());
+    }
+
+    // Backlog and failures of the completion outbox
+    @GetMapping("/maintenance/outbox")
+    @PreAuthorize("hasRole('GAMEMASTER')")
+    public ResponseEntity<Map<String, Object>> getOutboxStats() {
+        return ResponseEntity.ok(outboxWorker.stats());
+    }
+
+    // Partitions of game_attempts and user_response, and whether month queries are pruned
+    @GetMapping("/maintenance/partitions")
+    @PreAuthorize("hasRole('GAMEMASTER')")
+    public ResponseEntity<Map<String, Object>> getPartitionStats() {
+        return ResponseEntity.ok(timePartitioning.stats());
+    }
 }
@@ -0,0 +1,207 @@
+package JIZAS.BrightMinds.controller;
+
+import JIZAS.BrightMinds.dto.AnswerResultDTO;
+import JIZAS.BrightMinds.dto.GameSessionDTO;
+import JIZAS.BrightMinds.dto.GameplayFrameDTO;
+import JIZAS.BrightMinds.dto.ProgressAckDTO;
+import JIZAS.BrightMinds.security.JwtService;
+import JIZAS.BrightMinds.service.GameAnswerService;
+import JIZAS.BrightMinds.service.GameSessionStore;
+import JIZAS.BrightMinds.service.ProgressService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.Endpoint;
+import jakarta.websocket.EndpointConfig;
+import jakarta.websocket.MessageHandler;
+import jakarta.websocket.Session;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.io.IOException;
+import java.util.Date;
+
+/**
+ * Gameplay WebSocket channel at /ws/game, one instance per connection. See {@link GameplayFrameDTO}
+ * for the frames.
+ *
+ * The first frame authenticates with the same JWT the REST API uses and opens a gameplay session
+ * (see {@link GameSessionStore}); every later frame runs against that session, without the HTTP
+ * filter chain, token parsing or user lookup. A frame sent after the token expired gets a 401
+ * error and the client sends a new "auth" frame. The REST endpoints stay available as a fallback.
+ */
+public class GameplaySocketEndpoint extends Endpoint {
+
+    // Frames are small JSON objects; anything larger is refused by the container
+    private static final int MAX_FRAME_CHARS = 16 * 1024;
+
+    private final JwtService jwtService;
+    private final UserDetailsService userDetailsService;
+    private final ProgressService progressService;
+    private final GameAnswerService gameAnswerService;
+    private final GameSessionStore gameSessionStore;
+    private final ObjectMapper objectMapper;
+    private final int maxFramesPerMinute;
+    private final long idleTimeoutMs;
+
+    // Touched only by the container's message thread for this connection
+    private String username;
+    private long tokenExpiresAt;
+    private String gameSessionId;
+    private long windowStart;
+    private int framesInWindow;
+
+    public GameplaySocketEndpoint(JwtService jwtService, UserDetailsService userDetailsService,
+                                  ProgressService progressService, GameAnswerService gameAnswerService,
+                                  GameSessionStore gameSessionStore, ObjectMapper objectMapper,
+                                  int maxFramesPerMinute, long idleTimeoutMs) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        this.progressService = progressService;
+        this.gameAnswerService = gameAnswerService;
+        this.gameSessionStore = gameSessionStore;
+        this.objectMapper = objectMapper;
+        this.maxFramesPerMinute = maxFramesPerMinute;
+        this.idleTimeoutMs = idleTimeoutMs;
+    }
+
+    @Override
+    public void onOpen(Session session, EndpointConfig config) {
+        session.setMaxIdleTimeout(idleTimeoutMs);
+        session.setMaxTextMessageBufferSize(MAX_FRAME_CHARS);
+        session.addMessageHandler(String.class, (MessageHandler.Whole<String>) text -> onFrame(session, text));
+    }
+
+    @Override
+    public void onError(Session session, Throwable error) {
+        System.err.println("GameplaySocketEndpoint: Connection error: " + error.getMessage());
+    }
+
+    private void onFrame(Session session, String text) {
+        GameplayFrameDTO frame;
+        try {
+            frame = objectMapper.readValue(text, GameplayFrameDTO.class);
+        } catch (JsonProcessingException e) {
+            send(session, error(null, 400, "Malformed frame"));
+            return;
+        }
+        if (overLimit()) {
+            send(session, error(frame.getId(), 429, "Rate limit exceeded. Please wait a moment."));
+            return;
+        }
+        try {
+            send(session, handle(frame));
+        } catch (IllegalArgumentException e) {
+            send(session, error(frame.getId(), 400, e.getMessage()));
+        } catch (RuntimeException e) {
+            System.err.println("GameplaySocketEndpoint: Failed to handle " + frame.getT() + " frame: " + e.getMessage());
+            send(session, error(frame.getId(), 500, "Could not process frame"));
+        }
+    }
+
+    private GameplayFrameDTO handle(GameplayFrameDTO frame) {
+        if ("auth".equals(frame.getT())) return authenticate(frame);
+        if (username == null) return error(frame.getId(), 401, "Authenticate first");
+        if (System.currentTimeMillis() >= tokenExpiresAt) {
+            username = null;
+            return error(frame.getId(), 401, "Token expired");
+        }
+        GameSessionStore.GameSession session = gameSessionStore.get(gameSessionId, username).orElse(null);
+        if (session == null) return error(frame.getId(), 410, "Game session ended; authenticate again");
+
+        GameplayFrameDTO reply;
+        switch (frame.getT() != null ? frame.getT() : "") {
+            case "scene": {
+                if (frame.getProgress() == null) throw new IllegalArgumentException("progress is required");
+                ProgressAckDTO ack = progressService.saveSceneSequenced(frame.getProgress(), session);
+                if (ack == null) return error(frame.getId(), 404, "No progress for this session");
+                reply = new GameplayFrameDTO("ack", frame.getId());
+                reply.setAck(ack);
+                reply.setNextSceneId(session.getSceneIndex().nextSceneId(frame.getProgress().getSceneId()));
+                return reply;
+            }
+            case "wrong": {
+                if (frame.getProgress() == null) throw new IllegalArgumentException("progress is required");
+                ProgressAckDTO ack = progressService.saveWrongAnswerSequenced(frame.getProgress(), session);
+                if (ack == null) return error(frame.getId(), 404, "No progress for this session");
+                reply = new GameplayFrameDTO("ack", frame.getId());
+                reply.setAck(ack);
+                return reply;
+            }
+            case "answer": {
+                if (frame.getAnswer() == null) throw new IllegalArgumentException("answer is required");
+                AnswerResultDTO result = gameAnswerService.submit(frame.getAnswer(), session);
+                if (result == null) return error(frame.getId(), 404, "Unknown scene or question");
+                reply = new GameplayFrameDTO("result", frame.getId());
+                reply.setResult(result);
+                return reply;
+            }
+            case "next":
+                reply = new GameplayFrameDTO("next", frame.getId());
+                reply.setNextSceneId(progressService.getNextSceneId(session));
+                return reply;
+            default:
+                return error(frame.getId(), 400, "Unknown frame type: " + frame.getT());
+        }
+    }
+
+    private GameplayFrameDTO authenticate(GameplayFrameDTO frame) {
+        if (frame.getToken() == null || frame.getStoryId() == null) {
+            return error(frame.getId(), 400, "token and storyId are required");
+        }
+        String email;
+        Date expiresAt;
+        UserDetails userDetails;
+        try {
+            email = jwtService.extractUsername(frame.getToken());
+            expiresAt = jwtService.extractClaim(frame.getToken(), Claims::getExpiration);
+            userDetails = userDetailsService.loadUserByUsername(email);
+        } catch (Exception e) {
+            return error(frame.getId(), 401, "Invalid token");
+        }
+        if (!jwtService.isTokenValid(frame.getToken(), userDetails)) {
+            return error(frame.getId(), 401, "Invalid token");
+        }
+
+        GameSessionDTO session = progressService.openSession(email, frame.getStoryId());
+        if (session == null) return error(frame.getId(), 404, "Story not found");
+        username = email;
+        tokenExpiresAt = expiresAt.getTime();
+        gameSessionId = session.getSessionId();
+
+        GameplayFrameDTO reply = new GameplayFrameDTO("session", frame.getId());
+        reply.setSession(session);
+        return reply;
+    }
+
+    // Fixed one-minute window, like the HTTP rate limiter
+    private boolean overLimit() {
+        long now = System.currentTimeMillis();
+        if (now - windowStart > 60_000) {
+            windowStart = now;
+            framesInWindow = 0;
+        }
+        return ++framesInWindow > maxFramesPerMinute;
+    }
+
+    private static GameplayFrameDTO error(Long id, int code, String message) {
+        GameplayFrameDTO frame = new GameplayFrameDTO("error", id);
+        frame.setCode(code);
+        frame.setMessage(message);
+        return frame;
+    }
+
+    private void send(Session session, GameplayFrameDTO frame) {
+        try {
+            session.getBasicRemote().sendText(objectMapper.writeValueAsString(frame));
+        } catch (IOException e) {
+            System.err.println("GameplaySocketEndpoint: Could not send " + frame.getT() + " frame: " + e.getMessage());
+            try {
+                session.close(new CloseReason(CloseReason.CloseCodes.UNEXPECTED_CONDITION, "Send failed"));
+            } catch (IOException ignored) {
+                // Already closing
+            }
+        }
+    }
+}
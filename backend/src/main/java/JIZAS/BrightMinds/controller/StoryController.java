@@ -1,18 +1,17 @@
 package JIZAS.BrightMinds.controller;
 
-import JIZAS.BrightMinds.dto.SceneDTO;
 import JIZAS.BrightMinds.dto.StoryDTO;
 import JIZAS.BrightMinds.entity.Story;
-import JIZAS.BrightMinds.service.SceneService;
+import JIZAS.BrightMinds.service.ContentPayloadCache;
 import JIZAS.BrightMinds.service.StoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.nio.charset.StandardCharsets;
 
 @RestController
 @RequestMapping("/api/stories")
@@ -22,7 +21,7 @@ public class StoryController {
     private StoryService storyService;
     
     @Autowired
-    private SceneService sceneService;
+    private ContentPayloadCache contentPayloadCache;
     
     @PostMapping
     public ResponseEntity<Story> create(@RequestBody StoryDTO dto) {
@@ -30,16 +29,20 @@ public class StoryController {
         return new ResponseEntity<>(created, HttpStatus.CREATED);
     }
     
+    // Body is the cached List<StoryCatalogDTO> JSON; scene lists come from /{id}/scenes on demand
     @GetMapping
-    public ResponseEntity<List<StoryDTO>> listAll() {
-        List<StoryDTO> list = storyService.listAll().stream().map(StoryDTO::new).collect(Collectors.toList());
-        return new ResponseEntity<>(list, HttpStatus.OK);
+    public ResponseEntity<byte[]> listAll(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                          @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return contentPayloadCache.catalog().toResponse(ifNoneMatch, acceptEncoding);
     }
     
+    // Body is the cached StoryDTO JSON, written without re-serializing
     @GetMapping("/{id}")
-    public ResponseEntity<StoryDTO> getById(@PathVariable Integer id) {
-        Optional<Story> s = storyService.getById(id);
-        return s.map(story -> new ResponseEntity<>(new StoryDTO(story), HttpStatus.OK))
+    public ResponseEntity<byte[]> getById(@PathVariable Integer id,
+                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                          @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return contentPayloadCache.story(id)
+                .map(payload -> payload.toResponse(ifNoneMatch, acceptEncoding))
                 .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
     
@@ -56,11 +59,23 @@ public class StoryController {
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
     
+    // Body is the cached List<SceneDTO> JSON; an unknown story keeps returning an empty list
     @GetMapping("/{id}/scenes")
-    public ResponseEntity<List<SceneDTO>> listScenes(@PathVariable Integer id) {
-        List<SceneDTO> list = sceneService.listByStory(id).stream().map(SceneDTO::new).collect(Collectors.toList());
-        return new ResponseEntity<>(list, HttpStatus.OK);
+    public ResponseEntity<byte[]> listScenes(@PathVariable Integer id,
+                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return contentPayloadCache.storyScenes(id)
+                .map(payload -> payload.toResponse(ifNoneMatch, acceptEncoding))
+                .orElseGet(() -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body("[]".getBytes(StandardCharsets.UTF_8)));
     }
-}
-
 
+    // Body is the cached AssetManifestDTO JSON: every image and audio file the story needs, for preloading
+    @GetMapping("/{id}/asset-manifest")
+    public ResponseEntity<byte[]> getAssetManifest(@PathVariable Integer id,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                   @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return contentPayloadCache.assetManifest(id)
+                .map(payload -> payload.toResponse(ifNoneMatch, acceptEncoding))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+}
@@ -0,0 +1,57 @@
+package JIZAS.BrightMinds.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+public class AnswerResultDTO {
+    private Integer questionId;
+
+    @JsonProperty("isCorrect")
+    private boolean correct;
+
+    // Sequence only: whether each submitted slot holds the right choice
+    private List<Boolean> positionResults;
+    private Integer pointsEarned;
+    private Integer score;
+    private Integer mistakeCount;
+    private Integer questionMistakes;
+    private boolean alreadyCompleted;
+    private Integer nextSceneId;
+    private Long responseId;
+    // ProgressAckDTO status; a duplicate or stale submission changes nothing and records no response
+    private String status;
+
+    public Integer getQuestionId() { return questionId; }
+    public void setQuestionId(Integer questionId) { this.questionId = questionId; }
+
+    public boolean isCorrect() { return correct; }
+    public void setCorrect(boolean correct) { this.correct = correct; }
+
+    public List<Boolean> getPositionResults() { return positionResults; }
+    public void setPositionResults(List<Boolean> positionResults) { this.positionResults = positionResults; }
+
+    public Integer getPointsEarned() { return pointsEarned; }
+    public void setPointsEarned(Integer pointsEarned) { this.pointsEarned = pointsEarned; }
+
+    public Integer getScore() { return score; }
+    public void setScore(Integer score) { this.score = score; }
+
+    public Integer getMistakeCount() { return mistakeCount; }
+    public void setMistakeCount(Integer mistakeCount) { this.mistakeCount = mistakeCount; }
+
+    public Integer getQuestionMistakes() { return questionMistakes; }
+    public void setQuestionMistakes(Integer questionMistakes) { this.questionMistakes = questionMistakes; }
+
+    public boolean isAlreadyCompleted() { return alreadyCompleted; }
+    public void setAlreadyCompleted(boolean alreadyCompleted) { this.alreadyCompleted = alreadyCompleted; }
+
+    public Integer getNextSceneId() { return nextSceneId; }
+    public void setNextSceneId(Integer nextSceneId) { this.nextSceneId = nextSceneId; }
+
+    public Long getResponseId() { return responseId; }
+    public void setResponseId(Long responseId) { this.responseId = responseId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+}
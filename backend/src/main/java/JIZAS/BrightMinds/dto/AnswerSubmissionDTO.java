@@ -0,0 +1,63 @@
+package JIZAS.BrightMinds.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public class AnswerSubmissionDTO {
+    private Long userId;
+    private Integer sceneId;
+    private Integer questionId;
+
+    // MCQ: the picked choice
+    private Integer choiceId;
+    // DragDrop: the dropped sprite and, when the question has several targets, the target position
+    private String assetName;
+    private Integer dragdropPosition;
+    // ID: the typed answer
+    private String answerText;
+    // Sequence: choice ids in the order the player arranged them
+    private List<Integer> sequence;
+
+    private LocalDateTime gameStartTime;
+    private Map<String, Object> answerStates;
+    // Same meaning as on SaveProgressDTO; clientSeq is required, the key optional
+    private Long clientSeq;
+    private String idempotencyKey;
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Integer getSceneId() { return sceneId; }
+    public void setSceneId(Integer sceneId) { this.sceneId = sceneId; }
+
+    public Integer getQuestionId() { return questionId; }
+    public void setQuestionId(Integer questionId) { this.questionId = questionId; }
+
+    public Integer getChoiceId() { return choiceId; }
+    public void setChoiceId(Integer choiceId) { this.choiceId = choiceId; }
+
+    public String getAssetName() { return assetName; }
+    public void setAssetName(String assetName) { this.assetName = assetName; }
+
+    public Integer getDragdropPosition() { return dragdropPosition; }
+    public void setDragdropPosition(Integer dragdropPosition) { this.dragdropPosition = dragdropPosition; }
+
+    public String getAnswerText() { return answerText; }
+    public void setAnswerText(String answerText) { this.answerText = answerText; }
+
+    public List<Integer> getSequence() { return sequence; }
+    public void setSequence(List<Integer> sequence) { this.sequence = sequence; }
+
+    public LocalDateTime getGameStartTime() { return gameStartTime; }
+    public void setGameStartTime(LocalDateTime gameStartTime) { this.gameStartTime = gameStartTime; }
+
+    public Map<String, Object> getAnswerStates() { return answerStates; }
+    public void setAnswerStates(Map<String, Object> answerStates) { this.answerStates = answerStates; }
+
+    public Long getClientSeq() { return clientSeq; }
+    public void setClientSeq(Long clientSeq) { this.clientSeq = clientSeq; }
+
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
+}
@@ -0,0 +1,26 @@
+package JIZAS.BrightMinds.dto;
+
+import java.util.List;
+
+public class AssetManifestDTO {
+
+    private Integer storyId;
+    private Long contentVersion;
+    private List<AssetManifestEntryDTO> assets;
+
+    public AssetManifestDTO() {}
+
+    public AssetManifestDTO(Integer storyId, Long contentVersion, List<AssetManifestEntryDTO> assets) {
+        this.storyId = storyId;
+        this.contentVersion = contentVersion;
+        this.assets = assets;
+    }
+
+    // Getters and Setters
+    public Integer getStoryId() { return storyId; }
+    public void setStoryId(Integer storyId) { this.storyId = storyId; }
+    public Long getContentVersion() { return contentVersion; }
+    public void setContentVersion(Long contentVersion) { this.contentVersion = contentVersion; }
+    public List<AssetManifestEntryDTO> getAssets() { return assets; }
+    public void setAssets(List<AssetManifestEntryDTO> assets) { this.assets = assets; }
+}
@@ -0,0 +1,46 @@
+package JIZAS.BrightMinds.dto;
+
+public class AssetManifestEntryDTO {
+
+    private Long assetId;
+    private String name;
+    private String type;
+    // "image" or "audio", so clients can pick the right preloader
+    private String kind;
+    private String url;
+    private Integer firstSceneId;
+    private Integer firstSceneOrder;
+    private String hash;
+
+    public AssetManifestEntryDTO() {}
+
+    public AssetManifestEntryDTO(Long assetId, String name, String type, String kind, String url,
+                                 Integer firstSceneId, Integer firstSceneOrder, String hash) {
+        this.assetId = assetId;
+        this.name = name;
+        this.type = type;
+        this.kind = kind;
+        this.url = url;
+        this.firstSceneId = firstSceneId;
+        this.firstSceneOrder = firstSceneOrder;
+        this.hash = hash;
+    }
+
+    // Getters and Setters
+    public Long getAssetId() { return assetId; }
+    public void setAssetId(Long assetId) { this.assetId = assetId; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public String getKind() { return kind; }
+    public void setKind(String kind) { this.kind = kind; }
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+    public Integer getFirstSceneId() { return firstSceneId; }
+    public void setFirstSceneId(Integer firstSceneId) { this.firstSceneId = firstSceneId; }
+    public Integer getFirstSceneOrder() { return firstSceneOrder; }
+    public void setFirstSceneOrder(Integer firstSceneOrder) { this.firstSceneOrder = firstSceneOrder; }
+    public String getHash() { return hash; }
+    public void setHash(String hash) { this.hash = hash; }
+}
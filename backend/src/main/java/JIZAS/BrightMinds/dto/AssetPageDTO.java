@@ -0,0 +1,23 @@
+package JIZAS.BrightMinds.dto;
+
+import java.util.List;
+
+public class AssetPageDTO {
+
+    private List<AssetDTO> items;
+    // Pass back as ?cursor= to get the next page; null on the last page
+    private Long nextCursor;
+
+    public AssetPageDTO() {}
+
+    public AssetPageDTO(List<AssetDTO> items, Long nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<AssetDTO> getItems() { return items; }
+    public void setItems(List<AssetDTO> items) { this.items = items; }
+    public Long getNextCursor() { return nextCursor; }
+    public void setNextCursor(Long nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -0,0 +1,25 @@
+package JIZAS.BrightMinds.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class AttemptBatchResultDTO {
+
+    // Saved attempts, oldest first
+    private List<GameAttemptDTO> saved;
+    // Position in the request -> why that entry was not saved
+    private Map<Integer, String> rejected;
+
+    public AttemptBatchResultDTO() {}
+
+    public AttemptBatchResultDTO(List<GameAttemptDTO> saved, Map<Integer, String> rejected) {
+        this.saved = saved;
+        this.rejected = rejected;
+    }
+
+    // Getters and Setters
+    public List<GameAttemptDTO> getSaved() { return saved; }
+    public void setSaved(List<GameAttemptDTO> saved) { this.saved = saved; }
+    public Map<Integer, String> getRejected() { return rejected; }
+    public void setRejected(Map<Integer, String> rejected) { this.rejected = rejected; }
+}
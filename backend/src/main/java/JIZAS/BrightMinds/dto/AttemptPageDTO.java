@@ -0,0 +1,23 @@
+package JIZAS.BrightMinds.dto;
+
+import java.util.List;
+
+public class AttemptPageDTO {
+
+    private List<GameAttemptDTO> items;
+    // Opaque; pass back as ?cursor= to get the next page; null on the last page
+    private String nextCursor;
+
+    public AttemptPageDTO() {}
+
+    public AttemptPageDTO(List<GameAttemptDTO> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<GameAttemptDTO> getItems() { return items; }
+    public void setItems(List<GameAttemptDTO> items) { this.items = items; }
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -0,0 +1,32 @@
+package JIZAS.BrightMinds.dto;
+
+/**
+ * One completed game in a batch upload, with the same fields as POST /api/game-attempts
+ */
+public class AttemptSubmissionDTO {
+    private Long userId;
+    private Integer storyId;
+    private Integer score;
+    private Integer totalPossibleScore;
+    // ISO format, with or without a trailing Z
+    private String startAttemptDate;
+    private String endAttemptDate;
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Integer getStoryId() { return storyId; }
+    public void setStoryId(Integer storyId) { this.storyId = storyId; }
+
+    public Integer getScore() { return score; }
+    public void setScore(Integer score) { this.score = score; }
+
+    public Integer getTotalPossibleScore() { return totalPossibleScore; }
+    public void setTotalPossibleScore(Integer totalPossibleScore) { this.totalPossibleScore = totalPossibleScore; }
+
+    public String getStartAttemptDate() { return startAttemptDate; }
+    public void setStartAttemptDate(String startAttemptDate) { this.startAttemptDate = startAttemptDate; }
+
+    public String getEndAttemptDate() { return endAttemptDate; }
+    public void setEndAttemptDate(String endAttemptDate) { this.endAttemptDate = endAttemptDate; }
+}
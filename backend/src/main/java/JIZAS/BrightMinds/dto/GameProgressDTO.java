@@ -15,6 +15,8 @@ public class GameProgressDTO {
     private Map<String, Object> perQuestionState;
     private Map<String, Object> questionMistakes;
     private boolean hasExistingProgress;
+    // Last client sequence number applied, so a reloaded game can continue numbering its saves
+    private Long acceptedSeq;
 
     public Long getUserId() { return userId; }
     public void setUserId(Long userId) { this.userId = userId; }
@@ -48,4 +50,7 @@ public class GameProgressDTO {
 
     public boolean isHasExistingProgress() { return hasExistingProgress; }
     public void setHasExistingProgress(boolean hasExistingProgress) { this.hasExistingProgress = hasExistingProgress; }
+
+    public Long getAcceptedSeq() { return acceptedSeq; }
+    public void setAcceptedSeq(Long acceptedSeq) { this.acceptedSeq = acceptedSeq; }
 }
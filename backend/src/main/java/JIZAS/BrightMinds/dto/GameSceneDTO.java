@@ -8,6 +8,7 @@ public class GameSceneDTO {
     private List<DialogueDTO> dialogues;
     private List<SceneAssetDTO> assets;
     private QuestionDTO question;
+    private ScenePrefetchDTO prefetch;
 
     // Getters and Setters
     public SceneDTO getScene() { return scene; }
@@ -18,4 +19,6 @@ public class GameSceneDTO {
     public void setAssets(List<SceneAssetDTO> assets) { this.assets = assets; }
     public QuestionDTO getQuestion() { return question; }
     public void setQuestion(QuestionDTO question) { this.question = question; }
+    public ScenePrefetchDTO getPrefetch() { return prefetch; }
+    public void setPrefetch(ScenePrefetchDTO prefetch) { this.prefetch = prefetch; }
 }
\ No newline at end of file
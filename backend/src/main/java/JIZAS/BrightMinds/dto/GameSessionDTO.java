@@ -0,0 +1,32 @@
+package JIZAS.BrightMinds.dto;
+
+/**
+ * Reply to opening a gameplay session: the session id for the /api/game/session/{sessionId}/**
+ * calls, how long it may sit idle, and the player's progress for the story (as from progress/check).
+ */
+public class GameSessionDTO {
+    private String sessionId;
+    private Long userId;
+    private Integer storyId;
+    private long contentVersion;
+    private long idleTimeoutSeconds;
+    private GameProgressDTO progress;
+
+    public String getSessionId() { return sessionId; }
+    public void setSessionId(String sessionId) { this.sessionId = sessionId; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public Integer getStoryId() { return storyId; }
+    public void setStoryId(Integer storyId) { this.storyId = storyId; }
+
+    public long getContentVersion() { return contentVersion; }
+    public void setContentVersion(long contentVersion) { this.contentVersion = contentVersion; }
+
+    public long getIdleTimeoutSeconds() { return idleTimeoutSeconds; }
+    public void setIdleTimeoutSeconds(long idleTimeoutSeconds) { this.idleTimeoutSeconds = idleTimeoutSeconds; }
+
+    public GameProgressDTO getProgress() { return progress; }
+    public void setProgress(GameProgressDTO progress) { this.progress = progress; }
+}
@@ -0,0 +1,73 @@
+package JIZAS.BrightMinds.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One frame of the gameplay WebSocket channel (/ws/game), in either direction. Only the fields
+ * that apply to the frame's type are sent.
+ *
+ * Client to server, by t: "auth" (token, storyId; must come first), "scene" and "wrong" (progress,
+ * as for the sequenced progress saves), "answer" (answer, as for /api/game/answer) and "next".
+ * Server to client: "session" (session), "ack" (ack, nextSceneId), "result" (result), "next"
+ * (nextSceneId) and "error" (code, message). id is chosen by the client and echoed in the reply.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GameplayFrameDTO {
+    private String t;
+    private Long id;
+
+    private String token;
+    private Integer storyId;
+    private SaveProgressDTO progress;
+    private AnswerSubmissionDTO answer;
+
+    private GameSessionDTO session;
+    private ProgressAckDTO ack;
+    private AnswerResultDTO result;
+    private Integer nextSceneId;
+    private Integer code;
+    private String message;
+
+    public GameplayFrameDTO() {}
+
+    public GameplayFrameDTO(String t, Long id) {
+        this.t = t;
+        this.id = id;
+    }
+
+    public String getT() { return t; }
+    public void setT(String t) { this.t = t; }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getToken() { return token; }
+    public void setToken(String token) { this.token = token; }
+
+    public Integer getStoryId() { return storyId; }
+    public void setStoryId(Integer storyId) { this.storyId = storyId; }
+
+    public SaveProgressDTO getProgress() { return progress; }
+    public void setProgress(SaveProgressDTO progress) { this.progress = progress; }
+
+    public AnswerSubmissionDTO getAnswer() { return answer; }
+    public void setAnswer(AnswerSubmissionDTO answer) { this.answer = answer; }
+
+    public GameSessionDTO getSession() { return session; }
+    public void setSession(GameSessionDTO session) { this.session = session; }
+
+    public ProgressAckDTO getAck() { return ack; }
+    public void setAck(ProgressAckDTO ack) { this.ack = ack; }
+
+    public AnswerResultDTO getResult() { return result; }
+    public void setResult(AnswerResultDTO result) { this.result = result; }
+
+    public Integer getNextSceneId() { return nextSceneId; }
+    public void setNextSceneId(Integer nextSceneId) { this.nextSceneId = nextSceneId; }
+
+    public Integer getCode() { return code; }
+    public void setCode(Integer code) { this.code = code; }
+
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
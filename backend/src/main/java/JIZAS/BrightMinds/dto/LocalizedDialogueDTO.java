@@ -0,0 +1,11 @@
+package JIZAS.BrightMinds.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Dialogue line of a single-language payload: lineText already holds the chosen language, so
+ * lineTextTl is left out. The default payload keeps using {@link DialogueDTO} with both fields.
+ */
+@JsonIgnoreProperties("lineTextTl")
+public class LocalizedDialogueDTO extends DialogueDTO {
+}
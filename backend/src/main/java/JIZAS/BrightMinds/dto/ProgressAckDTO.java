@@ -0,0 +1,28 @@
+package JIZAS.BrightMinds.dto;
+
+/**
+ * Reply to a sequenced progress save. status is "applied", "duplicate" (this save was already
+ * applied) or "stale" (a later save was applied first); acceptedSeq is the highest client sequence
+ * number the server has applied for the user and story.
+ */
+public class ProgressAckDTO {
+    public static final String APPLIED = "applied";
+    public static final String DUPLICATE = "duplicate";
+    public static final String STALE = "stale";
+
+    private String status;
+    private Long acceptedSeq;
+
+    public ProgressAckDTO() {}
+
+    public ProgressAckDTO(String status, Long acceptedSeq) {
+        this.status = status;
+        this.acceptedSeq = acceptedSeq;
+    }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Long getAcceptedSeq() { return acceptedSeq; }
+    public void setAcceptedSeq(Long acceptedSeq) { this.acceptedSeq = acceptedSeq; }
+}
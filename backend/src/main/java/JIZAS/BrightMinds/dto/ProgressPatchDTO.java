@@ -0,0 +1,10 @@
+package JIZAS.BrightMinds.dto;
+
+import java.util.List;
+
+public class ProgressPatchDTO {
+    private List<ProgressPatchOperationDTO> operations;
+
+    public List<ProgressPatchOperationDTO> getOperations() { return operations; }
+    public void setOperations(List<ProgressPatchOperationDTO> operations) { this.operations = operations; }
+}
@@ -0,0 +1,31 @@
+package JIZAS.BrightMinds.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * One change to a single top-level key of a progress state map.
+ * op is "set" (value), "remove", or "increment" (by, default 1);
+ * field is "answerStates", "perQuestionState" or "questionMistakes".
+ */
+public class ProgressPatchOperationDTO {
+    private String op;
+    private String field;
+    private String key;
+    private Object value;
+    private BigDecimal by;
+
+    public String getOp() { return op; }
+    public void setOp(String op) { this.op = op; }
+
+    public String getField() { return field; }
+    public void setField(String field) { this.field = field; }
+
+    public String getKey() { return key; }
+    public void setKey(String key) { this.key = key; }
+
+    public Object getValue() { return value; }
+    public void setValue(Object value) { this.value = value; }
+
+    public BigDecimal getBy() { return by; }
+    public void setBy(BigDecimal by) { this.by = by; }
+}
@@ -0,0 +1,14 @@
+package JIZAS.BrightMinds.dto;
+
+public class ProgressVersionDTO {
+    private Long version;
+
+    public ProgressVersionDTO() {}
+
+    public ProgressVersionDTO(Long version) {
+        this.version = version;
+    }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+}
@@ -11,6 +11,8 @@ public class ProgressViewDTO {
     private Integer score;
     private LocalDateTime lastAccessed;
     private Map<String, Object> perQuestionState;
+    // ACTIVE, COMPLETED or RESET; completed and reset rows hold no game state
+    private String status;
 
     public Long getProgressId() { return progressId; }
     public void setProgressId(Long progressId) { this.progressId = progressId; }
@@ -31,4 +33,7 @@ public class ProgressViewDTO {
     public void setLastAccessed(LocalDateTime lastAccessed) { this.lastAccessed = lastAccessed; }
     public Map<String, Object> getPerQuestionState() { return perQuestionState; }
     public void setPerQuestionState(Map<String, Object> perQuestionState) { this.perQuestionState = perQuestionState; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
 }
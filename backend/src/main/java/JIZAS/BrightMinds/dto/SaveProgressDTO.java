@@ -16,6 +16,10 @@ public class SaveProgressDTO {
     private Map<String, Object> answerStates;
     private Map<String, Object> perQuestionState;
     private Map<String, Object> questionMistakes;
+    // Optional: per (user, story) increasing number and retry key used to drop stale or repeated saves;
+    // the number keeps increasing across restarts and completions of the story
+    private Long clientSeq;
+    private String idempotencyKey;
 
     public Long getUserId() { return userId; }
     public void setUserId(Long userId) { this.userId = userId; }
@@ -52,4 +56,10 @@ public class SaveProgressDTO {
 
     public Map<String, Object> getQuestionMistakes() { return questionMistakes; }
     public void setQuestionMistakes(Map<String, Object> questionMistakes) { this.questionMistakes = questionMistakes; }
+
+    public Long getClientSeq() { return clientSeq; }
+    public void setClientSeq(Long clientSeq) { this.clientSeq = clientSeq; }
+
+    public String getIdempotencyKey() { return idempotencyKey; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
 }
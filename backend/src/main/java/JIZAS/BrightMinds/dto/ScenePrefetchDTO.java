@@ -0,0 +1,22 @@
+package JIZAS.BrightMinds.dto;
+
+import java.util.List;
+
+public class ScenePrefetchDTO {
+
+    private List<Integer> sceneIds;
+    private List<String> assetUrls;
+
+    public ScenePrefetchDTO() {}
+
+    public ScenePrefetchDTO(List<Integer> sceneIds, List<String> assetUrls) {
+        this.sceneIds = sceneIds;
+        this.assetUrls = assetUrls;
+    }
+
+    // Getters and Setters
+    public List<Integer> getSceneIds() { return sceneIds; }
+    public void setSceneIds(List<Integer> sceneIds) { this.sceneIds = sceneIds; }
+    public List<String> getAssetUrls() { return assetUrls; }
+    public void setAssetUrls(List<String> assetUrls) { this.assetUrls = assetUrls; }
+}
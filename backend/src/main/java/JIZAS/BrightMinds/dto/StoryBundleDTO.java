@@ -0,0 +1,22 @@
+package JIZAS.BrightMinds.dto;
+
+import java.util.List;
+
+public class StoryBundleDTO {
+
+    private StoryDTO story;
+    private List<GameSceneDTO> scenes;
+
+    public StoryBundleDTO() {}
+
+    public StoryBundleDTO(StoryDTO story, List<GameSceneDTO> scenes) {
+        this.story = story;
+        this.scenes = scenes;
+    }
+
+    // Getters and Setters
+    public StoryDTO getStory() { return story; }
+    public void setStory(StoryDTO story) { this.story = story; }
+    public List<GameSceneDTO> getScenes() { return scenes; }
+    public void setScenes(List<GameSceneDTO> scenes) { this.scenes = scenes; }
+}
@@ -0,0 +1,40 @@
+package JIZAS.BrightMinds.dto;
+
+public class StoryCatalogDTO {
+    private Integer storyId;
+    private String title;
+    private String thumbnailImage;
+    private String gameplayType;
+    private Integer storyOrder;
+    private Long sceneCount;
+    private Long totalPoints;
+
+    public StoryCatalogDTO() {}
+
+    // Used by the JPQL constructor expression in StoryRepository.findCatalog
+    public StoryCatalogDTO(Integer storyId, String title, String thumbnailImage, String gameplayType,
+                           Integer storyOrder, Long sceneCount, Long totalPoints) {
+        this.storyId = storyId;
+        this.title = title;
+        this.thumbnailImage = thumbnailImage;
+        this.gameplayType = gameplayType;
+        this.storyOrder = storyOrder;
+        this.sceneCount = sceneCount;
+        this.totalPoints = totalPoints;
+    }
+
+    public Integer getStoryId() { return storyId; }
+    public void setStoryId(Integer storyId) { this.storyId = storyId; }
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public String getThumbnailImage() { return thumbnailImage; }
+    public void setThumbnailImage(String thumbnailImage) { this.thumbnailImage = thumbnailImage; }
+    public String getGameplayType() { return gameplayType; }
+    public void setGameplayType(String gameplayType) { this.gameplayType = gameplayType; }
+    public Integer getStoryOrder() { return storyOrder; }
+    public void setStoryOrder(Integer storyOrder) { this.storyOrder = storyOrder; }
+    public Long getSceneCount() { return sceneCount; }
+    public void setSceneCount(Long sceneCount) { this.sceneCount = sceneCount; }
+    public Long getTotalPoints() { return totalPoints; }
+    public void setTotalPoints(Long totalPoints) { this.totalPoints = totalPoints; }
+}
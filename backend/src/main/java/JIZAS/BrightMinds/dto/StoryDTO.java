@@ -19,6 +19,13 @@ public class StoryDTO {
     public StoryDTO() {}
     
     public StoryDTO(Story story) {
+        this(story, story.getScenes() != null
+                ? story.getScenes().stream().map(SceneDTO::new).collect(Collectors.toList())
+                : null);
+    }
+    
+    // Use when the scenes are already loaded, so story.getScenes() is never touched
+    public StoryDTO(Story story, List<SceneDTO> scenes) {
         this.storyId = story.getStoryId();
         this.title = story.getTitle();
         this.description = story.getDescription();
@@ -36,9 +43,7 @@ public class StoryDTO {
         }
         
         this.sequenceGraph = story.getSequenceGraph();
-        if (story.getScenes() != null) {
-            this.scenes = story.getScenes().stream().map(SceneDTO::new).collect(Collectors.toList());
-        }
+        this.scenes = scenes;
     }
     
     public Story toEntity() {
@@ -7,7 +7,10 @@ import org.hibernate.type.SqlTypes;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 @Entity
-@Table(name = "asset")
+@Table(name = "asset", indexes = {
+		// Type-filtered keyset pages of /api/assets
+		@Index(name = "idx_asset_type_id", columnList = "type, asset_id")
+})
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Asset {
 
@@ -5,7 +5,10 @@ import jakarta.validation.constraints.NotNull;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "game_attempts")
+@Table(name = "game_attempts", indexes = {
+        // Match history is read newest first and paged by (end_attempt_date, attempt_id)
+        @Index(name = "idx_game_attempts_user_end", columnList = "user_id, end_attempt_date DESC, attempt_id DESC")
+})
 public class GameAttempt {
 
     @Id
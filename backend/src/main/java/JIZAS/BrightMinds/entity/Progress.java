@@ -7,9 +7,23 @@ import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
 @Entity
-@Table(name = "Progress")
+// One row per user and story; progress writes upsert against this key
+@Table(name = "Progress", uniqueConstraints = @UniqueConstraint(name = "uk_progress_user_story", columnNames = {"user_id", "story_id"}),
+       // Keyset order of the abandoned-progress reaper, see ProgressReaper
+       indexes = @Index(name = "idx_progress_last_accessed", columnList = "last_accessed, progress_id"))
 public class Progress {
 
+    /**
+     * Lifecycle of the row. Completing or restarting a game resets the row in place instead of
+     * deleting it; the next save makes it ACTIVE again. Rows from before this column are null,
+     * which counts as ACTIVE.
+     */
+    public enum Status {
+        ACTIVE,
+        COMPLETED,
+        RESET
+    }
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "progress_id")
@@ -38,20 +52,55 @@ public class Progress {
     @Column(name = "mistake_count")
     private Integer mistakeCount;
 
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 16)
+    private Status status;
+
+    // Typed state, see ProgressState; kept as the stored JSON text and decoded on first use
+    @Column(name = "progress_state", columnDefinition = "jsonb")
+    @JdbcTypeCode(SqlTypes.JSON)
+    private String progressState;
+
+    @Transient
+    private ProgressState state;
+
+    // Pre-version-2 maps, only read for components progress_state does not hold yet
     @Column(name = "answer_states", columnDefinition = "jsonb")
     @JdbcTypeCode(SqlTypes.JSON)
-    private Map<String, Object> answerStates;
+    private Map<String, Object> legacyAnswerStates;
 
     @Column(name = "per_question_state", columnDefinition = "jsonb")
     @JdbcTypeCode(SqlTypes.JSON)
-    private Map<String, Object> perQuestionState;
+    private Map<String, Object> legacyPerQuestionState;
 
     @Column(name = "question_mistakes", columnDefinition = "jsonb")
     @JdbcTypeCode(SqlTypes.JSON)
-    private Map<String, Object> questionMistakes;
+    private Map<String, Object> legacyQuestionMistakes;
+
+    // Bumped by every write, including the in-database JSONB patches that bypass the entity
+    @Column(name = "state_version")
+    private Long stateVersion;
+
+    // Highest client sequence number and latest idempotency key applied; see ProgressService
+    @Column(name = "last_client_seq")
+    private Long lastClientSeq;
+
+    @Column(name = "last_idempotency_key", length = 64)
+    private String lastIdempotencyKey;
 
     public Progress() {}
 
+    @PrePersist
+    @PreUpdate
+    void bumpStateVersion() {
+        stateVersion = stateVersion != null ? stateVersion + 1 : 1L;
+    }
+
+    @PostLoad
+    void clearDecodedState() {
+        state = null;
+    }
+
     public Long getProgressId() { return progressId; }
     public void setProgressId(Long progressId) { this.progressId = progressId; }
 
@@ -76,12 +125,43 @@ public class Progress {
     public Integer getMistakeCount() { return mistakeCount; }
     public void setMistakeCount(Integer mistakeCount) { this.mistakeCount = mistakeCount; }
 
-    public Map<String, Object> getAnswerStates() { return answerStates; }
-    public void setAnswerStates(Map<String, Object> answerStates) { this.answerStates = answerStates; }
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public boolean isActive() { return status == null || status == Status.ACTIVE; }
+
+    public ProgressState getState() {
+        if (state == null) {
+            state = ProgressState.read(progressState, legacyAnswerStates, legacyPerQuestionState, legacyQuestionMistakes);
+        }
+        return state;
+    }
+
+    // Writes the whole state in the version 2 encoding and drops the old maps
+    public void setState(ProgressState state) {
+        this.state = state != null ? state : ProgressState.EMPTY;
+        this.progressState = this.state.toJson();
+        this.legacyAnswerStates = null;
+        this.legacyPerQuestionState = null;
+        this.legacyQuestionMistakes = null;
+    }
+
+    // Map views of the typed state, in the shape the API has always used
+    public Map<String, Object> getAnswerStates() { return getState().answerStatesView(); }
+    public void setAnswerStates(Map<String, Object> answerStates) { setState(getState().withAnswerStates(answerStates)); }
+
+    public Map<String, Object> getPerQuestionState() { return getState().perQuestionStateView(); }
+    public void setPerQuestionState(Map<String, Object> perQuestionState) { setState(getState().withPerQuestionState(perQuestionState)); }
+
+    public Map<String, Object> getQuestionMistakes() { return getState().questionMistakesView(); }
+    public void setQuestionMistakes(Map<String, Object> questionMistakes) { setState(getState().withQuestionMistakes(questionMistakes)); }
+
+    public Long getStateVersion() { return stateVersion; }
+    public void setStateVersion(Long stateVersion) { this.stateVersion = stateVersion; }
 
-    public Map<String, Object> getPerQuestionState() { return perQuestionState; }
-    public void setPerQuestionState(Map<String, Object> perQuestionState) { this.perQuestionState = perQuestionState; }
+    public Long getLastClientSeq() { return lastClientSeq; }
+    public void setLastClientSeq(Long lastClientSeq) { this.lastClientSeq = lastClientSeq; }
 
-    public Map<String, Object> getQuestionMistakes() { return questionMistakes; }
-    public void setQuestionMistakes(Map<String, Object> questionMistakes) { this.questionMistakes = questionMistakes; }
+    public String getLastIdempotencyKey() { return lastIdempotencyKey; }
+    public void setLastIdempotencyKey(String lastIdempotencyKey) { this.lastIdempotencyKey = lastIdempotencyKey; }
 }
\ No newline at end of file
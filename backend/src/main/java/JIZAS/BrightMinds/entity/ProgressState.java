@@ -0,0 +1,486 @@
+package JIZAS.BrightMinds.entity;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Typed gameplay state of one {@link Progress} row, stored compactly in the progress_state column.
+ *
+ * Completed scenes are a bitset of scene ids (offset by the lowest id), their results flat
+ * [sceneId, questionId, points] triples, per-question mistakes flat [questionId, count] pairs and
+ * choice states flat [choiceId, code] pairs. Entries the model does not know are kept verbatim in
+ * the x* objects, so nothing a client stored is lost. Encoding, version 2:
+ * <pre>
+ *   {"v":2, "ans":[12,1], "xa":{},                          answerStates
+ *    "done":{"base":101,"bits":"Aw=="}, "pts":[101,5,4],
+ *    "sel":[12,1], "xp":{},                                   perQuestionState
+ *    "mq":[5,2], "xq":{}}                                     questionMistakes
+ * </pre>
+ * Each of the three components is present as a whole or not at all ("ans", "done" and "mq" mark
+ * presence), so writers can replace one component with a top-level jsonb merge. A component that is
+ * absent falls back to the old Map column of the same name, which is how rows written before
+ * version 2 are read. Instances are immutable.
+ */
+public final class ProgressState {
+
+    public static final int VERSION = 2;
+
+    /** The three parts that used to be separate JSONB maps. */
+    public enum Component { ANSWER_STATES, PER_QUESTION_STATE, QUESTION_MISTAKES }
+
+    /** Choice selection kept in answerStates and perQuestionState. */
+    public enum ChoiceState {
+        CORRECT(1, "correct"), WRONG(2, "wrong");
+
+        private final int code;
+        private final String value;
+
+        ChoiceState(int code, String value) {
+            this.code = code;
+            this.value = value;
+        }
+
+        public String getValue() { return value; }
+
+        static ChoiceState ofCode(int code) {
+            for (ChoiceState s : values()) if (s.code == code) return s;
+            return null;
+        }
+
+        static ChoiceState ofValue(Object value) {
+            for (ChoiceState s : values()) if (s.value.equals(value)) return s;
+            return null;
+        }
+    }
+
+    public static final ProgressState EMPTY = new ProgressState(EnumSet.noneOf(Component.class),
+            new int[0], Map.of(), 0, new BitSet(), new int[0], new int[0], Map.of(), new int[0], Map.of());
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+    private static final String SCENE_PREFIX = "scene_";
+
+    private final Set<Component> present;
+    private final int[] answers;
+    private final Map<String, Object> extraAnswers;
+    private final int doneBase;
+    private final BitSet done;
+    private final int[] results;
+    private final int[] selections;
+    private final Map<String, Object> extraPerQuestion;
+    private final int[] mistakes;
+    private final Map<String, Object> extraMistakes;
+
+    private ProgressState(Set<Component> present, int[] answers, Map<String, Object> extraAnswers,
+                          int doneBase, BitSet done, int[] results, int[] selections, Map<String, Object> extraPerQuestion,
+                          int[] mistakes, Map<String, Object> extraMistakes) {
+        this.present = present;
+        this.answers = answers;
+        this.extraAnswers = extraAnswers;
+        this.doneBase = doneBase;
+        this.done = done;
+        this.results = results;
+        this.selections = selections;
+        this.extraPerQuestion = extraPerQuestion;
+        this.mistakes = mistakes;
+        this.extraMistakes = extraMistakes;
+    }
+
+    // ---- reading ----
+
+    /**
+     * Decodes a progress_state value. Components missing from it are taken from the old Map
+     * columns; any argument may be null.
+     */
+    public static ProgressState read(String json, Map<String, Object> answerStates,
+                                     Map<String, Object> perQuestionState, Map<String, Object> questionMistakes) {
+        ProgressState state = EMPTY;
+        JsonNode root = null;
+        if (json != null && !json.isBlank()) {
+            try {
+                root = MAPPER.readTree(json);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Stored progress state is not valid JSON", e);
+            }
+        }
+        if (root != null && root.has("ans")) {
+            state = state.withAnswers(intArray(root.get("ans")), extras(root.get("xa")));
+        } else if (answerStates != null) {
+            state = state.withAnswerStates(answerStates);
+        }
+        if (root != null && root.has("done")) {
+            JsonNode done = root.get("done");
+            byte[] bits = Base64.getDecoder().decode(done.path("bits").asText(""));
+            state = state.withPerQuestion(done.path("base").asInt(0), BitSet.valueOf(bits),
+                    intArray(root.get("pts")), intArray(root.get("sel")), extras(root.get("xp")));
+        } else if (perQuestionState != null) {
+            state = state.withPerQuestionState(perQuestionState);
+        }
+        if (root != null && root.has("mq")) {
+            state = state.withMistakes(intArray(root.get("mq")), extras(root.get("xq")));
+        } else if (questionMistakes != null) {
+            state = state.withQuestionMistakes(questionMistakes);
+        }
+        return state;
+    }
+
+    private static int[] intArray(JsonNode node) {
+        if (node == null || !node.isArray()) return new int[0];
+        int[] values = new int[node.size()];
+        for (int i = 0; i < values.length; i++) values[i] = node.get(i).asInt();
+        return values;
+    }
+
+    private static Map<String, Object> extras(JsonNode node) {
+        if (node == null || !node.isObject() || node.isEmpty()) return Map.of();
+        return Collections.unmodifiableMap(MAPPER.convertValue(node, MAP_TYPE));
+    }
+
+    // ---- writing ----
+
+    /** Full encoding of every present component. */
+    public String toJson() {
+        return toJson(present);
+    }
+
+    /** Encoding of only the given components, for a top-level jsonb merge into the stored value. */
+    public String toJson(Set<Component> components) {
+        ObjectNode root = MAPPER.createObjectNode();
+        root.put("v", VERSION);
+        if (components.contains(Component.ANSWER_STATES)) {
+            putInts(root, "ans", answers);
+            root.set("xa", MAPPER.valueToTree(extraAnswers));
+        }
+        if (components.contains(Component.PER_QUESTION_STATE)) {
+            ObjectNode doneNode = root.putObject("done");
+            doneNode.put("base", doneBase);
+            doneNode.put("bits", Base64.getEncoder().encodeToString(done.toByteArray()));
+            putInts(root, "pts", results);
+            putInts(root, "sel", selections);
+            root.set("xp", MAPPER.valueToTree(extraPerQuestion));
+        }
+        if (components.contains(Component.QUESTION_MISTAKES)) {
+            putInts(root, "mq", mistakes);
+            root.set("xq", MAPPER.valueToTree(extraMistakes));
+        }
+        return root.toString();
+    }
+
+    private static void putInts(ObjectNode root, String field, int[] values) {
+        ArrayNode array = root.putArray(field);
+        for (int v : values) array.add(v);
+    }
+
+    // ---- typed access ----
+
+    public Set<Component> getPresent() { return present; }
+
+    /** True when perQuestionState is unset or has no entries. */
+    public boolean isPerQuestionStateEmpty() {
+        return !present.contains(Component.PER_QUESTION_STATE)
+                || (results.length == 0 && selections.length == 0 && extraPerQuestion.isEmpty());
+    }
+
+    public boolean isSceneCompleted(int sceneId) {
+        int bit = sceneId - doneBase;
+        return bit >= 0 && done.get(bit);
+    }
+
+    /** Ids of completed scenes, ascending. */
+    public int[] completedSceneIds() {
+        return done.stream().map(bit -> bit + doneBase).toArray();
+    }
+
+    /** Points earned on a completed scene, or null when unknown. */
+    public Integer pointsEarned(int sceneId) {
+        for (int i = 0; i + 2 < results.length; i += 3) {
+            if (results[i] == sceneId) return results[i + 2] >= 0 ? results[i + 2] : null;
+        }
+        return null;
+    }
+
+    public int mistakes(int questionId) {
+        for (int i = 0; i + 1 < mistakes.length; i += 2) {
+            if (mistakes[i] == questionId) return mistakes[i + 1];
+        }
+        return 0;
+    }
+
+    /** Marks a scene completed with the question answered there and the points it earned. */
+    public ProgressState withSceneCompleted(int sceneId, int questionId, int pointsEarned) {
+        TreeMap<Integer, int[]> byScene = resultsByScene(results);
+        byScene.put(sceneId, new int[] {questionId, pointsEarned});
+        int base = doneBase;
+        BitSet bits = (BitSet) done.clone();
+        if (bits.isEmpty()) {
+            base = sceneId;
+        } else if (sceneId < base) {
+            bits = shift(bits, base - sceneId);
+            base = sceneId;
+        }
+        bits.set(sceneId - base);
+        return new ProgressState(with(Component.PER_QUESTION_STATE), answers, extraAnswers,
+                base, bits, flatten(byScene), selections, extraPerQuestion, mistakes, extraMistakes);
+    }
+
+    public ProgressState withMistakes(int questionId, int count) {
+        TreeMap<Integer, Integer> byQuestion = new TreeMap<>();
+        for (int i = 0; i + 1 < mistakes.length; i += 2) byQuestion.put(mistakes[i], mistakes[i + 1]);
+        byQuestion.put(questionId, count);
+        int[] flat = new int[byQuestion.size() * 2];
+        int i = 0;
+        for (Map.Entry<Integer, Integer> e : byQuestion.entrySet()) {
+            flat[i++] = e.getKey();
+            flat[i++] = e.getValue();
+        }
+        return withMistakes(flat, extraMistakes);
+    }
+
+    // ---- conversion from and to the Map shape the API uses ----
+
+    /** Replaces answerStates; null removes the component. */
+    public ProgressState withAnswerStates(Map<String, Object> answerStates) {
+        if (answerStates == null) return without(Component.ANSWER_STATES);
+        Map<String, Object> extra = new LinkedHashMap<>();
+        int[] flat = choicePairs(answerStates, extra);
+        return withAnswers(flat, freeze(extra));
+    }
+
+    /** Replaces perQuestionState; null removes the component. */
+    public ProgressState withPerQuestionState(Map<String, Object> perQuestionState) {
+        if (perQuestionState == null) return without(Component.PER_QUESTION_STATE);
+        Map<String, Object> extra = new LinkedHashMap<>();
+        Map<String, Object> choices = new LinkedHashMap<>();
+        TreeMap<Integer, int[]> byScene = new TreeMap<>();
+        for (Map.Entry<String, Object> e : perQuestionState.entrySet()) {
+            Integer sceneId = sceneKey(e.getKey());
+            if (sceneId != null && e.getValue() instanceof Map<?, ?> && isCompletedResult((Map<?, ?>) e.getValue())) {
+                Map<?, ?> result = (Map<?, ?>) e.getValue();
+                byScene.put(sceneId, new int[] {intOr(result.get("questionId"), -1), intOr(result.get("pointsEarned"), -1)});
+            } else {
+                choices.put(e.getKey(), e.getValue());
+            }
+        }
+        int[] flatChoices = choicePairs(choices, extra);
+        int base = byScene.isEmpty() ? 0 : byScene.firstKey();
+        BitSet bits = new BitSet();
+        for (Integer sceneId : byScene.keySet()) bits.set(sceneId - base);
+        return withPerQuestion(base, bits, flatten(byScene), flatChoices, freeze(extra));
+    }
+
+    /** Replaces questionMistakes; null removes the component. */
+    public ProgressState withQuestionMistakes(Map<String, Object> questionMistakes) {
+        if (questionMistakes == null) return without(Component.QUESTION_MISTAKES);
+        Map<String, Object> extra = new LinkedHashMap<>();
+        TreeMap<Integer, Integer> byQuestion = new TreeMap<>();
+        for (Map.Entry<String, Object> e : questionMistakes.entrySet()) {
+            Integer questionId = parseInt(e.getKey());
+            if (questionId != null && isIntegral(e.getValue())) {
+                byQuestion.put(questionId, ((Number) e.getValue()).intValue());
+            } else {
+                extra.put(e.getKey(), e.getValue());
+            }
+        }
+        int[] flat = new int[byQuestion.size() * 2];
+        int i = 0;
+        for (Map.Entry<Integer, Integer> e : byQuestion.entrySet()) {
+            flat[i++] = e.getKey();
+            flat[i++] = e.getValue();
+        }
+        return withMistakes(flat, freeze(extra));
+    }
+
+    /** The answerStates map as clients send and read it, or null when never set. */
+    public Map<String, Object> answerStatesView() {
+        if (!present.contains(Component.ANSWER_STATES)) return null;
+        Map<String, Object> view = new LinkedHashMap<>();
+        putChoices(view, answers);
+        view.putAll(extraAnswers);
+        return view;
+    }
+
+    public Map<String, Object> perQuestionStateView() {
+        if (!present.contains(Component.PER_QUESTION_STATE)) return null;
+        Map<String, Object> view = new LinkedHashMap<>();
+        putChoices(view, selections);
+        for (int i = 0; i + 2 < results.length; i += 3) {
+            if (!isSceneCompleted(results[i])) continue;
+            Map<String, Object> scene = new LinkedHashMap<>();
+            scene.put("completed", true);
+            if (results[i + 1] >= 0) scene.put("questionId", results[i + 1]);
+            if (results[i + 2] >= 0) scene.put("pointsEarned", results[i + 2]);
+            view.put(SCENE_PREFIX + results[i], scene);
+        }
+        view.putAll(extraPerQuestion);
+        return view;
+    }
+
+    public Map<String, Object> questionMistakesView() {
+        if (!present.contains(Component.QUESTION_MISTAKES)) return null;
+        Map<String, Object> view = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < mistakes.length; i += 2) view.put(String.valueOf(mistakes[i]), mistakes[i + 1]);
+        view.putAll(extraMistakes);
+        return view;
+    }
+
+    // ---- helpers ----
+
+    private ProgressState withAnswers(int[] flat, Map<String, Object> extra) {
+        return new ProgressState(with(Component.ANSWER_STATES), flat, extra,
+                doneBase, done, results, selections, extraPerQuestion, mistakes, extraMistakes);
+    }
+
+    private ProgressState withPerQuestion(int base, BitSet bits, int[] flatResults, int[] flatSelections, Map<String, Object> extra) {
+        return new ProgressState(with(Component.PER_QUESTION_STATE), answers, extraAnswers,
+                base, bits, flatResults, flatSelections, extra, mistakes, extraMistakes);
+    }
+
+    private ProgressState withMistakes(int[] flat, Map<String, Object> extra) {
+        return new ProgressState(with(Component.QUESTION_MISTAKES), answers, extraAnswers,
+                doneBase, done, results, selections, extraPerQuestion, flat, extra);
+    }
+
+    private ProgressState without(Component component) {
+        Set<Component> set = EnumSet.noneOf(Component.class);
+        set.addAll(present);
+        set.remove(component);
+        Set<Component> frozen = Collections.unmodifiableSet(set);
+        switch (component) {
+            case ANSWER_STATES:
+                return new ProgressState(frozen, new int[0], Map.of(), doneBase, done, results, selections, extraPerQuestion, mistakes, extraMistakes);
+            case PER_QUESTION_STATE:
+                return new ProgressState(frozen, answers, extraAnswers, 0, new BitSet(), new int[0], new int[0], Map.of(), mistakes, extraMistakes);
+            default:
+                return new ProgressState(frozen, answers, extraAnswers, doneBase, done, results, selections, extraPerQuestion, new int[0], Map.of());
+        }
+    }
+
+    private Set<Component> with(Component component) {
+        if (present.contains(component)) return present;
+        Set<Component> set = EnumSet.noneOf(Component.class);
+        set.addAll(present);
+        set.add(component);
+        return Collections.unmodifiableSet(set);
+    }
+
+    // Numeric keys with "correct" or "wrong" become [choiceId, code] pairs; anything else goes to extra
+    private static int[] choicePairs(Map<String, Object> source, Map<String, Object> extra) {
+        int[] flat = new int[source.size() * 2];
+        int n = 0;
+        for (Map.Entry<String, Object> e : source.entrySet()) {
+            Integer choiceId = parseInt(e.getKey());
+            ChoiceState state = ChoiceState.ofValue(e.getValue());
+            if (choiceId != null && state != null) {
+                flat[n++] = choiceId;
+                flat[n++] = state.code;
+            } else {
+                extra.put(e.getKey(), e.getValue());
+            }
+        }
+        return Arrays.copyOf(flat, n);
+    }
+
+    private static void putChoices(Map<String, Object> view, int[] pairs) {
+        for (int i = 0; i + 1 < pairs.length; i += 2) {
+            ChoiceState state = ChoiceState.ofCode(pairs[i + 1]);
+            if (state != null) view.put(String.valueOf(pairs[i]), state.getValue());
+        }
+    }
+
+    // A scene result holds exactly what the server writes: completed plus optional questionId and pointsEarned
+    private static boolean isCompletedResult(Map<?, ?> result) {
+        if (!Boolean.TRUE.equals(result.get("completed"))) return false;
+        for (Map.Entry<?, ?> e : result.entrySet()) {
+            Object key = e.getKey();
+            if ("completed".equals(key)) continue;
+            if (!("questionId".equals(key) || "pointsEarned".equals(key)) || !isIntegral(e.getValue())
+                    || ((Number) e.getValue()).intValue() < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static TreeMap<Integer, int[]> resultsByScene(int[] flat) {
+        TreeMap<Integer, int[]> byScene = new TreeMap<>();
+        for (int i = 0; i + 2 < flat.length; i += 3) byScene.put(flat[i], new int[] {flat[i + 1], flat[i + 2]});
+        return byScene;
+    }
+
+    private static int[] flatten(TreeMap<Integer, int[]> byScene) {
+        int[] flat = new int[byScene.size() * 3];
+        int i = 0;
+        for (Map.Entry<Integer, int[]> e : byScene.entrySet()) {
+            flat[i++] = e.getKey();
+            flat[i++] = e.getValue()[0];
+            flat[i++] = e.getValue()[1];
+        }
+        return flat;
+    }
+
+    private static BitSet shift(BitSet bits, int by) {
+        BitSet shifted = new BitSet();
+        bits.stream().forEach(bit -> shifted.set(bit + by));
+        return shifted;
+    }
+
+    private static Integer sceneKey(String key) {
+        return key != null && key.startsWith(SCENE_PREFIX) ? parseInt(key.substring(SCENE_PREFIX.length())) : null;
+    }
+
+    private static Integer parseInt(String s) {
+        if (s == null || s.isEmpty() || s.length() > 10) return null;
+        try {
+            int value = Integer.parseInt(s);
+            // Only canonical forms, so the key reads back identically
+            return String.valueOf(value).equals(s) ? value : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Integer || value instanceof Short || value instanceof Byte
+                || (value instanceof Long && (Long) value == ((Long) value).intValue());
+    }
+
+    private static int intOr(Object value, int fallback) {
+        return isIntegral(value) ? ((Number) value).intValue() : fallback;
+    }
+
+    private static Map<String, Object> freeze(Map<String, Object> map) {
+        return map.isEmpty() ? Map.of() : Collections.unmodifiableMap(map);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ProgressState)) return false;
+        ProgressState that = (ProgressState) o;
+        return doneBase == that.doneBase && present.equals(that.present) && Arrays.equals(answers, that.answers)
+                && extraAnswers.equals(that.extraAnswers) && done.equals(that.done) && Arrays.equals(results, that.results)
+                && Arrays.equals(selections, that.selections) && extraPerQuestion.equals(that.extraPerQuestion)
+                && Arrays.equals(mistakes, that.mistakes) && extraMistakes.equals(that.extraMistakes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(present, doneBase, done, Arrays.hashCode(answers), Arrays.hashCode(results),
+                Arrays.hashCode(selections), Arrays.hashCode(mistakes));
+    }
+}
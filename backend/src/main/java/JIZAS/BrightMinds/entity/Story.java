@@ -46,6 +46,10 @@ public class Story {
     @Column(name = "sequence_graph", columnDefinition = "jsonb")
     @JdbcTypeCode(SqlTypes.JSON)
     private List<String> sequenceGraph;
+
+    // Bumped on every reseed; part of the ETag of cached story payloads
+    @Column(name = "content_version")
+    private Long contentVersion;
     
     public Story() {}
     
@@ -121,6 +125,9 @@ public class Story {
     
     public Integer getBackgroundMusicVolume() { return backgroundMusicVolume; }
     public void setBackgroundMusicVolume(Integer backgroundMusicVolume) { this.backgroundMusicVolume = backgroundMusicVolume; }
+    
+    public Long getContentVersion() { return contentVersion; }
+    public void setContentVersion(Long contentVersion) { this.contentVersion = contentVersion; }
 }
 
 
@@ -0,0 +1,40 @@
+package JIZAS.BrightMinds.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Per-user rollup of {@link UserStoryStats}, updated in the same statement. Read-only from JPA.
+ */
+@Entity
+@Table(name = "user_attempt_stats")
+public class UserAttemptStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    // Stories with at least one attempt
+    @Column(name = "distinct_stories", nullable = false)
+    private long distinctStories;
+
+    @Column(name = "total_completions", nullable = false)
+    private long totalCompletions;
+
+    @Column(name = "score_sum", nullable = false)
+    private long scoreSum;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public double getAverageScore() {
+        return totalCompletions > 0 ? (double) scoreSum / totalCompletions : 0.0;
+    }
+
+    // Getters
+    public Long getUserId() { return userId; }
+    public long getDistinctStories() { return distinctStories; }
+    public long getTotalCompletions() { return totalCompletions; }
+    public long getScoreSum() { return scoreSum; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
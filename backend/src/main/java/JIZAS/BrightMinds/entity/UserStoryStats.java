@@ -0,0 +1,101 @@
+package JIZAS.BrightMinds.entity;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Running attempt statistics of one user for one story, updated with every attempt insert (see
+ * {@link JIZAS.BrightMinds.repository.AttemptStatsUpdateRepository}). Read-only from JPA.
+ */
+@Entity
+@Table(name = "user_story_stats")
+@IdClass(UserStoryStats.Key.class)
+public class UserStoryStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "story_id")
+    private Integer storyId;
+
+    @Column(name = "attempt_count", nullable = false)
+    private long attemptCount;
+
+    // Sum of all scores, for the average
+    @Column(name = "score_sum", nullable = false)
+    private long scoreSum;
+
+    @Column(name = "best_score")
+    private Integer bestScore;
+
+    @Column(name = "best_percentage")
+    private Double bestPercentage;
+
+    // Highest score, then latest end date, like findBestAttemptByUserAndStory
+    @Column(name = "best_attempt_id")
+    private Long bestAttemptId;
+
+    @Column(name = "best_end_date")
+    private LocalDateTime bestEndDate;
+
+    @Column(name = "latest_attempt_id")
+    private Long latestAttemptId;
+
+    @Column(name = "latest_end_date")
+    private LocalDateTime latestEndDate;
+
+    @Column(name = "best_time_seconds")
+    private Integer bestTimeSeconds;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public double getAverageScore() {
+        return attemptCount > 0 ? (double) scoreSum / attemptCount : 0.0;
+    }
+
+    // Getters
+    public Long getUserId() { return userId; }
+    public Integer getStoryId() { return storyId; }
+    public long getAttemptCount() { return attemptCount; }
+    public long getScoreSum() { return scoreSum; }
+    public Integer getBestScore() { return bestScore; }
+    public Double getBestPercentage() { return bestPercentage; }
+    public Long getBestAttemptId() { return bestAttemptId; }
+    public LocalDateTime getBestEndDate() { return bestEndDate; }
+    public Long getLatestAttemptId() { return latestAttemptId; }
+    public LocalDateTime getLatestEndDate() { return latestEndDate; }
+    public Integer getBestTimeSeconds() { return bestTimeSeconds; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Long userId;
+        private Integer storyId;
+
+        public Key() {}
+
+        public Key(Long userId, Integer storyId) {
+            this.userId = userId;
+            this.storyId = storyId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return Objects.equals(userId, key.userId) && Objects.equals(storyId, key.storyId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, storyId);
+        }
+    }
+}
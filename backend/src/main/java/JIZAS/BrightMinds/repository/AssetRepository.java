@@ -1,13 +1,19 @@
 package JIZAS.BrightMinds.repository;
 
 import JIZAS.BrightMinds.entity.Asset;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface AssetRepository extends JpaRepository<Asset, Long> {
     Optional<Asset> findByName(String name);
     Optional<Asset> findByNameAndType(String name, String type);
+
+    // Keyset pages over the primary key: no OFFSET scan and no count query
+    List<Asset> findByAssetIdGreaterThanOrderByAssetIdAsc(Long afterId, Pageable pageable);
+    List<Asset> findByTypeAndAssetIdGreaterThanOrderByAssetIdAsc(String type, Long afterId, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package JIZAS.BrightMinds.repository;
+
+import JIZAS.BrightMinds.entity.GameAttempt;
+
+import java.util.List;
+
+/** Custom fragment of {@link UserStoryStatsRepository} that maintains the attempt statistics. */
+public interface AttemptStatsUpdateRepository {
+
+    /**
+     * Adds a just-inserted attempt to user_story_stats and user_attempt_stats, in one statement.
+     * Must run in the transaction that inserted the attempt.
+     */
+    void recordAttempt(GameAttempt attempt);
+
+    /** {@link #recordAttempt} for many attempts, as one JDBC batch. */
+    void recordAttempts(List<GameAttempt> attempts);
+
+    /**
+     * Fills both tables from game_attempts when they are empty but attempts exist. Blocks attempt
+     * inserts meanwhile. Returns the number of user/story rows written.
+     */
+    int backfillIfEmpty();
+}
@@ -0,0 +1,114 @@
+package JIZAS.BrightMinds.repository;
+
+import JIZAS.BrightMinds.entity.GameAttempt;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The story row is upserted first; whether that inserted it (xmax = 0) tells the user rollup if
+ * this is the user's first attempt at the story. Both upserts lock their row, so concurrent
+ * attempts of the same user add up instead of overwriting each other.
+ */
+public class AttemptStatsUpdateRepositoryImpl implements AttemptStatsUpdateRepository {
+
+    // Best: highest score, then latest end date; latest: latest end date. Ties go to the higher id.
+    private static final String RECORD_SQL =
+            "WITH story AS ("
+            + "INSERT INTO user_story_stats AS s (user_id, story_id, attempt_count, score_sum, best_score, best_percentage, "
+            + "best_attempt_id, best_end_date, latest_attempt_id, latest_end_date, best_time_seconds, updated_at) "
+            + "VALUES (:userId, :storyId, 1, :score, :score, :percentage, :attemptId, :endDate, :attemptId, :endDate, :timeSeconds, :now) "
+            + "ON CONFLICT (user_id, story_id) DO UPDATE SET "
+            + "attempt_count = s.attempt_count + 1, "
+            + "score_sum = s.score_sum + EXCLUDED.score_sum, "
+            + "best_score = GREATEST(s.best_score, EXCLUDED.best_score), "
+            + "best_percentage = GREATEST(s.best_percentage, EXCLUDED.best_percentage), "
+            + "best_attempt_id = CASE WHEN (EXCLUDED.best_score, EXCLUDED.best_end_date, EXCLUDED.best_attempt_id) "
+            + "> (s.best_score, s.best_end_date, s.best_attempt_id) IS NOT FALSE THEN EXCLUDED.best_attempt_id ELSE s.best_attempt_id END, "
+            + "best_end_date = CASE WHEN (EXCLUDED.best_score, EXCLUDED.best_end_date, EXCLUDED.best_attempt_id) "
+            + "> (s.best_score, s.best_end_date, s.best_attempt_id) IS NOT FALSE THEN EXCLUDED.best_end_date ELSE s.best_end_date END, "
+            + "latest_attempt_id = CASE WHEN (EXCLUDED.latest_end_date, EXCLUDED.latest_attempt_id) "
+            + "> (s.latest_end_date, s.latest_attempt_id) IS NOT FALSE THEN EXCLUDED.latest_attempt_id ELSE s.latest_attempt_id END, "
+            + "latest_end_date = GREATEST(s.latest_end_date, EXCLUDED.latest_end_date), "
+            + "best_time_seconds = LEAST(s.best_time_seconds, EXCLUDED.best_time_seconds), "
+            + "updated_at = EXCLUDED.updated_at "
+            + "RETURNING (xmax = 0) AS first_attempt) "
+            + "INSERT INTO user_attempt_stats AS u (user_id, distinct_stories, total_completions, score_sum, updated_at) "
+            + "SELECT :userId, CASE WHEN first_attempt THEN 1 ELSE 0 END, 1, :score, :now FROM story "
+            + "ON CONFLICT (user_id) DO UPDATE SET "
+            + "distinct_stories = u.distinct_stories + EXCLUDED.distinct_stories, "
+            + "total_completions = u.total_completions + 1, "
+            + "score_sum = u.score_sum + EXCLUDED.score_sum, "
+            + "updated_at = EXCLUDED.updated_at";
+
+    // SHARE mode lets reads through but waits for, and holds off, attempt inserts
+    private static final String LOCK_ATTEMPTS = "LOCK TABLE game_attempts IN SHARE MODE";
+
+    private static final String NEEDS_BACKFILL =
+            "SELECT NOT EXISTS (SELECT 1 FROM user_story_stats) AND EXISTS (SELECT 1 FROM game_attempts)";
+
+    private static final String BACKFILL_STORY_SQL =
+            "INSERT INTO user_story_stats (user_id, story_id, attempt_count, score_sum, best_score, best_percentage, "
+            + "best_attempt_id, best_end_date, latest_attempt_id, latest_end_date, best_time_seconds, updated_at) "
+            + "SELECT user_id, story_id, COUNT(*), SUM(score), MAX(score), MAX(percentage), "
+            + "(ARRAY_AGG(attempt_id ORDER BY score DESC, end_attempt_date DESC, attempt_id DESC))[1], "
+            + "(ARRAY_AGG(end_attempt_date ORDER BY score DESC, end_attempt_date DESC, attempt_id DESC))[1], "
+            + "(ARRAY_AGG(attempt_id ORDER BY end_attempt_date DESC, attempt_id DESC))[1], "
+            + "MAX(end_attempt_date), MIN(completion_time_seconds), :now "
+            + "FROM game_attempts GROUP BY user_id, story_id";
+
+    private static final String BACKFILL_USER_SQL =
+            "INSERT INTO user_attempt_stats (user_id, distinct_stories, total_completions, score_sum, updated_at) "
+            + "SELECT user_id, COUNT(*), SUM(attempt_count), SUM(score_sum), :now FROM user_story_stats GROUP BY user_id "
+            + "ON CONFLICT (user_id) DO NOTHING";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public void recordAttempt(GameAttempt attempt) {
+        jdbcTemplate.update(RECORD_SQL, params(attempt, LocalDateTime.now()));
+    }
+
+    @Override
+    public void recordAttempts(List<GameAttempt> attempts) {
+        if (attempts.isEmpty()) return;
+        // Same row order in every batch, so concurrent batches cannot deadlock on the stats rows
+        List<GameAttempt> ordered = new ArrayList<>(attempts);
+        ordered.sort(Comparator.comparing((GameAttempt a) -> a.getUser().getUserId())
+                .thenComparing(a -> a.getStory().getStoryId()));
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.batchUpdate(RECORD_SQL, ordered.stream().map(a -> params(a, now)).toArray(SqlParameterSource[]::new));
+    }
+
+    private static MapSqlParameterSource params(GameAttempt attempt, LocalDateTime now) {
+        return new MapSqlParameterSource()
+                .addValue("userId", attempt.getUser().getUserId())
+                .addValue("storyId", attempt.getStory().getStoryId())
+                .addValue("attemptId", attempt.getAttemptId())
+                .addValue("score", attempt.getScore())
+                .addValue("percentage", attempt.getPercentage())
+                .addValue("endDate", Timestamp.valueOf(attempt.getEndAttemptDate()))
+                .addValue("timeSeconds", attempt.getCompletionTimeSeconds(), Types.INTEGER)
+                .addValue("now", Timestamp.valueOf(now));
+    }
+
+    @Override
+    public int backfillIfEmpty() {
+        jdbcTemplate.getJdbcTemplate().execute(LOCK_ATTEMPTS);
+        Boolean needed = jdbcTemplate.getJdbcTemplate().queryForObject(NEEDS_BACKFILL, Boolean.class);
+        if (!Boolean.TRUE.equals(needed)) return 0;
+        MapSqlParameterSource params = new MapSqlParameterSource("now", Timestamp.valueOf(LocalDateTime.now()));
+        int rows = jdbcTemplate.update(BACKFILL_STORY_SQL, params);
+        jdbcTemplate.update(BACKFILL_USER_SQL, params);
+        return rows;
+    }
+}
@@ -0,0 +1,15 @@
+package JIZAS.BrightMinds.repository;
+
+import JIZAS.BrightMinds.entity.GameAttempt;
+
+import java.util.List;
+
+/** Custom fragment of {@link GameAttemptRepository} for bulk inserts. */
+public interface GameAttemptBatchRepository {
+
+    /**
+     * Inserts the attempts as one JDBC batch and sets their generated ids. User and story only
+     * need their ids set. The attempts are not attached to the persistence context.
+     */
+    void insertAll(List<GameAttempt> attempts);
+}
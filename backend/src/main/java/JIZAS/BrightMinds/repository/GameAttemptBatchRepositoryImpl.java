@@ -0,0 +1,58 @@
+package JIZAS.BrightMinds.repository;
+
+import JIZAS.BrightMinds.entity.GameAttempt;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * The PostgreSQL driver returns the generated keys of a whole batch in statement order, so each
+ * id is matched back to its attempt by position.
+ */
+public class GameAttemptBatchRepositoryImpl implements GameAttemptBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO game_attempts (user_id, story_id, score, total_possible_score, percentage, "
+            + "start_attempt_date, end_attempt_date, completion_time_seconds) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<GameAttempt> attempts) {
+        if (attempts.isEmpty()) return;
+        jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL, new String[] {"attempt_id"})) {
+                for (GameAttempt attempt : attempts) {
+                    statement.setLong(1, attempt.getUser().getUserId());
+                    statement.setInt(2, attempt.getStory().getStoryId());
+                    statement.setInt(3, attempt.getScore());
+                    statement.setInt(4, attempt.getTotalPossibleScore());
+                    statement.setDouble(5, attempt.getPercentage());
+                    statement.setTimestamp(6, Timestamp.valueOf(attempt.getStartAttemptDate()));
+                    statement.setTimestamp(7, Timestamp.valueOf(attempt.getEndAttemptDate()));
+                    if (attempt.getCompletionTimeSeconds() != null) {
+                        statement.setInt(8, attempt.getCompletionTimeSeconds());
+                    } else {
+                        statement.setNull(8, Types.INTEGER);
+                    }
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    for (GameAttempt attempt : attempts) {
+                        if (!keys.next()) throw new IllegalStateException("Missing generated id for a batched attempt");
+                        attempt.setAttemptId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+}
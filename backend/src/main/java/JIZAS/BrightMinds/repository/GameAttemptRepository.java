@@ -12,7 +12,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface GameAttemptRepository extends JpaRepository<GameAttempt, Long> {
+public interface GameAttemptRepository extends JpaRepository<GameAttempt, Long>, GameAttemptBatchRepository {
 
     /**
      * Find all attempts by a specific user, ordered by end attempt date (newest first)
@@ -30,16 +30,44 @@ public interface GameAttemptRepository extends JpaRepository<GameAttempt, Long>
     List<GameAttempt> findByUserUserIdAndStoryStoryIdOrderByEndAttemptDateDesc(Long userId, Integer storyId);
 
     /**
-     * Find the best attempt (highest score) for a specific story by a user
+     * The two most recent attempts by a user, for streak checks
      */
-    @Query("SELECT ga FROM GameAttempt ga WHERE ga.user.userId = :userId AND ga.story.storyId = :storyId ORDER BY ga.score DESC, ga.endAttemptDate DESC")
-    List<GameAttempt> findBestAttemptByUserAndStory(@Param("userId") Long userId, @Param("storyId") Integer storyId);
+    List<GameAttempt> findTop2ByUserUserIdOrderByEndAttemptDateDesc(Long userId);
 
     /**
-     * Find the latest attempt for a specific story by a user
+     * The two most recent attempts for a specific story by a user, for retry comparisons
      */
-    @Query("SELECT ga FROM GameAttempt ga WHERE ga.user.userId = :userId AND ga.story.storyId = :storyId ORDER BY ga.endAttemptDate DESC")
-    List<GameAttempt> findLatestAttemptByUserAndStory(@Param("userId") Long userId, @Param("storyId") Integer storyId);
+    List<GameAttempt> findTop2ByUserUserIdAndStoryStoryIdOrderByEndAttemptDateDesc(Long userId, Integer storyId);
+
+    /**
+     * Keyset page of a user's match history, newest first: attempts that ended at or after from and
+     * sort after the (beforeDate, beforeId) position. The first bound lets the index seek to the
+     * position instead of scanning from the newest attempt. No count query is run.
+     */
+    @Query("SELECT ga FROM GameAttempt ga JOIN FETCH ga.story WHERE ga.user.userId = :userId " +
+           "AND ga.endAttemptDate >= :from AND ga.endAttemptDate <= :beforeDate " +
+           "AND (ga.endAttemptDate < :beforeDate OR ga.attemptId < :beforeId) " +
+           "ORDER BY ga.endAttemptDate DESC, ga.attemptId DESC")
+    List<GameAttempt> findHistoryPage(@Param("userId") Long userId,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("beforeDate") LocalDateTime beforeDate,
+                                      @Param("beforeId") Long beforeId,
+                                      Pageable pageable);
+
+    /**
+     * As findHistoryPage, for one story
+     */
+    @Query("SELECT ga FROM GameAttempt ga JOIN FETCH ga.story WHERE ga.user.userId = :userId " +
+           "AND ga.story.storyId = :storyId " +
+           "AND ga.endAttemptDate >= :from AND ga.endAttemptDate <= :beforeDate " +
+           "AND (ga.endAttemptDate < :beforeDate OR ga.attemptId < :beforeId) " +
+           "ORDER BY ga.endAttemptDate DESC, ga.attemptId DESC")
+    List<GameAttempt> findStoryHistoryPage(@Param("userId") Long userId,
+                                           @Param("storyId") Integer storyId,
+                                           @Param("from") LocalDateTime from,
+                                           @Param("beforeDate") LocalDateTime beforeDate,
+                                           @Param("beforeId") Long beforeId,
+                                           Pageable pageable);
 
     /**
      * Count total attempts by a user for a specific story
@@ -62,18 +90,6 @@ public interface GameAttemptRepository extends JpaRepository<GameAttempt, Long>
      */
     List<GameAttempt> findByUserUserIdAndScoreGreaterThanEqualOrderByEndAttemptDateDesc(Long userId, Integer minScore);
 
-    /**
-     * Get average score for a user across all attempts
-     */
-    @Query("SELECT AVG(ga.score) FROM GameAttempt ga WHERE ga.user.userId = :userId")
-    Double findAverageScoreByUser(@Param("userId") Long userId);
-
-    /**
-     * Get average score for a user for a specific story
-     */
-    @Query("SELECT AVG(ga.score) FROM GameAttempt ga WHERE ga.user.userId = :userId AND ga.story.storyId = :storyId")
-    Double findAverageScoreByUserAndStory(@Param("userId") Long userId, @Param("storyId") Integer storyId);
-
     /**
      * Find attempts by user with pagination and optional story filter
      */
@@ -84,12 +100,6 @@ public interface GameAttemptRepository extends JpaRepository<GameAttempt, Long>
                                                        @Param("storyId") Integer storyId, 
                                                        Pageable pageable);
 
-    /**
-     * Count distinct stories completed by a user
-     */
-    @Query("SELECT COUNT(DISTINCT ga.story.storyId) FROM GameAttempt ga WHERE ga.user.userId = :userId")
-    long countDistinctStoriesByUser(@Param("userId") Long userId);
-
     /**
      * Count perfect scores (100%) by a user
      */
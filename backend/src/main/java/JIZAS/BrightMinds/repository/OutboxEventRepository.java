@@ -0,0 +1,32 @@
+package JIZAS.BrightMinds.repository;
+
+import JIZAS.BrightMinds.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Locks the oldest event that is due, skipping events another worker holds
+     */
+    @Query(value = "SELECT * FROM outbox_event WHERE dead_at IS NULL AND available_at <= :now "
+            + "ORDER BY event_id LIMIT 1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<OutboxEvent> claimNext(@Param("now") LocalDateTime now);
+
+    /**
+     * Events still waiting to be processed
+     */
+    @Query("SELECT COUNT(e) FROM OutboxEvent e WHERE e.deadAt IS NULL")
+    long countPending();
+
+    /**
+     * Events that ran out of retries
+     */
+    long countByDeadAtIsNotNull();
+}
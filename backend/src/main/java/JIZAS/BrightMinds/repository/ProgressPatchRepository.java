@@ -0,0 +1,16 @@
+package JIZAS.BrightMinds.repository;
+
+import JIZAS.BrightMinds.dto.ProgressPatchOperationDTO;
+
+import java.util.List;
+import java.util.Optional;
+
+/** Custom fragment of {@link ProgressRepository} for per-key progress state patches. */
+public interface ProgressPatchRepository {
+
+    /**
+     * Applies the operations, in order, to the (user, story) progress state without loading the
+     * entity. Returns the new state version, or empty when there is no active row.
+     */
+    Optional<Long> applyPatch(Long userId, Integer storyId, List<ProgressPatchOperationDTO> operations);
+}
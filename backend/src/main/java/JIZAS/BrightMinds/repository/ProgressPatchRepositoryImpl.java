@@ -0,0 +1,148 @@
+package JIZAS.BrightMinds.repository;
+
+import JIZAS.BrightMinds.dto.ProgressPatchOperationDTO;
+import JIZAS.BrightMinds.entity.ProgressState;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Locks the row's state columns with SELECT ... FOR UPDATE, applies the operations in order to the
+ * typed {@link ProgressState} and writes it back with one UPDATE ... RETURNING. The entity, its
+ * user and story are never loaded. Must run inside a transaction.
+ */
+public class ProgressPatchRepositoryImpl implements ProgressPatchRepository {
+
+    public static final int MAX_OPERATIONS = 100;
+
+    private static final Set<String> FIELDS = Set.of("answerStates", "perQuestionState", "questionMistakes");
+
+    private static final String SELECT_SQL =
+            "SELECT progress_id, progress_state, answer_states, per_question_state, question_mistakes FROM progress "
+            + "WHERE user_id = :userId AND story_id = :storyId AND COALESCE(status, 'ACTIVE') = 'ACTIVE' FOR UPDATE";
+
+    private static final String UPDATE_SQL =
+            "UPDATE progress SET progress_state = CAST(:state AS jsonb), answer_states = NULL, per_question_state = NULL, "
+            + "question_mistakes = NULL, last_accessed = :now, state_version = COALESCE(state_version, 0) + 1 "
+            + "WHERE progress_id = :progressId RETURNING state_version";
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public Optional<Long> applyPatch(Long userId, Integer storyId, List<ProgressPatchOperationDTO> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new IllegalArgumentException("At least one operation is required");
+        }
+        if (operations.size() > MAX_OPERATIONS) {
+            throw new IllegalArgumentException("At most " + MAX_OPERATIONS + " operations per patch");
+        }
+        for (int i = 0; i < operations.size(); i++) {
+            ProgressPatchOperationDTO op = operations.get(i);
+            if (op.getField() == null || !FIELDS.contains(op.getField())) throw new IllegalArgumentException("Unknown field: " + op.getField());
+            if (op.getKey() == null || op.getKey().isBlank()) throw new IllegalArgumentException("Operation " + i + " has no key");
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("storyId", storyId);
+        List<Object[]> rows = jdbcTemplate.query(SELECT_SQL, params, (rs, rowNum) -> new Object[] {
+                rs.getLong("progress_id"),
+                ProgressState.read(rs.getString("progress_state"), fromJson(rs.getString("answer_states")),
+                        fromJson(rs.getString("per_question_state")), fromJson(rs.getString("question_mistakes")))
+        });
+        if (rows.isEmpty()) return Optional.empty();
+
+        ProgressState state = (ProgressState) rows.get(0)[1];
+        Map<String, Map<String, Object>> touched = new LinkedHashMap<>();
+        for (ProgressPatchOperationDTO op : operations) {
+            Map<String, Object> target = touched.computeIfAbsent(op.getField(), field -> view(state, field));
+            apply(op, target);
+        }
+        ProgressState patched = state;
+        for (Map.Entry<String, Map<String, Object>> e : touched.entrySet()) {
+            patched = with(patched, e.getKey(), e.getValue());
+        }
+
+        params.addValue("progressId", rows.get(0)[0])
+                .addValue("state", patched.toJson())
+                .addValue("now", Timestamp.valueOf(LocalDateTime.now()));
+        return Optional.ofNullable(jdbcTemplate.queryForObject(UPDATE_SQL, params, Long.class));
+    }
+
+    private static void apply(ProgressPatchOperationDTO op, Map<String, Object> target) {
+        switch (op.getOp() != null ? op.getOp() : "") {
+            case "set":
+                target.put(op.getKey(), op.getValue());
+                break;
+            case "remove":
+                target.remove(op.getKey());
+                break;
+            case "increment": {
+                Object current = target.get(op.getKey());
+                if (current != null && !(current instanceof Number)) {
+                    throw new IllegalArgumentException("Key " + op.getKey() + " of " + op.getField() + " is not a number");
+                }
+                BigDecimal base = current != null ? new BigDecimal(current.toString()) : BigDecimal.ZERO;
+                target.put(op.getKey(), compact(base.add(op.getBy() != null ? op.getBy() : BigDecimal.ONE)));
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown op: " + op.getOp());
+        }
+    }
+
+    // Whole numbers go back as Integer or Long so counters stay in the typed state
+    private static Object compact(BigDecimal value) {
+        try {
+            long whole = value.longValueExact();
+            return whole == (int) whole ? Integer.valueOf((int) whole) : Long.valueOf(whole);
+        } catch (ArithmeticException e) {
+            return value;
+        }
+    }
+
+    private static Map<String, Object> view(ProgressState state, String field) {
+        Map<String, Object> view;
+        switch (field) {
+            case "answerStates": view = state.answerStatesView(); break;
+            case "perQuestionState": view = state.perQuestionStateView(); break;
+            default: view = state.questionMistakesView(); break;
+        }
+        return view != null ? view : new LinkedHashMap<>();
+    }
+
+    private static ProgressState with(ProgressState state, String field, Map<String, Object> map) {
+        switch (field) {
+            case "answerStates": return state.withAnswerStates(map);
+            case "perQuestionState": return state.withPerQuestionState(map);
+            default: return state.withQuestionMistakes(map);
+        }
+    }
+
+    private Map<String, Object> fromJson(String json) {
+        if (json == null) return null;
+        try {
+            return objectMapper.readValue(json, MAP_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored progress state is not a JSON object", e);
+        }
+    }
+}
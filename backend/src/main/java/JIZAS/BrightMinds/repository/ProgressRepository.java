@@ -8,11 +8,17 @@ import org.springframework.data.repository.query.Param;
 import java.util.List;
 import java.util.Optional;
 
-public interface ProgressRepository extends JpaRepository<Progress, Long> {
+public interface ProgressRepository extends JpaRepository<Progress, Long>, ProgressPatchRepository, ProgressUpsertRepository,
+        ProgressResetRepository {
     List<Progress> findByUser_UserId(Long userId);
     List<Progress> findByStory_StoryId(Integer storyId);
     
     // Find progress by user and story
     @Query("SELECT p FROM Progress p WHERE p.user.userId = :userId AND p.story.storyId = :storyId")
     Optional<Progress> findByUserAndStory(@Param("userId") Long userId, @Param("storyId") Integer storyId);
+
+    // Completed and reset rows are kept for reuse but are not progress in a game
+    default Optional<Progress> findActiveByUserAndStory(Long userId, Integer storyId) {
+        return findByUserAndStory(userId, storyId).filter(Progress::isActive);
+    }
 }
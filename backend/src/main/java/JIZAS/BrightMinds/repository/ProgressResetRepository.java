@@ -0,0 +1,23 @@
+package JIZAS.BrightMinds.repository;
+
+import JIZAS.BrightMinds.entity.Progress;
+
+import java.time.LocalDateTime;
+
+/** Custom fragment of {@link ProgressRepository} for in-place lifecycle changes of progress rows. */
+public interface ProgressResetRepository {
+
+    /**
+     * Clears the (user, story) progress back to a fresh game and sets its status, in one UPDATE.
+     * The row and its id are kept. Returns false when there is no such row.
+     */
+    default boolean resetInPlace(Long userId, Integer storyId, Progress.Status status) {
+        return resetInPlace(userId, storyId, status, null);
+    }
+
+    /**
+     * As above, but leaves the row alone when it was written after notAccessedAfter (a new game
+     * was started since); null resets unconditionally.
+     */
+    boolean resetInPlace(Long userId, Integer storyId, Progress.Status status, LocalDateTime notAccessedAfter);
+}
@@ -0,0 +1,40 @@
+package JIZAS.BrightMinds.repository;
+
+import JIZAS.BrightMinds.entity.Progress;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+
+/**
+ * Everything a game writes is cleared except the client sequence number and idempotency key: the
+ * sequence is per (user, story), not per game, so a delayed retry from before the reset is still
+ * recognised as stale or duplicate. The state version keeps counting up.
+ */
+public class ProgressResetRepositoryImpl implements ProgressResetRepository {
+
+    private static final String RESET_SQL =
+            "UPDATE progress SET status = :status, current_scene = NULL, score = 0, mistake_count = 0, "
+            + "game_start_time = NULL, progress_state = NULL, answer_states = NULL, per_question_state = NULL, "
+            + "question_mistakes = NULL, last_accessed = :now, "
+            + "state_version = COALESCE(state_version, 0) + 1 "
+            + "WHERE user_id = :userId AND story_id = :storyId "
+            + "AND (CAST(:notAccessedAfter AS TIMESTAMP) IS NULL OR last_accessed IS NULL OR last_accessed <= :notAccessedAfter)";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean resetInPlace(Long userId, Integer storyId, Progress.Status status, LocalDateTime notAccessedAfter) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("storyId", storyId)
+                .addValue("status", status.name())
+                .addValue("now", Timestamp.valueOf(LocalDateTime.now()))
+                .addValue("notAccessedAfter", notAccessedAfter != null ? Timestamp.valueOf(notAccessedAfter) : null, Types.TIMESTAMP);
+        return jdbcTemplate.update(RESET_SQL, params) > 0;
+    }
+}
@@ -0,0 +1,94 @@
+package JIZAS.BrightMinds.repository;
+
+import JIZAS.BrightMinds.entity.Progress;
+import JIZAS.BrightMinds.entity.ProgressState;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/** Custom fragment of {@link ProgressRepository} for single-statement progress upserts. */
+public interface ProgressUpsertRepository {
+
+    /**
+     * Inserts or updates the (user, story) progress row in one INSERT ... ON CONFLICT DO UPDATE.
+     * Returns the stored row as a detached copy, or empty when the user does not exist or the
+     * stored row already applied this client sequence number or idempotency key (or a later one),
+     * or its state version is not the expected one.
+     */
+    Optional<Progress> upsert(Upsert upsert);
+
+    /**
+     * Changes for one upsert. Null fields keep the stored value (or the column default on insert);
+     * the deltas are added to score and mistake_count in SQL, after any absolute value is applied.
+     * Each state component that is set replaces the stored one; the others are kept.
+     */
+    final class Upsert {
+        private final Long userId;
+        private final Integer storyId;
+        private String currentScene;
+        private Integer score;
+        private int scoreDelta;
+        private Integer mistakeCount;
+        private int mistakeDelta;
+        private LocalDateTime gameStartTime;
+        private ProgressState state = ProgressState.EMPTY;
+        private final Set<ProgressState.Component> components = EnumSet.noneOf(ProgressState.Component.class);
+        private Long clientSeq;
+        private String idempotencyKey;
+        private Long expectedVersion;
+
+        public Upsert(Long userId, Integer storyId) {
+            this.userId = userId;
+            this.storyId = storyId;
+        }
+
+        public Upsert currentScene(String currentScene) { this.currentScene = currentScene; return this; }
+        public Upsert score(Integer score) { this.score = score; return this; }
+        public Upsert addScore(int delta) { this.scoreDelta += delta; return this; }
+        public Upsert mistakeCount(Integer mistakeCount) { this.mistakeCount = mistakeCount; return this; }
+        public Upsert addMistakes(int delta) { this.mistakeDelta += delta; return this; }
+        public Upsert gameStartTime(LocalDateTime gameStartTime) { this.gameStartTime = gameStartTime; return this; }
+        public Upsert answerStates(Map<String, Object> answerStates) {
+            return answerStates != null ? component(state.withAnswerStates(answerStates), ProgressState.Component.ANSWER_STATES) : this;
+        }
+        public Upsert perQuestionState(Map<String, Object> perQuestionState) {
+            return perQuestionState != null ? component(state.withPerQuestionState(perQuestionState), ProgressState.Component.PER_QUESTION_STATE) : this;
+        }
+        public Upsert questionMistakes(Map<String, Object> questionMistakes) {
+            return questionMistakes != null ? component(state.withQuestionMistakes(questionMistakes), ProgressState.Component.QUESTION_MISTAKES) : this;
+        }
+        /** Replaces every component the given state holds. */
+        public Upsert state(ProgressState state) {
+            this.state = state;
+            this.components.clear();
+            this.components.addAll(state.getPresent());
+            return this;
+        }
+        private Upsert component(ProgressState state, ProgressState.Component component) {
+            this.state = state;
+            this.components.add(component);
+            return this;
+        }
+        public Upsert clientSeq(Long clientSeq) { this.clientSeq = clientSeq; return this; }
+        public Upsert idempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; return this; }
+        /** Only update a stored row with this state version (0 for a row without one); otherwise nothing is written. */
+        public Upsert expectedVersion(Long expectedVersion) { this.expectedVersion = expectedVersion; return this; }
+
+        public Long getUserId() { return userId; }
+        public Integer getStoryId() { return storyId; }
+        public String getCurrentScene() { return currentScene; }
+        public Integer getScore() { return score; }
+        public int getScoreDelta() { return scoreDelta; }
+        public Integer getMistakeCount() { return mistakeCount; }
+        public int getMistakeDelta() { return mistakeDelta; }
+        public LocalDateTime getGameStartTime() { return gameStartTime; }
+        public ProgressState getState() { return state; }
+        public Set<ProgressState.Component> getComponents() { return components; }
+        public Long getClientSeq() { return clientSeq; }
+        public String getIdempotencyKey() { return idempotencyKey; }
+        public Long getExpectedVersion() { return expectedVersion; }
+    }
+}
@@ -0,0 +1,126 @@
+package JIZAS.BrightMinds.repository;
+
+import JIZAS.BrightMinds.entity.Progress;
+import JIZAS.BrightMinds.entity.ProgressState;
+import JIZAS.BrightMinds.entity.Story;
+import JIZAS.BrightMinds.entity.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The insert selects from app_user, so an unknown user inserts nothing instead of failing on the
+ * foreign key. Counters are computed from the stored row inside the statement, which makes
+ * concurrent saves for the same user and story safe without locking or reading first. The
+ * conflict update is skipped when the row has already seen the client sequence number or
+ * idempotency key, so retried and out-of-order saves change nothing. An expected state version
+ * makes it a compare-and-set for callers that computed the state from a copy they did not re-read.
+ */
+public class ProgressUpsertRepositoryImpl implements ProgressUpsertRepository {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO progress AS p (user_id, story_id, current_scene, score, mistake_count, game_start_time, "
+            + "last_accessed, progress_state, state_version, last_client_seq, last_idempotency_key, status) "
+            + "SELECT u.user_id, :storyId, :currentScene, COALESCE(:score, 0) + :scoreDelta, "
+            + "COALESCE(:mistakeCount, 0) + :mistakeDelta, :gameStartTime, :now, "
+            + "CAST(:state AS jsonb), 1, :clientSeq, :idempotencyKey, 'ACTIVE' "
+            + "FROM app_user u WHERE u.user_id = :userId "
+            + "ON CONFLICT (user_id, story_id) DO UPDATE SET "
+            + "current_scene = COALESCE(:currentScene, p.current_scene), "
+            + "score = COALESCE(:score, p.score, 0) + :scoreDelta, "
+            + "mistake_count = COALESCE(:mistakeCount, p.mistake_count, 0) + :mistakeDelta, "
+            + "game_start_time = COALESCE(:gameStartTime, p.game_start_time), "
+            + "last_accessed = :now, "
+            // Top-level merge: the components in :state replace the stored ones, the rest are kept
+            + "progress_state = CASE WHEN CAST(:state AS jsonb) IS NULL THEN p.progress_state "
+            + "ELSE COALESCE(p.progress_state, CAST('{}' AS jsonb)) || CAST(:state AS jsonb) END, "
+            + "state_version = COALESCE(p.state_version, 0) + 1, "
+            + "last_client_seq = COALESCE(:clientSeq, p.last_client_seq), "
+            + "last_idempotency_key = COALESCE(:idempotencyKey, p.last_idempotency_key), "
+            // A save on a completed or reset row starts the next game on the same row
+            + "status = 'ACTIVE' "
+            + "WHERE (:clientSeq IS NULL OR p.last_client_seq IS NULL OR p.last_client_seq < :clientSeq) "
+            + "AND (:idempotencyKey IS NULL OR p.last_idempotency_key IS DISTINCT FROM :idempotencyKey) "
+            + "AND (:expectedVersion IS NULL OR COALESCE(p.state_version, 0) = :expectedVersion) "
+            + "RETURNING p.progress_id, p.user_id, p.story_id, p.current_scene, p.score, p.mistake_count, "
+            + "p.game_start_time, p.last_accessed, p.progress_state, p.answer_states, p.per_question_state, p.question_mistakes, p.state_version, "
+            + "p.last_client_seq, p.last_idempotency_key, p.status";
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public Optional<Progress> upsert(Upsert upsert) {
+        // Explicit SQL types so null parameters still bind with a type Postgres can resolve
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", upsert.getUserId())
+                .addValue("storyId", upsert.getStoryId())
+                .addValue("currentScene", upsert.getCurrentScene(), Types.VARCHAR)
+                .addValue("score", upsert.getScore(), Types.INTEGER)
+                .addValue("scoreDelta", upsert.getScoreDelta())
+                .addValue("mistakeCount", upsert.getMistakeCount(), Types.INTEGER)
+                .addValue("mistakeDelta", upsert.getMistakeDelta())
+                .addValue("gameStartTime", timestamp(upsert.getGameStartTime()), Types.TIMESTAMP)
+                .addValue("now", timestamp(LocalDateTime.now()), Types.TIMESTAMP)
+                .addValue("state", upsert.getComponents().isEmpty() ? null : upsert.getState().toJson(upsert.getComponents()), Types.VARCHAR)
+                .addValue("clientSeq", upsert.getClientSeq(), Types.BIGINT)
+                .addValue("idempotencyKey", upsert.getIdempotencyKey(), Types.VARCHAR)
+                .addValue("expectedVersion", upsert.getExpectedVersion(), Types.BIGINT);
+
+        List<Progress> rows = jdbcTemplate.query(UPSERT_SQL, params, (rs, rowNum) -> toProgress(rs));
+        return rows.isEmpty() ? Optional.empty() : Optional.of(rows.get(0));
+    }
+
+    private Progress toProgress(ResultSet rs) throws SQLException {
+        Progress p = new Progress();
+        p.setProgressId(rs.getLong("progress_id"));
+        User user = new User();
+        user.setUserId(rs.getLong("user_id"));
+        p.setUser(user);
+        Story story = new Story();
+        story.setStoryId(rs.getInt("story_id"));
+        p.setStory(story);
+        p.setCurrentScene(rs.getString("current_scene"));
+        p.setScore(rs.getObject("score", Integer.class));
+        p.setMistakeCount(rs.getObject("mistake_count", Integer.class));
+        p.setGameStartTime(rs.getObject("game_start_time", LocalDateTime.class));
+        p.setLastAccessed(rs.getObject("last_accessed", LocalDateTime.class));
+        p.setState(ProgressState.read(rs.getString("progress_state"), fromJson(rs.getString("answer_states")),
+                fromJson(rs.getString("per_question_state")), fromJson(rs.getString("question_mistakes"))));
+        p.setStateVersion(rs.getObject("state_version", Long.class));
+        p.setLastClientSeq(rs.getObject("last_client_seq", Long.class));
+        p.setLastIdempotencyKey(rs.getString("last_idempotency_key"));
+        p.setStatus(Progress.Status.valueOf(rs.getString("status")));
+        return p;
+    }
+
+    private static Timestamp timestamp(LocalDateTime time) {
+        return time != null ? Timestamp.valueOf(time) : null;
+    }
+
+    private Map<String, Object> fromJson(String json) {
+        if (json == null) return null;
+        try {
+            return objectMapper.readValue(json, MAP_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored progress state is not a JSON object", e);
+        }
+    }
+}
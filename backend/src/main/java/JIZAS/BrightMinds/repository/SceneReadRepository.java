@@ -0,0 +1,116 @@
+package JIZAS.BrightMinds.repository;
+
+import JIZAS.BrightMinds.entity.Question;
+import JIZAS.BrightMinds.entity.Scene;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Read model for the gameplay scene payload.
+ *
+ * Every method selects only the columns the scene DTOs need into interface projections, so no
+ * entity is hydrated and no lazy association is ever touched. Choices and answers are read by
+ * separate queries instead of a double join fetch, which avoids the choices x answers product.
+ * Loading any set of scenes costs the same six queries, however many dialogues and assets they have.
+ */
+@Repository
+public interface SceneReadRepository extends org.springframework.data.repository.Repository<Scene, Integer> {
+
+    @Query("SELECT s.sceneId AS sceneId, s.story.storyId AS storyId, s.sceneOrder AS sceneOrder, s.sceneText AS sceneText " +
+           "FROM Scene s WHERE s.story.storyId = :storyId ORDER BY s.sceneOrder ASC")
+    List<SceneRow> findScenesByStoryId(@Param("storyId") Integer storyId);
+
+    @Query("SELECT d.dialogueId AS dialogueId, d.scene.sceneId AS sceneId, d.characterName AS characterName, " +
+           "d.lineText AS lineText, d.lineTextTl AS lineTextTl, d.orderIndex AS orderIndex, d.metadata AS metadata, " +
+           "v.assetId AS voiceAssetId, v.name AS voiceName, v.filePath AS voiceFilePath " +
+           "FROM Dialogue d LEFT JOIN d.voiceAsset v WHERE d.scene.sceneId IN :sceneIds ORDER BY d.orderIndex ASC")
+    List<DialogueRow> findDialoguesBySceneIds(@Param("sceneIds") Collection<Integer> sceneIds);
+
+    @Query("SELECT sa.sceneAssetId AS sceneAssetId, sa.scene.sceneId AS sceneId, a.assetId AS assetId, a.name AS name, " +
+           "a.type AS type, a.filePath AS filePath, sa.positionX AS positionX, sa.positionY AS positionY, " +
+           "sa.isInteractive AS isInteractive, sa.orderIndex AS orderIndex, sa.metadata AS metadata " +
+           "FROM SceneAsset sa JOIN sa.asset a WHERE sa.scene.sceneId IN :sceneIds ORDER BY sa.orderIndex ASC")
+    List<SceneAssetRow> findSceneAssetsBySceneIds(@Param("sceneIds") Collection<Integer> sceneIds);
+
+    @Query("SELECT q.questionId AS questionId, q.sceneId AS sceneId, q.type AS type, q.promptText AS promptText, " +
+           "q.questionImageUrl AS questionImageUrl, q.points AS points " +
+           "FROM Question q WHERE q.sceneId IN :sceneIds ORDER BY q.questionId ASC")
+    List<QuestionRow> findQuestionsBySceneIds(@Param("sceneIds") Collection<Integer> sceneIds);
+
+    @Query("SELECT c.choiceId AS choiceId, c.question.questionId AS questionId, c.choiceText AS choiceText, " +
+           "c.isCorrect AS isCorrect, c.choiceImageUrl AS choiceImageUrl, c.orderIndex AS orderIndex " +
+           "FROM Choice c WHERE c.question.questionId IN :questionIds ORDER BY c.orderIndex ASC NULLS LAST, c.choiceId ASC")
+    List<ChoiceRow> findChoicesByQuestionIds(@Param("questionIds") Collection<Integer> questionIds);
+
+    @Query("SELECT a.answerId AS answerId, a.question.questionId AS questionId, a.answerText AS answerText, " +
+           "a.assetName AS assetName, a.isCorrect AS isCorrect, a.dragdropPosition AS dragdropPosition " +
+           "FROM Answer a WHERE a.question.questionId IN :questionIds ORDER BY a.answerId ASC")
+    List<AnswerRow> findAnswersByQuestionIds(@Param("questionIds") Collection<Integer> questionIds);
+
+    interface SceneRow {
+        Integer getSceneId();
+        Integer getStoryId();
+        Integer getSceneOrder();
+        String getSceneText();
+    }
+
+    interface DialogueRow {
+        UUID getDialogueId();
+        Integer getSceneId();
+        String getCharacterName();
+        String getLineText();
+        String getLineTextTl();
+        Integer getOrderIndex();
+        Map<String, Object> getMetadata();
+        Long getVoiceAssetId();
+        String getVoiceName();
+        String getVoiceFilePath();
+    }
+
+    interface SceneAssetRow {
+        Long getSceneAssetId();
+        Integer getSceneId();
+        Long getAssetId();
+        String getName();
+        String getType();
+        String getFilePath();
+        Float getPositionX();
+        Float getPositionY();
+        Boolean getIsInteractive();
+        Integer getOrderIndex();
+        Map<String, Object> getMetadata();
+    }
+
+    interface QuestionRow {
+        Integer getQuestionId();
+        Integer getSceneId();
+        Question.QuestionType getType();
+        String getPromptText();
+        String getQuestionImageUrl();
+        Integer getPoints();
+    }
+
+    interface ChoiceRow {
+        Integer getChoiceId();
+        Integer getQuestionId();
+        String getChoiceText();
+        Boolean getIsCorrect();
+        String getChoiceImageUrl();
+        Integer getOrderIndex();
+    }
+
+    interface AnswerRow {
+        Integer getAnswerId();
+        Integer getQuestionId();
+        String getAnswerText();
+        String getAssetName();
+        Boolean getIsCorrect();
+        Integer getDragdropPosition();
+    }
+}
@@ -3,9 +3,12 @@ package JIZAS.BrightMinds.repository;
 import JIZAS.BrightMinds.entity.Scene;
 import JIZAS.BrightMinds.entity.Story;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface SceneRepository extends JpaRepository<Scene, Integer> {
@@ -13,6 +16,9 @@ public interface SceneRepository extends JpaRepository<Scene, Integer> {
     List<Scene> findByStory_StoryIdOrderBySceneOrderAsc(Integer storyId);
     List<Scene> findByStoryStoryIdOrderBySceneOrder(Integer storyId);
     void deleteByStory(Story story);
+
+    @Query("SELECT s.story.storyId FROM Scene s WHERE s.sceneId = :sceneId")
+    Optional<Integer> findStoryIdBySceneId(@Param("sceneId") Integer sceneId);
 }
 
 
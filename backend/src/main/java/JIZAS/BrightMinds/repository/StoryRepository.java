@@ -1,7 +1,9 @@
 package JIZAS.BrightMinds.repository;
 
+import JIZAS.BrightMinds.dto.StoryCatalogDTO;
 import JIZAS.BrightMinds.entity.Story;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,6 +12,12 @@ import java.util.List;
 public interface StoryRepository extends JpaRepository<Story, Integer> {
     List<Story> findAllByOrderByStoryOrderAsc();
     java.util.Optional<Story> findByTitle(String title);
-}
-
 
+    // Story picker: catalog columns plus scene count and total question points in one aggregate query
+    @Query("SELECT new JIZAS.BrightMinds.dto.StoryCatalogDTO(st.storyId, st.title, st.thumbnailImage, st.gameplayType, " +
+           "st.storyOrder, COUNT(DISTINCT s.sceneId), COALESCE(SUM(q.points), 0L)) " +
+           "FROM Story st LEFT JOIN Scene s ON s.story = st LEFT JOIN Question q ON q.sceneId = s.sceneId " +
+           "GROUP BY st.storyId, st.title, st.thumbnailImage, st.gameplayType, st.storyOrder " +
+           "ORDER BY st.storyOrder ASC")
+    List<StoryCatalogDTO> findCatalog();
+}
@@ -0,0 +1,9 @@
+package JIZAS.BrightMinds.repository;
+
+import JIZAS.BrightMinds.entity.UserAttemptStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserAttemptStatsRepository extends JpaRepository<UserAttemptStats, Long> {
+}
@@ -0,0 +1,15 @@
+package JIZAS.BrightMinds.repository;
+
+import JIZAS.BrightMinds.entity.UserStoryStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface UserStoryStatsRepository extends JpaRepository<UserStoryStats, UserStoryStats.Key>, AttemptStatsUpdateRepository {
+
+    default Optional<UserStoryStats> findByUserAndStory(Long userId, Integer storyId) {
+        return findById(new UserStoryStats.Key(userId, storyId));
+    }
+}
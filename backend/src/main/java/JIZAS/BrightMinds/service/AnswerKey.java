@@ -0,0 +1,172 @@
+package JIZAS.BrightMinds.service;
+
+import JIZAS.BrightMinds.dto.AnswerDTO;
+import JIZAS.BrightMinds.dto.AnswerSubmissionDTO;
+import JIZAS.BrightMinds.dto.ChoiceDTO;
+import JIZAS.BrightMinds.dto.QuestionDTO;
+import JIZAS.BrightMinds.entity.Question;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Precompiled correct answers of one question, built once per {@link StoryContentStore.StoryContent}
+ * so checking a submission never touches the database.
+ *
+ * MCQ keeps a choiceId -> correct map, DragDrop an assetName -> correct map plus the target position
+ * of each correct sprite, ID a set of normalized accepted texts, and Sequence the choice ids ordered
+ * by their orderIndex (the order the sequence game checks against).
+ */
+public final class AnswerKey {
+
+    private final Integer questionId;
+    private final Integer sceneId;
+    private final Question.QuestionType type;
+    private final int points;
+
+    private final Map<Integer, Boolean> choiceCorrect;
+    private final Map<String, Boolean> assetCorrect;
+    private final Map<String, Integer> assetPosition;
+    private final Set<String> acceptedTexts;
+    private final int[] sequence;
+
+    private AnswerKey(QuestionDTO question, Question.QuestionType type) {
+        this.questionId = question.getQuestionId();
+        this.sceneId = question.getSceneId();
+        this.type = type;
+        // Same default the game pages use when a question has no points set
+        this.points = question.getPoints() != null ? question.getPoints() : 4;
+
+        List<ChoiceDTO> choices = question.getChoices() != null ? question.getChoices() : List.of();
+        List<AnswerDTO> answers = question.getAnswers() != null ? question.getAnswers() : List.of();
+
+        Map<Integer, Boolean> byChoice = new HashMap<>();
+        Set<String> texts = new HashSet<>();
+        for (ChoiceDTO c : choices) {
+            boolean correct = Boolean.TRUE.equals(c.getIsCorrect());
+            byChoice.put(c.getChoiceId(), correct);
+            if (correct && c.getChoiceText() != null) texts.add(normalize(c.getChoiceText()));
+        }
+
+        Map<String, Boolean> byAsset = new HashMap<>();
+        Map<String, Integer> positions = new HashMap<>();
+        for (AnswerDTO a : answers) {
+            boolean correct = Boolean.TRUE.equals(a.isCorrect());
+            if (a.getAssetName() != null) {
+                byAsset.put(a.getAssetName(), correct);
+                if (correct && a.getDragdropPosition() != null) positions.put(a.getAssetName(), a.getDragdropPosition());
+            }
+            if (correct && a.getAnswerText() != null) texts.add(normalize(a.getAnswerText()));
+        }
+
+        this.choiceCorrect = Collections.unmodifiableMap(byChoice);
+        this.assetCorrect = Collections.unmodifiableMap(byAsset);
+        this.assetPosition = Collections.unmodifiableMap(positions);
+        this.acceptedTexts = Collections.unmodifiableSet(texts);
+        this.sequence = choices.stream()
+                .filter(c -> c.getOrderIndex() != null)
+                .sorted(Comparator.comparing(ChoiceDTO::getOrderIndex))
+                .mapToInt(ChoiceDTO::getChoiceId)
+                .toArray();
+    }
+
+    /** Returns null for questions without a known type, which cannot be checked server-side. */
+    public static AnswerKey compile(QuestionDTO question) {
+        if (question == null || question.getQuestionId() == null || question.getType() == null) return null;
+        try {
+            return new AnswerKey(question, Question.QuestionType.valueOf(question.getType()));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    public Integer getQuestionId() { return questionId; }
+    public Integer getSceneId() { return sceneId; }
+    public Question.QuestionType getType() { return type; }
+    public int getPoints() { return points; }
+
+    /** Points for a correct answer after the given mistakes; like GamePageSEQ, Sequence never awards less than one. */
+    public int pointsEarned(int mistakes) {
+        int floor = type == Question.QuestionType.Sequence ? 1 : 0;
+        return Math.max(floor, points - mistakes);
+    }
+
+    /**
+     * Checks a submission against this key. Submissions that do not name a choice, sprite or
+     * arrangement belonging to this question are rejected with IllegalArgumentException.
+     */
+    public Evaluation check(AnswerSubmissionDTO submission) {
+        switch (type) {
+            case MCQ: {
+                Boolean correct = choiceCorrect.get(submission.getChoiceId());
+                if (correct == null) throw new IllegalArgumentException("Choice " + submission.getChoiceId() + " does not belong to question " + questionId);
+                return new Evaluation(correct, null, String.valueOf(submission.getChoiceId()));
+            }
+            case DragDrop: {
+                Boolean correct = assetCorrect.get(submission.getAssetName());
+                if (correct == null) throw new IllegalArgumentException("Asset " + submission.getAssetName() + " is not an answer of question " + questionId);
+                Integer expected = assetPosition.get(submission.getAssetName());
+                // A sprite with a target slot only counts when dropped there; no position is a miss
+                if (correct && expected != null) {
+                    correct = expected.equals(submission.getDragdropPosition());
+                }
+                return new Evaluation(correct, null, submission.getAssetName());
+            }
+            case ID: {
+                if (submission.getAnswerText() == null) throw new IllegalArgumentException("answerText is required for question " + questionId);
+                return new Evaluation(acceptedTexts.contains(normalize(submission.getAnswerText())), null, submission.getAnswerText());
+            }
+            case Sequence: {
+                List<Integer> given = submission.getSequence();
+                if (given == null || given.size() != sequence.length) {
+                    throw new IllegalArgumentException("Sequence for question " + questionId + " must list " + sequence.length + " choices");
+                }
+                List<Boolean> slots = new ArrayList<>(sequence.length);
+                boolean allCorrect = true;
+                for (int i = 0; i < sequence.length; i++) {
+                    Integer choiceId = given.get(i);
+                    if (!choiceCorrect.containsKey(choiceId)) {
+                        throw new IllegalArgumentException("Choice " + choiceId + " does not belong to question " + questionId);
+                    }
+                    boolean slotCorrect = choiceId == sequence[i];
+                    slots.add(slotCorrect);
+                    allCorrect &= slotCorrect;
+                }
+                String givenAnswer = given.stream().map(String::valueOf).collect(Collectors.joining(","));
+                return new Evaluation(allCorrect, List.copyOf(slots), givenAnswer);
+            }
+            default:
+                throw new IllegalArgumentException("Unsupported question type " + type);
+        }
+    }
+
+    // Case, surrounding and repeated whitespace do not matter for typed answers
+    static String normalize(String text) {
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /** Outcome of one check; givenAnswer is what gets stored on the UserResponse. */
+    public static final class Evaluation {
+        private final boolean correct;
+        private final List<Boolean> positionResults;
+        private final String givenAnswer;
+
+        Evaluation(boolean correct, List<Boolean> positionResults, String givenAnswer) {
+            this.correct = correct;
+            this.positionResults = positionResults;
+            this.givenAnswer = givenAnswer;
+        }
+
+        public boolean isCorrect() { return correct; }
+        public List<Boolean> getPositionResults() { return positionResults; }
+        public String getGivenAnswer() { return givenAnswer; }
+    }
+}
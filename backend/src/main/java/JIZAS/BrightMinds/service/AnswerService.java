@@ -21,8 +21,12 @@ public class AnswerService {
     @Autowired
     private QuestionRepository questionRepository;
     
+    @Autowired
+    private StoryContentStore storyContentStore;
+    
     // Create a new answer
     public Answer createAnswer(Answer answer) {
+        storyContentStore.invalidateAll();
         return answerRepository.save(answer);
     }
     
@@ -31,6 +35,7 @@ public class AnswerService {
         Optional<Question> questionOpt = questionRepository.findById(questionId);
         if (questionOpt.isPresent()) {
             answer.setQuestion(questionOpt.get());
+            storyContentStore.invalidateAll();
             return answerRepository.save(answer);
         }
         throw new RuntimeException("Question not found with ID: " + questionId);
@@ -79,6 +84,7 @@ public class AnswerService {
     // Update answer
     public Answer updateAnswer(Answer answer) {
         if (answerRepository.existsById(answer.getAnswerId())) {
+            storyContentStore.invalidateAll();
             return answerRepository.save(answer);
         }
         throw new RuntimeException("Answer not found with ID: " + answer.getAnswerId());
@@ -86,6 +92,7 @@ public class AnswerService {
     
     // Delete answer by ID
     public void deleteAnswer(Integer answerId) {
+        storyContentStore.invalidateAll();
         answerRepository.deleteById(answerId);
     }
     
@@ -93,6 +100,7 @@ public class AnswerService {
     public void deleteAnswersByQuestionId(Integer questionId) {
         List<Answer> answers = answerRepository.findByQuestionQuestionId(questionId);
         answerRepository.deleteAll(answers);
+        storyContentStore.invalidateAll();
     }
     
     // Check if answer exists
@@ -1,28 +1,52 @@
 package JIZAS.BrightMinds.service;
 
+import JIZAS.BrightMinds.dto.AssetDTO;
+import JIZAS.BrightMinds.dto.AssetPageDTO;
 import JIZAS.BrightMinds.entity.Asset;
 import JIZAS.BrightMinds.repository.AssetRepository;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class AssetService {
 
+	public static final int MAX_PAGE_SIZE = 200;
+
 	private final AssetRepository repo;
+	private final StoryContentStore storyContentStore;
 
-	public AssetService(AssetRepository repo) {
+	public AssetService(AssetRepository repo, StoryContentStore storyContentStore) {
 		this.repo = repo;
+		this.storyContentStore = storyContentStore;
 	}
 
 	public Asset create(Asset a) { return repo.save(a); }
-	public List<Asset> listAll() { return repo.findAll(); }
+
+	// Assets after the cursor (an assetId), optionally of one type, in id order
+	@Transactional(readOnly = true)
+	public AssetPageDTO listPage(Long cursor, String type, int limit) {
+		int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+		long afterId = cursor != null ? cursor : 0L;
+		// One extra row tells whether another page exists
+		PageRequest page = PageRequest.of(0, size + 1);
+		List<Asset> rows = type == null || type.isBlank()
+				? repo.findByAssetIdGreaterThanOrderByAssetIdAsc(afterId, page)
+				: repo.findByTypeAndAssetIdGreaterThanOrderByAssetIdAsc(type, afterId, page);
+
+		boolean hasMore = rows.size() > size;
+		List<AssetDTO> items = rows.stream().limit(size).map(AssetDTO::new).collect(Collectors.toList());
+		Long nextCursor = hasMore ? items.get(items.size() - 1).getAssetId() : null;
+		return new AssetPageDTO(items, nextCursor);
+	}
 	public Optional<Asset> get(Long id) { return repo.findById(id); }
-	public Asset update(Asset a) { return repo.save(a); }
-	public void delete(Long id) { repo.deleteById(id); }
+	public Asset update(Asset a) { storyContentStore.invalidateAll(); return repo.save(a); }
+	public void delete(Long id) { storyContentStore.invalidateAll(); repo.deleteById(id); }
 }
 
 
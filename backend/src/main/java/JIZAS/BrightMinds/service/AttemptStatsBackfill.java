@@ -0,0 +1,35 @@
+package JIZAS.BrightMinds.service;
+
+import JIZAS.BrightMinds.repository.UserStoryStatsRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Fills user_story_stats and user_attempt_stats from the existing game attempts the first time
+ * the application starts with them, before any request can add an attempt. A no-op afterwards;
+ * from then on every attempt insert keeps the statistics current.
+ */
+@Component
+public class AttemptStatsBackfill {
+
+    @Autowired
+    private UserStoryStatsRepository userStoryStatsRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PostConstruct
+    public void backfill() {
+        try {
+            Integer rows = new TransactionTemplate(transactionManager).execute(status -> userStoryStatsRepository.backfillIfEmpty());
+            if (rows != null && rows > 0) {
+                System.out.println("AttemptStatsBackfill: Built attempt statistics for " + rows + " user/story pairs");
+            }
+        } catch (RuntimeException e) {
+            System.err.println("AttemptStatsBackfill: Could not backfill attempt statistics: " + e.getMessage());
+        }
+    }
+}
@@ -3,12 +3,19 @@ package JIZAS.BrightMinds.service;
 import JIZAS.BrightMinds.entity.*;
 import JIZAS.BrightMinds.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -26,6 +33,12 @@ public class BadgeAwardService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserStoryStatsRepository userStoryStatsRepository;
+
+    @Autowired
+    private UserAttemptStatsRepository userAttemptStatsRepository;
+
     /**
      * Award badges based on game completion performance
      */
@@ -33,19 +46,39 @@ public class BadgeAwardService {
         try {
             System.out.println("BadgeAwardService: Checking badges for user " + user.getUserId() + 
                              ", story " + story.getStoryId() + ", percentage " + percentage);
-            
-            // Award score-based badges (Generalized)
-            awardScoreBasedBadges(user, percentage);
-            
-            // Award completion-based badges (Generalized)
-            awardCompletionBasedBadges(user, story);
-            
-            // Award performance-based badges (Generalized)
-            awardPerformanceBasedBadges(user, story, percentage);
-            
-            // Award story-specific badges
-            awardStorySpecificBadges(user, story, percentage, score);
-            
+
+            AttemptFacts facts = new AttemptFacts();
+            facts.percentage = percentage;
+            facts.storyTitle = story.getTitle();
+
+            UserAttemptStats totals = userAttemptStatsRepository.findById(user.getUserId()).orElse(null);
+            facts.distinctStories = totals != null ? totals.getDistinctStories() : 0;
+            facts.totalCompletions = totals != null ? totals.getTotalCompletions() : 0;
+
+            // Story Streak Star looks at the two most recent attempts overall
+            List<GameAttempt> recentAttempts = gameAttemptRepository.findTop2ByUserUserIdOrderByEndAttemptDateDesc(user.getUserId());
+            if (recentAttempts.size() >= 2) {
+                facts.latestPercentage = recentAttempts.get(0).getPercentage();
+                facts.previousPercentage = recentAttempts.get(1).getPercentage();
+            }
+
+            // The latest attempt at this story is the one just completed
+            List<GameAttempt> specificAttempts = gameAttemptRepository.findTop2ByUserUserIdAndStoryStoryIdOrderByEndAttemptDateDesc(
+                    user.getUserId(), story.getStoryId());
+            facts.storyAttempts = userStoryStatsRepository.findByUserAndStory(user.getUserId(), story.getStoryId())
+                    .map(UserStoryStats::getAttemptCount).orElse((long) specificAttempts.size());
+            if (!specificAttempts.isEmpty()) {
+                facts.hasStoryAttempt = true;
+                facts.durationSeconds = specificAttempts.get(0).getCompletionTimeSeconds();
+                facts.latestStoryPercentage = specificAttempts.get(0).getPercentage();
+            }
+            if (specificAttempts.size() >= 2) {
+                facts.previousStoryPercentage = specificAttempts.get(1).getPercentage();
+            }
+
+            for (String badgeName : eligibleBadges(facts)) {
+                awardBadgeByName(user, badgeName);
+            }
         } catch (Exception e) {
             System.err.println("BadgeAwardService: Error awarding badges: " + e.getMessage());
             e.printStackTrace();
@@ -54,135 +87,194 @@ public class BadgeAwardService {
     }
 
     /**
-     * Award badges based on score thresholds (Generalized)
+     * Award badges for new attempts of one user, e.g. one completion or a batch of offline ones.
+     * The user's attempts are read once and replayed oldest first, so each new attempt is judged
+     * against the attempts before it, as if it had been completed on its own. Each badge is looked
+     * up and awarded at most once for the whole batch.
+     * Failures propagate, so the outbox event that called this is retried.
+     */
+    public void awardBadgesForAttempts(User user, Collection<Long> attemptIds) {
+        List<GameAttempt> history = new ArrayList<>(gameAttemptRepository.findByUserUserIdOrderByEndAttemptDateDesc(user.getUserId()));
+        history.sort(Comparator.comparing(GameAttempt::getEndAttemptDate).thenComparing(GameAttempt::getAttemptId));
+
+        Set<String> candidates = new LinkedHashSet<>();
+        Map<Integer, GameAttempt> lastOnStory = new HashMap<>();
+        Map<Integer, Long> countOnStory = new HashMap<>();
+        GameAttempt previous = null;
+        long total = 0;
+        for (GameAttempt attempt : history) {
+            Integer storyId = attempt.getStory().getStoryId();
+            total++;
+            long storyCount = countOnStory.merge(storyId, 1L, Long::sum);
+            GameAttempt previousOnStory = lastOnStory.put(storyId, attempt);
+
+            if (attemptIds.contains(attempt.getAttemptId())) {
+                AttemptFacts facts = new AttemptFacts();
+                facts.percentage = attempt.getPercentage();
+                facts.storyTitle = attempt.getStory().getTitle();
+                facts.distinctStories = countOnStory.size();
+                facts.totalCompletions = total;
+                if (previous != null) {
+                    facts.latestPercentage = attempt.getPercentage();
+                    facts.previousPercentage = previous.getPercentage();
+                }
+                facts.storyAttempts = storyCount;
+                facts.hasStoryAttempt = true;
+                facts.durationSeconds = attempt.getCompletionTimeSeconds();
+                facts.latestStoryPercentage = attempt.getPercentage();
+                facts.previousStoryPercentage = previousOnStory != null ? previousOnStory.getPercentage() : null;
+                candidates.addAll(eligibleBadges(facts));
+            }
+            previous = attempt;
+        }
+
+        Set<String> earned = userBadgeService.getUserBadgesWithBadgeByUserId(user.getUserId()).stream()
+                .map(userBadge -> userBadge.getBadge().getName())
+                .collect(Collectors.toSet());
+        for (String badgeName : candidates) {
+            if (!earned.contains(badgeName)) awardBadgeByName(user, badgeName);
+        }
+    }
+
+    /**
+     * What the badge rules need to know about one attempt and the attempts before it
      */
-    private void awardScoreBasedBadges(User user, Double percentage) {
+    private static class AttemptFacts {
+        Double percentage;
+        String storyTitle;
+        long distinctStories;
+        long totalCompletions;
+        // Latest and previous attempt overall; null when there is no previous attempt
+        Double latestPercentage;
+        Double previousPercentage;
+        // Attempts at this story, including this one
+        long storyAttempts;
+        boolean hasStoryAttempt;
+        Integer durationSeconds;
+        Double latestStoryPercentage;
+        Double previousStoryPercentage;
+    }
+
+    /**
+     * Names of the badges the attempt qualifies for, whether or not the user already has them
+     */
+    private List<String> eligibleBadges(AttemptFacts facts) {
+        List<String> badges = new ArrayList<>();
+        addScoreBasedBadges(badges, facts);
+        addCompletionBasedBadges(badges, facts);
+        addPerformanceBasedBadges(badges, facts);
+        addStorySpecificBadges(badges, facts);
+        return badges;
+    }
+
+    /**
+     * Badges based on score thresholds (Generalized)
+     */
+    private void addScoreBasedBadges(List<String> badges, AttemptFacts facts) {
+        Double percentage = facts.percentage;
+
         // Super Story Smasher (100% on any story)
         if (percentage >= 100.0) {
-            awardBadgeByName(user, "Super Story Smasher");
+            badges.add("Super Story Smasher");
         }
         
         // Bouncy Brainiac (90% on any story)
         if (percentage >= 90.0) {
-            awardBadgeByName(user, "Bouncy Brainiac");
+            badges.add("Bouncy Brainiac");
         }
         
         // Goofy Zero Guru (0%)
         if (percentage == 0.0) {
-            awardBadgeByName(user, "Goofy Zero Guru");
+            badges.add("Goofy Zero Guru");
         }
     }
 
     /**
-     * Award badges based on completion milestones (Generalized)
+     * Badges based on completion milestones (Generalized)
      */
-    private void awardCompletionBasedBadges(User user, Story story) {
+    private void addCompletionBasedBadges(List<String> badges, AttemptFacts facts) {
         // Quest Crusader (Complete all 3 stories)
-        long uniqueStories = gameAttemptRepository.countDistinctStoriesByUser(user.getUserId());
-        if (uniqueStories >= 3) {
-            awardBadgeByName(user, "Quest Crusader");
+        if (facts.distinctStories >= 3) {
+            badges.add("Quest Crusader");
         }
         
         // Jungle Jumper (Complete 5 stories total)
-        long totalCompletions = gameAttemptRepository.countByUserUserId(user.getUserId());
-        if (totalCompletions >= 5) {
-            awardBadgeByName(user, "Jungle Jumper");
+        if (facts.totalCompletions >= 5) {
+            badges.add("Jungle Jumper");
         }
     }
 
     /**
-     * Award badges based on performance metrics (Generalized)
+     * Badges based on performance metrics (Generalized)
      */
-    private void awardPerformanceBasedBadges(User user, Story story, Double percentage) {
+    private void addPerformanceBasedBadges(List<String> badges, AttemptFacts facts) {
         // Story Streak Star (2 stories in a row >= 85%)
-        List<GameAttempt> recentAttempts = gameAttemptRepository.findByUserUserIdOrderByEndAttemptDateDesc(
-                user.getUserId(), PageRequest.of(0, 2)).getContent();
-        
-        if (recentAttempts.size() >= 2) {
-            boolean streak = recentAttempts.stream()
-                    .allMatch(a -> a.getPercentage() != null && a.getPercentage() >= 85.0);
-            if (streak) {
-                awardBadgeByName(user, "Story Streak Star");
-            }
+        if (facts.latestPercentage != null && facts.previousPercentage != null
+                && facts.latestPercentage >= 85.0 && facts.previousPercentage >= 85.0) {
+            badges.add("Story Streak Star");
         }
         
         // Speedy Story Sprinter (Any story < 7 mins with >= 80%)
-        // Note: We need the current attempt's time. 
-        // We will fetch the latest attempt for this story.
-        List<GameAttempt> specificAttempts = gameAttemptRepository.findByUserUserIdAndStoryStoryIdOrderByEndAttemptDateDesc(
-                user.getUserId(), story.getStoryId());
-        
-        if (!specificAttempts.isEmpty()) {
-            GameAttempt latest = specificAttempts.get(0);
-            Integer duration = latest.getCompletionTimeSeconds();
+        if (facts.hasStoryAttempt) {
+            Integer duration = facts.durationSeconds;
             
-            if (percentage >= 80.0 && duration != null && duration <= (7 * 60)) {
-                 awardBadgeByName(user, "Speedy Story Sprinter");
+            if (facts.percentage >= 80.0 && duration != null && duration <= (7 * 60)) {
+                badges.add("Speedy Story Sprinter");
             }
             
             // Turtle Tickler (> 20 mins)
             if (duration != null && duration >= (20 * 60)) {
-                awardBadgeByName(user, "Turtle Tickler");
+                badges.add("Turtle Tickler");
             }
         }
         
         // Retry Rocketeer (Improve by 15% on retry)
         // Wobbly Wanderer (Lower score on retry)
-        if (specificAttempts.size() >= 2) {
-            GameAttempt current = specificAttempts.get(0);
-            GameAttempt previous = specificAttempts.get(1);
+        if (facts.latestStoryPercentage != null && facts.previousStoryPercentage != null) {
+            double diff = facts.latestStoryPercentage - facts.previousStoryPercentage;
             
-            if (current.getPercentage() != null && previous.getPercentage() != null) {
-                double diff = current.getPercentage() - previous.getPercentage();
-                
-                if (diff >= 15.0) {
-                    awardBadgeByName(user, "Retry Rocketeer");
-                }
-                
-                if (diff < 0) {
-                    awardBadgeByName(user, "Wobbly Wanderer");
-                }
+            if (diff >= 15.0) {
+                badges.add("Retry Rocketeer");
+            }
+            
+            if (diff < 0) {
+                badges.add("Wobbly Wanderer");
             }
         }
     }
 
     /**
-     * Award badges for specific stories
+     * Badges for specific stories
      */
-    private void awardStorySpecificBadges(User user, Story story, Double percentage, Integer score) {
-        String title = story.getTitle();
+    private void addStorySpecificBadges(List<String> badges, AttemptFacts facts) {
+        String title = facts.storyTitle;
         if (title == null) return;
-        
-        List<GameAttempt> attempts = gameAttemptRepository.findByUserUserIdAndStoryStoryIdOrderByEndAttemptDateDesc(
-                user.getUserId(), story.getStoryId());
-        GameAttempt latest = attempts.isEmpty() ? null : attempts.get(0);
-        Integer duration = latest != null ? latest.getCompletionTimeSeconds() : null;
+        Double percentage = facts.percentage;
+        Integer duration = facts.durationSeconds;
 
         // --- The Secret of the Amulet ---
         if (title.equalsIgnoreCase("The Secret of the Amulet")) {
             // Amulet Ace (100%)
             if (percentage >= 100.0) {
-                awardBadgeByName(user, "Amulet Ace");
+                badges.add("Amulet Ace");
             }
             
             // Plains Pathfinder (< 10 mins)
             if (duration != null && duration < (10 * 60)) {
-                awardBadgeByName(user, "Plains Pathfinder");
+                badges.add("Plains Pathfinder");
             }
             
             // Village Victory (Improve score on any retry)
-            if (attempts.size() >= 2) {
-                GameAttempt prev = attempts.get(1);
-                if (latest != null && prev.getPercentage() != null && latest.getPercentage() > prev.getPercentage()) {
-                    awardBadgeByName(user, "Village Victory");
-                }
+            if (facts.latestStoryPercentage != null && facts.previousStoryPercentage != null
+                    && facts.latestStoryPercentage > facts.previousStoryPercentage) {
+                badges.add("Village Victory");
             }
             
             // Early Amulet Explorer ("first week" - mocked as always true or logic if needed, 
             // but for now we'll just check if it's their first completion of this story)
             // Implementation: Simple check if this is the first time they played it.
-            if (attempts.size() == 1) {
-                awardBadgeByName(user, "Early Amulet Explorer");
+            if (facts.storyAttempts == 1) {
+                badges.add("Early Amulet Explorer");
             }
         }
         
@@ -190,18 +282,18 @@ public class BadgeAwardService {
         if (title.equalsIgnoreCase("Leah's Scrapbook")) {
             // Scrapbook Sorcerer (90%+)
             if (percentage >= 90.0) {
-                awardBadgeByName(user, "Scrapbook Sorcerer");
+                badges.add("Scrapbook Sorcerer");
             }
             
             // Speedy Sorter (< 5 mins)
             if (duration != null && duration < (5 * 60)) {
-                awardBadgeByName(user, "Speedy Sorter");
+                badges.add("Speedy Sorter");
             }
             
             // Mineral Maestro (Every mineral question right -> 100%)
             // Assuming 100% score implies getting all mineral questions right for now
             if (percentage >= 100.0) {
-                awardBadgeByName(user, "Mineral Maestro");
+                badges.add("Mineral Maestro");
             }
         }
         
@@ -209,17 +301,17 @@ public class BadgeAwardService {
         if (title.equalsIgnoreCase("Hiraya's Heroes")) {
             // Hero Historian (95%+)
             if (percentage >= 95.0) {
-                awardBadgeByName(user, "Hero Historian");
+                badges.add("Hero Historian");
             }
             
             // Auntie's Ally (Complete 3 times)
-            if (attempts.size() >= 3) {
-                awardBadgeByName(user, "Auntie's Ally");
+            if (facts.storyAttempts >= 3) {
+                badges.add("Auntie's Ally");
             }
             
             // Sequence Superstar (Perfect sequence -> 100%)
             if (percentage >= 100.0) {
-                awardBadgeByName(user, "Sequence Superstar");
+                badges.add("Sequence Superstar");
             }
         }
     }
@@ -228,19 +320,15 @@ public class BadgeAwardService {
      * Award a badge to a user by badge name
      */
     private void awardBadgeByName(User user, String badgeName) {
-        try {
-            Optional<Badge> badgeOpt = badgeRepository.findByName(badgeName);
-            if (badgeOpt.isPresent()) {
-                Badge badge = badgeOpt.get();
-                if (!userBadgeService.hasUserEarnedBadge(user.getUserId(), badge.getBadgeId())) {
-                    userBadgeService.awardBadgeToUser(user, badge.getBadgeId());
-                    System.out.println("BadgeAwardService: Awarded badge '" + badgeName + "' to user " + user.getUserId());
-                }
-            } else {
-                System.out.println("BadgeAwardService: Badge '" + badgeName + "' not found in database");
+        Optional<Badge> badgeOpt = badgeRepository.findByName(badgeName);
+        if (badgeOpt.isPresent()) {
+            Badge badge = badgeOpt.get();
+            if (!userBadgeService.hasUserEarnedBadge(user.getUserId(), badge.getBadgeId())) {
+                userBadgeService.awardBadgeToUser(user, badge.getBadgeId());
+                System.out.println("BadgeAwardService: Awarded badge '" + badgeName + "' to user " + user.getUserId());
             }
-        } catch (Exception e) {
-            System.err.println("BadgeAwardService: Error awarding badge '" + badgeName + "': " + e.getMessage());
+        } else {
+            System.out.println("BadgeAwardService: Badge '" + badgeName + "' not found in database");
         }
     }
 
@@ -21,8 +21,12 @@ public class ChoiceService {
     @Autowired
     private QuestionRepository questionRepository;
     
+    @Autowired
+    private StoryContentStore storyContentStore;
+    
     // Create a new choice
     public Choice createChoice(Choice choice) {
+        storyContentStore.invalidateAll();
         return choiceRepository.save(choice);
     }
     
@@ -31,6 +35,7 @@ public class ChoiceService {
         Optional<Question> questionOpt = questionRepository.findById(questionId);
         if (questionOpt.isPresent()) {
             choice.setQuestion(questionOpt.get());
+            storyContentStore.invalidateAll();
             return choiceRepository.save(choice);
         }
         throw new RuntimeException("Question not found with ID: " + questionId);
@@ -74,6 +79,7 @@ public class ChoiceService {
     // Update choice
     public Choice updateChoice(Choice choice) {
         if (choiceRepository.existsById(choice.getChoiceId())) {
+            storyContentStore.invalidateAll();
             return choiceRepository.save(choice);
         }
         throw new RuntimeException("Choice not found with ID: " + choice.getChoiceId());
@@ -81,6 +87,7 @@ public class ChoiceService {
     
     // Delete choice by ID
     public void deleteChoice(Integer choiceId) {
+        storyContentStore.invalidateAll();
         choiceRepository.deleteById(choiceId);
     }
     
@@ -88,6 +95,7 @@ public class ChoiceService {
     public void deleteChoicesByQuestionId(Integer questionId) {
         List<Choice> choices = choiceRepository.findByQuestionQuestionId(questionId);
         choiceRepository.deleteAll(choices);
+        storyContentStore.invalidateAll();
     }
     
     // Check if choice exists
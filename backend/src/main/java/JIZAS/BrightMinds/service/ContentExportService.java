@@ -0,0 +1,216 @@
+package JIZAS.BrightMinds.service;
+
+import JIZAS.BrightMinds.dto.GameSceneDTO;
+import JIZAS.BrightMinds.dto.StoryCatalogDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Publishes story content as static files so a resource handler, reverse proxy or nginx can serve
+ * gameplay reads without touching the controllers, JPA or Jackson.
+ *
+ * Layout under {@code brightminds.export.dir}:
+ * <pre>
+ *   catalog.{hash}.json                               story picker listing
+ *   stories/{storyId}/bundle.v{version}.{hash}.json   whole playable story
+ *   stories/{storyId}/scene-{sceneId}.v{version}.{hash}.json
+ *   index/catalog.json, index/story-{storyId}.json    pointers to the current hashed files
+ * </pre>
+ * Hashed files never change and are served as immutable; only the small index files must be
+ * revalidated. Each JSON file gets a .gz sibling when gzip makes it smaller. Files are written to a
+ * temp name and moved into place, so readers never see a partial file.
+ *
+ * Publishing runs after {@link SeederService#seedStory} commits and for every story at startup.
+ * Content edited through the admin endpoints is picked up by the next seed or restart.
+ */
+@Service
+public class ContentExportService {
+
+    @Autowired
+    private ContentPayloadCache contentPayloadCache;
+
+    @Autowired
+    private StoryContentStore storyContentStore;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("contentExportExecutor")
+    private ThreadPoolTaskExecutor contentExportExecutor;
+
+    @Value("${brightminds.export.enabled:false}")
+    private boolean enabled;
+
+    @Value("${brightminds.export.dir:./content-export}")
+    private String exportDir;
+
+    /** Public URL prefix the exported directory is served under. */
+    public static final String URL_PREFIX = "/content";
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void publishAllOnStartup() {
+        if (!enabled) return;
+        contentExportExecutor.execute(() -> {
+            try {
+                for (StoryCatalogDTO entry : storyContentStore.getCatalog().getEntries()) {
+                    writeStory(entry.getStoryId());
+                }
+                writeCatalog();
+                System.out.println("ContentExportService: Published all stories to " + root());
+            } catch (RuntimeException e) {
+                System.err.println("ContentExportService: Error publishing content: " + e.getMessage());
+            }
+        });
+    }
+
+    /** Republishes one story and the catalog once the current transaction commits. */
+    public void publishAfterCommit(Integer storyId) {
+        if (!enabled) return;
+        // Runs after the store's own invalidation, so the export reads the committed content
+        StoryContentStore.afterCommit(() -> contentExportExecutor.execute(() -> {
+            try {
+                writeStory(storyId);
+                writeCatalog();
+                System.out.println("ContentExportService: Published story " + storyId + " to " + root());
+            } catch (RuntimeException e) {
+                System.err.println("ContentExportService: Error publishing story " + storyId + ": " + e.getMessage());
+            }
+        }));
+    }
+
+    private void writeStory(Integer storyId) {
+        StoryContentStore.StoryContent story = storyContentStore.getStory(storyId).orElse(null);
+        if (story == null) return;
+
+        Path dir = root().resolve("stories").resolve(String.valueOf(storyId));
+        String version = "v" + story.getContentVersion();
+        Set<String> written = new HashSet<>();
+
+        Map<String, Object> index = new LinkedHashMap<>();
+        index.put("storyId", storyId);
+        index.put("contentVersion", story.getContentVersion());
+
+        ContentPayloadCache.SerializedPayload bundle = contentPayloadCache.bundle(storyId, null).orElseThrow();
+        String bundleFile = writeHashed(dir, "bundle." + version, bundle, written);
+        index.put("bundle", URL_PREFIX + "/stories/" + storyId + "/" + bundleFile);
+
+        Map<String, String> scenes = new LinkedHashMap<>();
+        for (GameSceneDTO scene : story.getScenes()) {
+            Integer sceneId = scene.getScene().getSceneId();
+            ContentPayloadCache.SerializedPayload payload = contentPayloadCache.scene(sceneId, null).orElseThrow();
+            String sceneFile = writeHashed(dir, "scene-" + sceneId + "." + version, payload, written);
+            scenes.put(String.valueOf(sceneId), URL_PREFIX + "/stories/" + storyId + "/" + sceneFile);
+        }
+        index.put("scenes", scenes);
+
+        writeIndex("story-" + storyId + ".json", index);
+        prune(dir, written);
+    }
+
+    private void writeCatalog() {
+        Set<String> written = new HashSet<>();
+        String catalogFile = writeHashed(root(), "catalog", contentPayloadCache.catalog(), written);
+        writeIndex("catalog.json", Map.of("catalog", URL_PREFIX + "/" + catalogFile));
+        pruneCatalogs(written);
+    }
+
+    // Writes {name}.{hash}.json (and .json.gz) unless already present; returns the JSON file name
+    private String writeHashed(Path dir, String name, ContentPayloadCache.SerializedPayload payload, Set<String> written) {
+        String fileName = name + "." + sha256Prefix(payload.getJson()) + ".json";
+        Path target = dir.resolve(fileName);
+        if (!Files.exists(target)) {
+            writeAtomically(target, payload.getJson());
+        }
+        written.add(fileName);
+        if (payload.getGzip() != null) {
+            Path gz = dir.resolve(fileName + ".gz");
+            if (!Files.exists(gz)) {
+                writeAtomically(gz, payload.getGzip());
+            }
+            written.add(fileName + ".gz");
+        }
+        return fileName;
+    }
+
+    private void writeIndex(String fileName, Object index) {
+        try {
+            writeAtomically(root().resolve("index").resolve(fileName), objectMapper.writeValueAsBytes(index));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeAtomically(Path target, byte[] bytes) {
+        try {
+            Files.createDirectories(target.getParent());
+            Path tmp = Files.createTempFile(target.getParent(), ".export-", ".tmp");
+            Files.write(tmp, bytes);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write " + target, e);
+        }
+    }
+
+    // Older versions of a story's files are no longer referenced by its index
+    private static void prune(Path dir, Set<String> keep) {
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(f -> !keep.contains(f.getFileName().toString())).forEach(ContentExportService::deleteQuietly);
+        } catch (IOException e) {
+            System.err.println("ContentExportService: Could not prune " + dir + ": " + e.getMessage());
+        }
+    }
+
+    private void pruneCatalogs(Set<String> keep) {
+        try (Stream<Path> files = Files.list(root())) {
+            files.filter(f -> {
+                String name = f.getFileName().toString();
+                return name.startsWith("catalog.") && !keep.contains(name);
+            }).forEach(ContentExportService::deleteQuietly);
+        } catch (IOException e) {
+            System.err.println("ContentExportService: Could not prune catalogs: " + e.getMessage());
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("ContentExportService: Could not delete " + file + ": " + e.getMessage());
+        }
+    }
+
+    private Path root() {
+        return Paths.get(exportDir).toAbsolutePath().normalize();
+    }
+
+    private static String sha256Prefix(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package JIZAS.BrightMinds.service;
+
+import JIZAS.BrightMinds.dto.DialogueDTO;
+import JIZAS.BrightMinds.dto.GameSceneDTO;
+import JIZAS.BrightMinds.dto.LocalizedDialogueDTO;
+import JIZAS.BrightMinds.dto.StoryBundleDTO;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Dialogue language of a single-language scene or bundle payload.
+ *
+ * A localized payload carries each line once, in {@code lineText}, and drops {@code lineTextTl};
+ * lines without a translation fall back to the other language. Clients that read
+ * {@code lineTextTl} first and fall back to {@code lineText} keep working unchanged.
+ */
+public enum ContentLanguage {
+    EN("en"),
+    TL("tl");
+
+    private final String code;
+
+    ContentLanguage(String code) {
+        this.code = code;
+    }
+
+    public String getCode() { return code; }
+
+    /**
+     * Resolves the {@code lang} request parameter. Absent means the payload with both languages.
+     * {@code lang=auto} negotiates from Accept-Language; it is opt-in because browsers always send
+     * that header and the game pages switch language on their own.
+     */
+    public static ContentLanguage resolve(String lang, String acceptLanguage) {
+        if (lang == null || lang.isBlank()) return null;
+        if (lang.equalsIgnoreCase("auto")) return negotiate(acceptLanguage);
+        ContentLanguage language = fromTag(lang);
+        if (language == null) throw new IllegalArgumentException("Unsupported language: " + lang);
+        return language;
+    }
+
+    // First supported tag in the header's preference order; English when none is supported
+    private static ContentLanguage negotiate(String acceptLanguage) {
+        if (acceptLanguage != null && !acceptLanguage.isBlank()) {
+            try {
+                for (Locale.LanguageRange range : Locale.LanguageRange.parse(acceptLanguage)) {
+                    if (range.getWeight() <= 0) continue;
+                    ContentLanguage language = fromTag(range.getRange());
+                    if (language != null) return language;
+                }
+            } catch (IllegalArgumentException e) {
+                // Malformed header: fall through to the default
+            }
+        }
+        return EN;
+    }
+
+    private static ContentLanguage fromTag(String tag) {
+        String primary = tag.trim().toLowerCase(Locale.ROOT).split("[-_]")[0];
+        switch (primary) {
+            case "en": return EN;
+            case "tl":
+            case "fil": return TL;
+            default: return null;
+        }
+    }
+
+    public GameSceneDTO localize(GameSceneDTO scene) {
+        GameSceneDTO copy = new GameSceneDTO();
+        copy.setScene(scene.getScene());
+        copy.setDialogues(scene.getDialogues().stream().map(this::localize).collect(Collectors.toList()));
+        copy.setAssets(scene.getAssets());
+        copy.setQuestion(scene.getQuestion());
+        copy.setPrefetch(scene.getPrefetch());
+        return copy;
+    }
+
+    public StoryBundleDTO localize(StoryBundleDTO bundle) {
+        List<GameSceneDTO> scenes = bundle.getScenes().stream().map(this::localize).collect(Collectors.toList());
+        return new StoryBundleDTO(bundle.getStory(), scenes);
+    }
+
+    private DialogueDTO localize(DialogueDTO dialogue) {
+        DialogueDTO copy = new LocalizedDialogueDTO();
+        copy.setDialogueId(dialogue.getDialogueId());
+        copy.setSceneId(dialogue.getSceneId());
+        copy.setCharacterName(dialogue.getCharacterName());
+        copy.setLineText(this == TL ? firstPresent(dialogue.getLineTextTl(), dialogue.getLineText())
+                                    : firstPresent(dialogue.getLineText(), dialogue.getLineTextTl()));
+        copy.setVoiceAssetId(dialogue.getVoiceAssetId());
+        copy.setVoiceover(dialogue.getVoiceover());
+        copy.setVoiceoverUrl(dialogue.getVoiceoverUrl());
+        copy.setOrderIndex(dialogue.getOrderIndex());
+        copy.setMetadata(dialogue.getMetadata());
+        return copy;
+    }
+
+    private static String firstPresent(String preferred, String fallback) {
+        return preferred != null && !preferred.isBlank() ? preferred : fallback;
+    }
+}
@@ -0,0 +1,185 @@
+package JIZAS.BrightMinds.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Final JSON bytes (and a gzip variant) of the scene, story, bundle, asset manifest and catalog payloads.
+ * Scenes and bundles also have single-language variants, see {@link ContentLanguage}.
+ *
+ * Payloads are serialized once per {@link StoryContentStore.StoryContent} snapshot and carry a
+ * strong ETag built from the story's content version and a checksum of the bytes, so controllers
+ * can answer If-None-Match with 304 and otherwise write the cached bytes as-is. The gzip body is
+ * a different representation, so it gets its own ETag with a "-gz" suffix.
+ * There is no pure-Java Brotli encoder on the classpath, so gzip is the only compressed variant.
+ */
+@Service
+public class ContentPayloadCache {
+
+    @Autowired
+    private StoryContentStore storyContentStore;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // A null language is the payload with both languages; each variant has its own key and ETag
+    public Optional<SerializedPayload> scene(Integer sceneId, ContentLanguage language) {
+        return storyContentStore.getStoryForScene(sceneId)
+                .map(story -> story.payload(sceneKey(sceneId, language), key -> serialize(story, key,
+                        language != null ? language.localize(story.getScene(sceneId)) : story.getScene(sceneId))));
+    }
+
+    public SerializedPayload catalog() {
+        StoryContentStore.StoryCatalog catalog = storyContentStore.getCatalog();
+        return catalog.payload(key -> serialize(key, catalog.getEntries()));
+    }
+
+    // True when the scene's story is loaded and its payload is already serialized
+    public boolean isSceneCached(Integer sceneId, ContentLanguage language) {
+        return storyContentStore.peekStoryForScene(sceneId)
+                .map(story -> story.hasPayload(sceneKey(sceneId, language)))
+                .orElse(false);
+    }
+
+    public Optional<SerializedPayload> story(Integer storyId) {
+        return storyContentStore.getStory(storyId)
+                .map(story -> story.payload("story", key -> serialize(story, key, story.getStory())));
+    }
+
+    public Optional<SerializedPayload> storyScenes(Integer storyId) {
+        return storyContentStore.getStory(storyId)
+                .map(story -> story.payload("scenes", key -> serialize(story, key, story.getStory().getScenes())));
+    }
+
+    public Optional<SerializedPayload> bundle(Integer storyId, ContentLanguage language) {
+        return storyContentStore.getStory(storyId)
+                .map(story -> story.payload(language != null ? "bundle-" + language.getCode() : "bundle", key -> serialize(story, key,
+                        language != null ? language.localize(story.getBundle()) : story.getBundle())));
+    }
+
+    public Optional<SerializedPayload> assetManifest(Integer storyId) {
+        return storyContentStore.getStory(storyId)
+                .map(story -> story.payload("asset-manifest", key -> serialize(story, key, story.getAssetManifest())));
+    }
+
+    private static String sceneKey(Integer sceneId, ContentLanguage language) {
+        return language != null ? "scene-" + sceneId + "-" + language.getCode() : "scene-" + sceneId;
+    }
+
+    private SerializedPayload serialize(StoryContentStore.StoryContent story, String key, Object value) {
+        return serialize("s" + story.getStoryId() + "-v" + story.getContentVersion() + "-" + key, value);
+    }
+
+    // The ETag is the given tag plus a checksum of the serialized bytes
+    private SerializedPayload serialize(String tag, Object value) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(value);
+            CRC32 crc = new CRC32();
+            crc.update(json);
+            String etag = "\"" + tag + "-" + Long.toHexString(crc.getValue()) + "\"";
+            return new SerializedPayload(json, gzip(json), etag);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize payload " + tag, e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] compressed = out.toByteArray();
+        // Tiny payloads can grow when gzipped; serve those uncompressed
+        return compressed.length < json.length ? compressed : null;
+    }
+
+    public static final class SerializedPayload {
+        private final byte[] json;
+        private final byte[] gzip;
+        private final String etag;
+
+        SerializedPayload(byte[] json, byte[] gzip, String etag) {
+            this.json = json;
+            this.gzip = gzip;
+            this.etag = etag;
+        }
+
+        public byte[] getJson() { return json; }
+        public byte[] getGzip() { return gzip; }
+        public String getEtag() { return etag; }
+
+        public String getGzipEtag() {
+            return etag.substring(0, etag.length() - 1) + "-gz\"";
+        }
+
+        // Either variant's tag revalidates: both come from the same bytes
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.equals("*")) return true;
+                // If-None-Match uses weak comparison
+                if (tag.startsWith("W/")) tag = tag.substring(2);
+                if (tag.equals(etag) || tag.equals(getGzipEtag())) return true;
+            }
+            return false;
+        }
+
+        public ResponseEntity<byte[]> toResponse(String ifNoneMatch, String acceptEncoding) {
+            return toResponse(ifNoneMatch, acceptEncoding, false);
+        }
+
+        // varyLanguage is for responses whose variant was negotiated from Accept-Language
+        public ResponseEntity<byte[]> toResponse(String ifNoneMatch, String acceptEncoding, boolean varyLanguage) {
+            boolean gzipped = gzip != null && acceptsGzip(acceptEncoding);
+            HttpHeaders headers = new HttpHeaders();
+            headers.setETag(gzipped ? getGzipEtag() : etag);
+            // Content only changes on reseed: let clients keep it but revalidate every time
+            headers.setCacheControl("no-cache");
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (varyLanguage) headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_LANGUAGE);
+
+            if (matches(ifNoneMatch)) {
+                return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+            }
+
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            if (gzipped) {
+                headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+                headers.setContentLength(gzip.length);
+                return new ResponseEntity<>(gzip, headers, HttpStatus.OK);
+            }
+            headers.setContentLength(json.length);
+            return new ResponseEntity<>(json, headers, HttpStatus.OK);
+        }
+
+        private static boolean acceptsGzip(String acceptEncoding) {
+            if (acceptEncoding == null) return false;
+            for (String part : acceptEncoding.split(",")) {
+                String[] tokens = part.trim().split(";");
+                if (!tokens[0].trim().equalsIgnoreCase("gzip")) continue;
+                for (int i = 1; i < tokens.length; i++) {
+                    String param = tokens[i].trim();
+                    if (param.matches("q=0(\\.0*)?")) return false;
+                }
+                return true;
+            }
+            return false;
+        }
+    }
+}
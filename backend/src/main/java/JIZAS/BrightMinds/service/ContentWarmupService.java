@@ -0,0 +1,48 @@
+package JIZAS.BrightMinds.service;
+
+import JIZAS.BrightMinds.dto.GameSceneDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Serializes the scenes listed in a scene's prefetch hints in the background, so the
+ * request for the next scene is a cache hit while the student is still reading dialogue.
+ */
+@Service
+public class ContentWarmupService {
+
+    @Autowired
+    private StoryContentStore storyContentStore;
+
+    @Autowired
+    private ContentPayloadCache contentPayloadCache;
+
+    @Autowired
+    @Qualifier("contentWarmupExecutor")
+    private ThreadPoolTaskExecutor contentWarmupExecutor;
+
+    // Warms the same language variant the client just asked for
+    public void warmAfter(Integer sceneId, ContentLanguage language) {
+        List<Integer> cold = storyContentStore.peekStoryForScene(sceneId)
+                .map(story -> story.getScene(sceneId))
+                .map(GameSceneDTO::getPrefetch)
+                .map(prefetch -> prefetch.getSceneIds().stream()
+                        .filter(id -> !contentPayloadCache.isSceneCached(id, language))
+                        .collect(Collectors.toList()))
+                .orElse(List.of());
+        if (cold.isEmpty()) return;
+
+        contentWarmupExecutor.execute(() -> {
+            try {
+                cold.forEach(id -> contentPayloadCache.scene(id, language));
+            } catch (RuntimeException e) {
+                System.err.println("ContentWarmupService: Error warming scenes " + cold + ": " + e.getMessage());
+            }
+        });
+    }
+}
@@ -17,7 +17,10 @@ public class DialogueService {
     @Autowired
     private DialogueRepository dialogueRepository;
 
-    public Dialogue create(Dialogue d) { return dialogueRepository.save(d); }
+    @Autowired
+    private StoryContentStore storyContentStore;
+
+    public Dialogue create(Dialogue d) { storyContentStore.invalidateAll(); return dialogueRepository.save(d); }
     public List<Dialogue> listAll() { return dialogueRepository.findAll(); }
     public Optional<Dialogue> getById(UUID id) { return dialogueRepository.findById(id); }
     public List<Dialogue> listByScene(Integer sceneId) { return dialogueRepository.findByScene_SceneIdOrderByOrderIndexAsc(sceneId); }
@@ -25,9 +28,10 @@ public class DialogueService {
         if (!dialogueRepository.existsById(d.getDialogueId())) {
             throw new RuntimeException("Dialogue not found with ID: " + d.getDialogueId());
         }
+        storyContentStore.invalidateAll();
         return dialogueRepository.save(d);
     }
-    public void delete(UUID id) { dialogueRepository.deleteById(id); }
+    public void delete(UUID id) { storyContentStore.invalidateAll(); dialogueRepository.deleteById(id); }
 }
 
 
@@ -0,0 +1,194 @@
+package JIZAS.BrightMinds.service;
+
+import JIZAS.BrightMinds.dto.AnswerResultDTO;
+import JIZAS.BrightMinds.dto.AnswerSubmissionDTO;
+import JIZAS.BrightMinds.dto.ProgressAckDTO;
+import JIZAS.BrightMinds.entity.Progress;
+import JIZAS.BrightMinds.entity.ProgressState;
+import JIZAS.BrightMinds.entity.UserResponse;
+import JIZAS.BrightMinds.repository.ProgressRepository;
+import JIZAS.BrightMinds.repository.ProgressUpsertRepository;
+import JIZAS.BrightMinds.repository.QuestionRepository;
+import JIZAS.BrightMinds.repository.UserRepository;
+import JIZAS.BrightMinds.repository.UserResponseRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Checks gameplay answers against the precompiled {@link AnswerKey}s and, in the same transaction,
+ * records the {@link UserResponse} and updates the player's progress. This replaces the separate
+ * save-wrong-answer, user-response and save-scene-progress calls the game pages make per answer.
+ */
+@Service
+@Transactional
+public class GameAnswerService {
+
+    @Autowired
+    private StoryContentStore storyContentStore;
+
+    @Autowired
+    private ProgressRepository progressRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private QuestionRepository questionRepository;
+
+    @Autowired
+    private UserResponseRepository userResponseRepository;
+
+    @Autowired
+    private ProgressBuffer progressBuffer;
+
+    /**
+     * Returns null when the scene, its question or the user is unknown. Throws IllegalArgumentException
+     * for malformed submissions; anything else thrown is a server-side failure.
+     */
+    public AnswerResultDTO submit(AnswerSubmissionDTO submission) {
+        if (submission.getUserId() == null || submission.getSceneId() == null) {
+            throw new IllegalArgumentException("userId and sceneId are required");
+        }
+        requireSequence(submission);
+        StoryContentStore.StoryContent story = storyContentStore.getStoryForScene(submission.getSceneId()).orElse(null);
+        if (story == null) return null;
+        return submit(submission, story, null, false);
+    }
+
+    /**
+     * submit for the session's user and story, using the session's copy of the progress instead of
+     * reading the row. The write only applies if the row is still at that copy's state version;
+     * otherwise the submission is replayed the regular way.
+     */
+    public AnswerResultDTO submit(AnswerSubmissionDTO submission, GameSessionStore.GameSession session) {
+        if (submission.getSceneId() == null) throw new IllegalArgumentException("sceneId is required");
+        requireSequence(submission);
+        submission.setUserId(session.getUserId());
+        StoryContentStore.StoryContent story = session.getStory();
+        if (story.getScene(submission.getSceneId()) == null) return null;
+        AnswerResultDTO result = submit(submission, story, session, true);
+        return result != null ? result : submit(submission, story, session, false);
+    }
+
+    // With fromSession, returns null when the session's copy turned out to be stale
+    private AnswerResultDTO submit(AnswerSubmissionDTO submission, StoryContentStore.StoryContent story,
+                                   GameSessionStore.GameSession session, boolean fromSession) {
+        Integer questionId = submission.getQuestionId();
+        if (questionId == null && story.getScene(submission.getSceneId()).getQuestion() != null) {
+            questionId = story.getScene(submission.getSceneId()).getQuestion().getQuestionId();
+        }
+        AnswerKey key = story.getAnswerKey(questionId);
+        if (key == null || !submission.getSceneId().equals(key.getSceneId())) return null;
+
+        AnswerKey.Evaluation evaluation = key.check(submission);
+
+        // The row is upserted directly below, so buffered scene saves must land first
+        progressBuffer.flushAndEvict(submission.getUserId(), story.getStoryId());
+        Optional<Progress> existing = fromSession
+                ? session.getProgress()
+                : progressRepository.findByUserAndStory(submission.getUserId(), story.getStoryId());
+        if (existing.isPresent() && !ProgressService.acceptsSequence(existing.get(), submission.getClientSeq(), submission.getIdempotencyKey())) {
+            // Only the stored row can say a submission is a duplicate
+            if (fromSession) return null;
+            return superseded(key, evaluation, existing.get(),
+                    ProgressService.sequenceStatus(existing.get(), submission.getClientSeq(), submission.getIdempotencyKey()));
+        }
+        ProgressState state = existing.map(Progress::getState).orElse(ProgressState.EMPTY);
+        int mistakesOnQuestion = state.mistakes(key.getQuestionId());
+        boolean alreadyCompleted = state.isSceneCompleted(submission.getSceneId());
+        if (submission.getAnswerStates() != null) {
+            state = state.withAnswerStates(submission.getAnswerStates());
+        }
+
+        AnswerResultDTO result = new AnswerResultDTO();
+        result.setQuestionId(key.getQuestionId());
+        result.setCorrect(evaluation.isCorrect());
+        result.setPositionResults(evaluation.getPositionResults());
+        result.setAlreadyCompleted(alreadyCompleted);
+        result.setPointsEarned(0);
+
+        // Score and mistake count are added in SQL, so they cannot be lost to a concurrent save
+        ProgressUpsertRepository.Upsert upsert = new ProgressUpsertRepository.Upsert(submission.getUserId(), story.getStoryId())
+                .gameStartTime(submission.getGameStartTime())
+                .clientSeq(submission.getClientSeq())
+                .idempotencyKey(submission.getIdempotencyKey());
+
+        if (alreadyCompleted) {
+            // Replaying a finished question is recorded but never scored or counted again
+            upsert.currentScene(String.valueOf(submission.getSceneId()));
+        } else if (evaluation.isCorrect()) {
+            int pointsEarned = key.pointsEarned(mistakesOnQuestion);
+            upsert.addScore(pointsEarned);
+            result.setPointsEarned(pointsEarned);
+
+            // Read back by getNextAvailableSceneId as a completed scene
+            state = state.withSceneCompleted(submission.getSceneId(), key.getQuestionId(), pointsEarned);
+
+            Integer nextSceneId = story.getNextSceneId(submission.getSceneId());
+            upsert.currentScene(String.valueOf(nextSceneId != null ? nextSceneId : submission.getSceneId()));
+        } else {
+            mistakesOnQuestion++;
+            upsert.addMistakes(1);
+            state = state.withMistakes(key.getQuestionId(), mistakesOnQuestion);
+            upsert.currentScene(String.valueOf(submission.getSceneId()));
+        }
+
+        if (fromSession) {
+            upsert.expectedVersion(existing.map(Progress::getStateVersion).orElse(0L));
+        }
+        Optional<Progress> upserted = progressRepository.upsert(upsert.state(state));
+        if (upserted.isEmpty() && fromSession) return null;
+        if (upserted.isEmpty()) {
+            // A concurrent retry of the same submission got there first
+            if (existing.isPresent()) return superseded(key, evaluation, existing.get(), ProgressAckDTO.DUPLICATE);
+            // No row and none inserted: the user does not exist
+            return null;
+        }
+        Progress saved = upserted.get();
+        if (session != null) session.update(saved);
+
+        UserResponse response = new UserResponse();
+        response.setUser(userRepository.getReferenceById(submission.getUserId()));
+        response.setQuestion(questionRepository.getReferenceById(key.getQuestionId()));
+        response.setGivenAnswer(evaluation.getGivenAnswer());
+        response.setIsCorrect(evaluation.isCorrect());
+        response.setSubmittedAt(LocalDateTime.now());
+        response = userResponseRepository.save(response);
+
+        result.setResponseId(response.getResponseId());
+        result.setScore(saved.getScore());
+        result.setMistakeCount(saved.getMistakeCount());
+        result.setQuestionMistakes(mistakesOnQuestion);
+        result.setNextSceneId(story.getNextSceneId(submission.getSceneId()));
+        result.setStatus(ProgressAckDTO.APPLIED);
+        return result;
+    }
+
+    // The idempotency key alone only remembers the last submission, so a retry of an earlier answer
+    // would count its mistake again; the sequence number is what orders pipelined answers
+    private static void requireSequence(AnswerSubmissionDTO submission) {
+        if (submission.getClientSeq() == null || submission.getClientSeq() < 1) {
+            throw new IllegalArgumentException("clientSeq must be a positive number");
+        }
+        if (submission.getIdempotencyKey() != null && submission.getIdempotencyKey().length() > 64) {
+            throw new IllegalArgumentException("idempotencyKey must be at most 64 characters");
+        }
+    }
+
+    // Result for a retried or out-of-order submission: evaluated, but nothing is recorded
+    private static AnswerResultDTO superseded(AnswerKey key, AnswerKey.Evaluation evaluation, Progress stored, String status) {
+        AnswerResultDTO result = new AnswerResultDTO();
+        result.setQuestionId(key.getQuestionId());
+        result.setCorrect(evaluation.isCorrect());
+        result.setPositionResults(evaluation.getPositionResults());
+        result.setPointsEarned(0);
+        result.setScore(stored.getScore());
+        result.setMistakeCount(stored.getMistakeCount());
+        result.setStatus(status);
+        return result;
+    }
+}
@@ -1,12 +1,20 @@
 package JIZAS.BrightMinds.service;
 
+import JIZAS.BrightMinds.dto.AttemptBatchResultDTO;
+import JIZAS.BrightMinds.dto.AttemptPageDTO;
+import JIZAS.BrightMinds.dto.AttemptSubmissionDTO;
 import JIZAS.BrightMinds.dto.GameAttemptDTO;
 import JIZAS.BrightMinds.entity.GameAttempt;
+import JIZAS.BrightMinds.entity.OutboxEvent;
 import JIZAS.BrightMinds.entity.Story;
 import JIZAS.BrightMinds.entity.User;
+import JIZAS.BrightMinds.entity.UserStoryStats;
 import JIZAS.BrightMinds.repository.GameAttemptRepository;
+import JIZAS.BrightMinds.repository.OutboxEventRepository;
 import JIZAS.BrightMinds.repository.StoryRepository;
+import JIZAS.BrightMinds.repository.UserAttemptStatsRepository;
 import JIZAS.BrightMinds.repository.UserRepository;
+import JIZAS.BrightMinds.repository.UserStoryStatsRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -14,15 +22,35 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class GameAttemptService {
 
+    public static final int MAX_HISTORY_PAGE_SIZE = 100;
+    public static final int MAX_BATCH_SIZE = 500;
+    // Clock difference allowed between a device and the server for batched end dates
+    private static final Duration MAX_CLOCK_SKEW = Duration.ofMinutes(5);
+
+    // Open ends of a history range, inside what a Postgres timestamp holds
+    private static final LocalDateTime HISTORY_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime HISTORY_END = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
     @Autowired
     private GameAttemptRepository gameAttemptRepository;
 
@@ -38,42 +66,43 @@ public class GameAttemptService {
     @Autowired
     private BadgeAwardService badgeAwardService;
 
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private StoryContentStore storyContentStore;
+
+    @Autowired
+    private UserStoryStatsRepository userStoryStatsRepository;
+
+    @Autowired
+    private UserAttemptStatsRepository userAttemptStatsRepository;
+
     /**
      * Save a new game attempt
+     * Only the attempt and its outbox event are written here; badges and progress cleanup follow
+     * shortly after in {@link OutboxWorker} (see {@link #applyCompletionEffects})
      */
     public GameAttemptDTO saveGameAttempt(Long userId, Integer storyId, Integer score, 
                                         Integer totalPossibleScore, LocalDateTime startAttemptDate,
                                         LocalDateTime endAttemptDate) {
-        
-        System.out.println("GameAttemptService: Starting to save game attempt");
-        System.out.println("Input parameters: userId=" + userId + ", storyId=" + storyId + ", score=" + score + 
-                          ", totalPossibleScore=" + totalPossibleScore + ", startDate=" + startAttemptDate + 
-                          ", endDate=" + endAttemptDate);
-        
-        // Validate user and story exist
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
-        System.out.println("GameAttemptService: Found user: " + user.getUserId());
-        
-        Story story = storyRepository.findById(storyId)
-                .orElseThrow(() -> new RuntimeException("Story not found with id: " + storyId));
-        System.out.println("GameAttemptService: Found story: " + story.getStoryId());
+        if (userId == null || storyId == null) {
+            throw new IllegalArgumentException("userId and storyId are required");
+        }
 
         // Calculate percentage
         Double percentage = totalPossibleScore > 0 ? (double) score / totalPossibleScore * 100 : 0.0;
-        System.out.println("GameAttemptService: Calculated percentage: " + percentage);
 
         // Calculate completion time
         Integer completionTimeSeconds = null;
         if (startAttemptDate != null && endAttemptDate != null) {
             completionTimeSeconds = (int) java.time.Duration.between(startAttemptDate, endAttemptDate).getSeconds();
-            System.out.println("GameAttemptService: Calculated completion time: " + completionTimeSeconds + " seconds");
         }
 
-        // Create and save the attempt
+        // References only: the foreign keys reject an unknown user or story on insert
         GameAttempt attempt = new GameAttempt();
-        attempt.setUser(user);
-        attempt.setStory(story);
+        attempt.setUser(userRepository.getReferenceById(userId));
+        attempt.setStory(storyRepository.getReferenceById(storyId));
         attempt.setScore(score);
         attempt.setTotalPossibleScore(totalPossibleScore);
         attempt.setPercentage(percentage);
@@ -81,38 +110,159 @@ public class GameAttemptService {
         attempt.setEndAttemptDate(endAttemptDate);
         attempt.setCompletionTimeSeconds(completionTimeSeconds);
 
-        System.out.println("GameAttemptService: Attempting to save to database...");
         GameAttempt savedAttempt = gameAttemptRepository.save(attempt);
-        System.out.println("GameAttemptService: Successfully saved attempt with ID: " + savedAttempt.getAttemptId());
-        
-        // Award badges based on performance
-        System.out.println("GameAttemptService: Checking for badge awards...");
-        badgeAwardService.awardBadgesForGameCompletion(user, story, score, totalPossibleScore, percentage);
-        
-        // Delete the progress after successful game attempt storage to save data
-        System.out.println("GameAttemptService: Deleting progress for user " + userId + " and story " + storyId);
-        progressService.deleteProgressAfterCompletion(userId, storyId);
-        System.out.println("GameAttemptService: Progress deleted successfully");
-        
-        GameAttemptDTO dto = convertToDTO(savedAttempt);
-        System.out.println("GameAttemptService: Converted to DTO: " + dto.getAttemptId());
+        userStoryStatsRepository.recordAttempt(savedAttempt);
+        outboxEventRepository.save(new OutboxEvent(OutboxEvent.GAME_COMPLETED, savedAttempt.getAttemptId()));
+
+        GameAttemptDTO dto = new GameAttemptDTO();
+        dto.setAttemptId(savedAttempt.getAttemptId());
+        dto.setUserId(userId);
+        dto.setStoryId(storyId);
+        // The story was just played, so its content is cached; avoids loading the Story entity
+        dto.setStoryTitle(storyContentStore.getStory(storyId).map(c -> c.getStory().getTitle()).orElse(null));
+        dto.setScore(score);
+        dto.setTotalPossibleScore(totalPossibleScore);
+        dto.setPercentage(percentage);
+        dto.setStartAttemptDate(startAttemptDate);
+        dto.setEndAttemptDate(endAttemptDate);
+        dto.setCompletionTimeSeconds(completionTimeSeconds);
         return dto;
     }
 
     /**
-     * Save a game attempt and automatically delete the associated progress to save data
+     * Side effects of a recorded attempt: badge awards and completing the progress. Called by
+     * {@link OutboxWorker} and safe to repeat: badges are awarded once, and progress written after
+     * completedAt (a new game) is left alone. The event may run well after later attempts were
+     * recorded, so badges are judged against the attempts before this one, not the latest ones.
+     */
+    public void applyCompletionEffects(Long attemptId, LocalDateTime completedAt) {
+        GameAttempt attempt = gameAttemptRepository.findById(attemptId).orElse(null);
+        if (attempt == null) return; // Deleted since; nothing left to do
+        User user = attempt.getUser();
+        Story story = attempt.getStory();
+        badgeAwardService.awardBadgesForAttempts(user, List.of(attemptId));
+        progressService.completeProgress(user.getUserId(), story.getStoryId(), completedAt);
+    }
+
+    /**
+     * Save many completed games at once, e.g. attempts a tablet recorded while offline. Entries that
+     * fail validation are reported by position and skipped; the rest are inserted oldest first as
+     * one JDBC batch. Badges and progress cleanup follow in {@link OutboxWorker}, once per user for
+     * the whole batch (see {@link #applyBatchCompletionEffects}).
+     */
+    public AttemptBatchResultDTO saveGameAttemptBatch(List<AttemptSubmissionDTO> submissions) {
+        if (submissions == null || submissions.isEmpty()) {
+            throw new IllegalArgumentException("At least one attempt is required");
+        }
+        if (submissions.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " attempts per batch");
+        }
+
+        // Every user and story in the batch, looked up once
+        Set<Long> userIds = new HashSet<>();
+        Set<Integer> storyIds = new HashSet<>();
+        for (AttemptSubmissionDTO submission : submissions) {
+            if (submission == null) continue;
+            if (submission.getUserId() != null) userIds.add(submission.getUserId());
+            if (submission.getStoryId() != null) storyIds.add(submission.getStoryId());
+        }
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getUserId, user -> user));
+        Map<Integer, Story> stories = storyRepository.findAllById(storyIds).stream()
+                .collect(Collectors.toMap(Story::getStoryId, story -> story));
+
+        Map<Integer, String> rejected = new TreeMap<>();
+        List<GameAttempt> attempts = new ArrayList<>();
+        LocalDateTime latestEnd = LocalDateTime.now().plus(MAX_CLOCK_SKEW);
+        for (int i = 0; i < submissions.size(); i++) {
+            try {
+                attempts.add(toAttempt(submissions.get(i), users, stories, latestEnd));
+            } catch (IllegalArgumentException | DateTimeException e) {
+                rejected.put(i, e.getMessage());
+            }
+        }
+        if (attempts.isEmpty()) {
+            return new AttemptBatchResultDTO(List.of(), rejected);
+        }
+
+        attempts.sort(Comparator.comparing(GameAttempt::getEndAttemptDate));
+        gameAttemptRepository.insertAll(attempts);
+        userStoryStatsRepository.recordAttempts(attempts);
+
+        Map<Long, List<Long>> attemptIdsByUser = new LinkedHashMap<>();
+        for (GameAttempt attempt : attempts) {
+            attemptIdsByUser.computeIfAbsent(attempt.getUser().getUserId(), id -> new ArrayList<>()).add(attempt.getAttemptId());
+        }
+        for (Map.Entry<Long, List<Long>> entry : attemptIdsByUser.entrySet()) {
+            OutboxEvent event = new OutboxEvent(OutboxEvent.ATTEMPTS_RECORDED, entry.getKey());
+            event.setPayload(entry.getValue().stream().map(String::valueOf).collect(Collectors.joining(",")));
+            outboxEventRepository.save(event);
+        }
+        List<GameAttemptDTO> saved = attempts.stream().map(this::convertToDTO).collect(Collectors.toList());
+        return new AttemptBatchResultDTO(saved, rejected);
+    }
+
+    private static GameAttempt toAttempt(AttemptSubmissionDTO submission, Map<Long, User> users, Map<Integer, Story> stories,
+                                         LocalDateTime latestEnd) {
+        if (submission == null || submission.getUserId() == null || submission.getStoryId() == null
+                || submission.getScore() == null || submission.getTotalPossibleScore() == null
+                || submission.getStartAttemptDate() == null || submission.getEndAttemptDate() == null) {
+            throw new IllegalArgumentException("userId, storyId, score, totalPossibleScore, startAttemptDate and endAttemptDate are required");
+        }
+        User user = users.get(submission.getUserId());
+        if (user == null) throw new IllegalArgumentException("User not found with id: " + submission.getUserId());
+        Story story = stories.get(submission.getStoryId());
+        if (story == null) throw new IllegalArgumentException("Story not found with id: " + submission.getStoryId());
+        if (submission.getScore() < 0 || submission.getTotalPossibleScore() < 0) {
+            throw new IllegalArgumentException("Scores cannot be negative");
+        }
+        LocalDateTime start = parseDate(submission.getStartAttemptDate());
+        LocalDateTime end = parseDate(submission.getEndAttemptDate());
+        if (end.isBefore(start)) throw new IllegalArgumentException("endAttemptDate is before startAttemptDate");
+        if (end.isAfter(latestEnd)) throw new IllegalArgumentException("endAttemptDate is in the future");
+
+        int score = submission.getScore();
+        int totalPossibleScore = submission.getTotalPossibleScore();
+        GameAttempt attempt = new GameAttempt(user, story, score, totalPossibleScore,
+                totalPossibleScore > 0 ? (double) score / totalPossibleScore * 100 : 0.0, start, end);
+        attempt.setCompletionTimeSeconds((int) Duration.between(start, end).getSeconds());
+        return attempt;
+    }
+
+    // ISO date, with or without a trailing Z, like the single-attempt endpoints accept
+    private static LocalDateTime parseDate(String value) {
+        return LocalDateTime.parse(value.endsWith("Z") ? value.substring(0, value.length() - 1) : value);
+    }
+
+    /**
+     * Side effects of a batch of one user's attempts, see {@link #saveGameAttemptBatch}: badges are
+     * evaluated once over the batch, and the progress of each story in it is completed. Like
+     * {@link #applyCompletionEffects}, the cutoff is when the server recorded the batch, never a
+     * device-supplied date.
+     */
+    public void applyBatchCompletionEffects(Long userId, String attemptIds, LocalDateTime completedAt) {
+        Set<Long> ids = new HashSet<>();
+        for (String id : attemptIds.split(",")) {
+            if (!id.isBlank()) ids.add(Long.parseLong(id.trim()));
+        }
+        List<GameAttempt> attempts = gameAttemptRepository.findAllById(ids);
+        if (attempts.isEmpty()) return; // Deleted since; nothing left to do
+
+        badgeAwardService.awardBadgesForAttempts(attempts.get(0).getUser(), ids);
+
+        attempts.stream().map(attempt -> attempt.getStory().getStoryId()).distinct()
+                .forEach(storyId -> progressService.completeProgress(userId, storyId, completedAt));
+    }
+
+    /**
+     * Save a game attempt and automatically complete the associated progress
      * This method is specifically designed for when a user completes a game
      */
     public GameAttemptDTO saveGameAttemptAndCleanupProgress(Long userId, Integer storyId, Integer score, 
                                                            Integer totalPossibleScore, LocalDateTime startAttemptDate,
                                                            LocalDateTime endAttemptDate) {
-        System.out.println("GameAttemptService: Saving game attempt and cleaning up progress");
-        
-        // Save the game attempt (this will also delete the progress)
-        GameAttemptDTO attempt = saveGameAttempt(userId, storyId, score, totalPossibleScore, startAttemptDate, endAttemptDate);
-        
-        System.out.println("GameAttemptService: Game attempt saved and progress cleaned up successfully");
-        return attempt;
+        // Save the game attempt (its outbox event completes the progress)
+        return saveGameAttempt(userId, storyId, score, totalPossibleScore, startAttemptDate, endAttemptDate);
     }
 
     /**
@@ -138,6 +288,59 @@ public class GameAttemptService {
         return attempts.map(this::convertToDTO);
     }
 
+    /**
+     * Get one page of a user's match history, newest first, optionally for one story and/or
+     * between two end dates. The cursor is the previous page's nextCursor (null for the first page).
+     */
+    @Transactional(readOnly = true)
+    public AttemptPageDTO getAttemptHistory(Long userId, Integer storyId, LocalDateTime from, LocalDateTime to,
+                                            String cursor, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+        LocalDateTime beforeDate = to != null ? to : HISTORY_END;
+        long beforeId = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] position = decodeCursor(cursor);
+            LocalDateTime cursorDate = LocalDateTime.parse(position[0]);
+            // A cursor past the end of the range changes nothing
+            if (!cursorDate.isAfter(beforeDate)) {
+                beforeDate = cursorDate;
+                beforeId = Long.parseLong(position[1]);
+            }
+        }
+        LocalDateTime after = from != null ? from : HISTORY_START;
+
+        // One extra row tells whether another page exists
+        PageRequest page = PageRequest.of(0, size + 1);
+        List<GameAttempt> rows = storyId == null
+                ? gameAttemptRepository.findHistoryPage(userId, after, beforeDate, beforeId, page)
+                : gameAttemptRepository.findStoryHistoryPage(userId, storyId, after, beforeDate, beforeId, page);
+
+        boolean hasMore = rows.size() > size;
+        List<GameAttemptDTO> items = rows.stream().limit(size).map(this::convertToDTO).collect(Collectors.toList());
+        GameAttemptDTO last = hasMore ? items.get(items.size() - 1) : null;
+        return new AttemptPageDTO(items, last != null ? encodeCursor(last.getEndAttemptDate(), last.getAttemptId()) : null);
+    }
+
+    // "endAttemptDate,attemptId", base64url so clients treat it as opaque
+    private static String encodeCursor(LocalDateTime endAttemptDate, Long attemptId) {
+        String position = endAttemptDate + "," + attemptId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(",");
+            if (position.length == 2) {
+                LocalDateTime.parse(position[0]);
+                Long.parseLong(position[1]);
+                return position;
+            }
+        } catch (IllegalArgumentException | DateTimeException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Invalid cursor");
+    }
+
     /**
      * Get attempts for a specific story by a user
      */
@@ -152,9 +355,9 @@ public class GameAttemptService {
      * Get the best attempt for a specific story by a user
      */
     public Optional<GameAttemptDTO> getBestAttemptForStory(Long userId, Integer storyId) {
-        List<GameAttempt> attempts = gameAttemptRepository.findBestAttemptByUserAndStory(userId, storyId);
-        return attempts.stream()
-                .findFirst()
+        return userStoryStatsRepository.findByUserAndStory(userId, storyId)
+                .map(UserStoryStats::getBestAttemptId)
+                .flatMap(gameAttemptRepository::findById)
                 .map(this::convertToDTO);
     }
 
@@ -162,9 +365,9 @@ public class GameAttemptService {
      * Get the latest attempt for a specific story by a user
      */
     public Optional<GameAttemptDTO> getLatestAttemptForStory(Long userId, Integer storyId) {
-        List<GameAttempt> attempts = gameAttemptRepository.findLatestAttemptByUserAndStory(userId, storyId);
-        return attempts.stream()
-                .findFirst()
+        return userStoryStatsRepository.findByUserAndStory(userId, storyId)
+                .map(UserStoryStats::getLatestAttemptId)
+                .flatMap(gameAttemptRepository::findById)
                 .map(this::convertToDTO);
     }
 
@@ -172,20 +375,18 @@ public class GameAttemptService {
      * Get attempt statistics for a user
      */
     public AttemptStatisticsDTO getUserStatistics(Long userId) {
-        long totalAttempts = gameAttemptRepository.countByUserUserId(userId);
-        Double averageScore = gameAttemptRepository.findAverageScoreByUser(userId);
-        
-        return new AttemptStatisticsDTO(totalAttempts, averageScore != null ? averageScore : 0.0);
+        return userAttemptStatsRepository.findById(userId)
+                .map(stats -> new AttemptStatisticsDTO(stats.getTotalCompletions(), stats.getAverageScore()))
+                .orElseGet(() -> new AttemptStatisticsDTO(0, 0.0));
     }
 
     /**
      * Get attempt statistics for a user for a specific story
      */
     public AttemptStatisticsDTO getUserStatisticsForStory(Long userId, Integer storyId) {
-        long totalAttempts = gameAttemptRepository.countByUserUserIdAndStoryStoryId(userId, storyId);
-        Double averageScore = gameAttemptRepository.findAverageScoreByUserAndStory(userId, storyId);
-        
-        return new AttemptStatisticsDTO(totalAttempts, averageScore != null ? averageScore : 0.0);
+        return userStoryStatsRepository.findByUserAndStory(userId, storyId)
+                .map(stats -> new AttemptStatisticsDTO(stats.getAttemptCount(), stats.getAverageScore()))
+                .orElseGet(() -> new AttemptStatisticsDTO(0, 0.0));
     }
 
     /**
@@ -43,8 +43,9 @@ public class GameCompletionHelper {
      * @return The recorded game attempt
      */
     public GameAttemptDTO recordGameCompletion(Long userId, Integer storyId, LocalDateTime startTime, LocalDateTime endTime) {
-        // Get the user's progress for this story
-        Progress progress = progressRepository.findByUserAndStory(userId, storyId)
+        // Get the user's progress for this story, including saves still in the write-behind buffer
+        progressService.flushBuffered(userId, storyId);
+        Progress progress = progressRepository.findActiveByUserAndStory(userId, storyId)
                 .orElseThrow(() -> new RuntimeException("Progress not found for user " + userId + " and story " + storyId));
         
         int totalScore = progress.getScore() != null ? progress.getScore() : 0;
@@ -65,9 +66,6 @@ public class GameCompletionHelper {
                 endTime
         );
 
-        // Delete the progress after successful completion recording
-        progressService.deleteProgressAfterCompletion(userId, storyId);
-
         return attempt;
     }
 
@@ -95,9 +93,6 @@ public class GameCompletionHelper {
                 endTime
         );
 
-        // Delete the progress after successful completion recording
-        progressService.deleteProgressAfterCompletion(userId, storyId);
-
         return attempt;
     }
 }
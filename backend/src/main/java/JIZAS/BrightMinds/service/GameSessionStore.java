@@ -0,0 +1,145 @@
+package JIZAS.BrightMinds.service;
+
+import JIZAS.BrightMinds.entity.Progress;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded, in-memory gameplay sessions. A session is opened once per played story and holds what
+ * every gameplay call would otherwise look up again: the user id, the story content snapshot with
+ * its scene index, and the latest stored progress.
+ *
+ * There is at most one session per user and story; opening another replaces it. Sessions are
+ * dropped after idle-timeout-ms without use, on completion or restart, and when the store is full
+ * (least recently used first). They live in this instance only: a client whose session is gone
+ * gets a 404 and opens a new one.
+ */
+@Service
+public class GameSessionStore {
+
+    private final ConcurrentHashMap<String, GameSession> sessions = new ConcurrentHashMap<>();
+    // "userId:storyId" -> session id
+    private final ConcurrentHashMap<String, String> byUserStory = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+
+    @Value("${brightminds.game-session.max-sessions:10000}")
+    private int maxSessions;
+
+    @Value("${brightminds.game-session.idle-timeout-ms:1800000}")
+    private long idleTimeoutMs;
+
+    // Only open adds sessions, so holding the store's lock across the size check, eviction and put keeps the cap
+    synchronized GameSession open(Long userId, String username, StoryContentStore.StoryContent story, Progress progress) {
+        if (sessions.size() >= maxSessions) {
+            evictIdle();
+            if (sessions.size() >= maxSessions) evictLeastRecentlyUsed();
+        }
+        byte[] bytes = new byte[18];
+        random.nextBytes(bytes);
+        GameSession session = new GameSession(Base64.getUrlEncoder().withoutPadding().encodeToString(bytes),
+                userId, username, story, progress);
+        sessions.put(session.id, session);
+        String previous = byUserStory.put(key(userId, story.getStoryId()), session.id);
+        if (previous != null) sessions.remove(previous);
+        return session;
+    }
+
+    /** The session, when it exists, has not idled out and belongs to the given user. */
+    public Optional<GameSession> get(String sessionId, String username) {
+        if (sessionId == null) return Optional.empty();
+        GameSession session = sessions.get(sessionId);
+        if (session == null || !session.username.equals(username)) return Optional.empty();
+        if (System.currentTimeMillis() - session.lastTouched > idleTimeoutMs) {
+            remove(session);
+            return Optional.empty();
+        }
+        session.lastTouched = System.currentTimeMillis();
+        return Optional.of(session);
+    }
+
+    public void close(String sessionId) {
+        GameSession session = sessions.get(sessionId);
+        if (session != null) remove(session);
+    }
+
+    /** Drops the user's session for the story, if any; called when its progress is completed or reset. */
+    public void evict(Long userId, Integer storyId) {
+        String sessionId = byUserStory.remove(key(userId, storyId));
+        if (sessionId != null) sessions.remove(sessionId);
+    }
+
+    public long getIdleTimeoutMs() { return idleTimeoutMs; }
+
+    @Scheduled(fixedDelayString = "${brightminds.game-session.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMs;
+        for (GameSession session : sessions.values()) {
+            if (session.lastTouched < cutoff) remove(session);
+        }
+    }
+
+    private void evictLeastRecentlyUsed() {
+        GameSession oldest = null;
+        for (GameSession session : sessions.values()) {
+            if (oldest == null || session.lastTouched < oldest.lastTouched) oldest = session;
+        }
+        if (oldest != null) remove(oldest);
+    }
+
+    private void remove(GameSession session) {
+        sessions.remove(session.id, session);
+        byUserStory.remove(key(session.userId, session.story.getStoryId()), session.id);
+    }
+
+    private static String key(Long userId, Integer storyId) {
+        return userId + ":" + storyId;
+    }
+
+    /**
+     * One player's session for one story. The story snapshot is the one the session was opened
+     * with, so a reseed mid-game does not shift scenes under the player. The progress is a
+     * detached copy of the stored row, replaced whenever a write returns a newer state version.
+     */
+    public static final class GameSession {
+        private final String id;
+        private final Long userId;
+        private final String username;
+        private final StoryContentStore.StoryContent story;
+        private Progress progress;
+        private volatile long lastTouched = System.currentTimeMillis();
+
+        GameSession(String id, Long userId, String username, StoryContentStore.StoryContent story, Progress progress) {
+            this.id = id;
+            this.userId = userId;
+            this.username = username;
+            this.story = story;
+            this.progress = progress;
+        }
+
+        public String getId() { return id; }
+        public Long getUserId() { return userId; }
+        public Integer getStoryId() { return story.getStoryId(); }
+        public StoryContentStore.StoryContent getStory() { return story; }
+        public SceneIndex getSceneIndex() { return story.getSceneIndex(); }
+
+        /** Latest known progress, or empty when the user has none for this story. Do not modify it. */
+        public synchronized Optional<Progress> getProgress() {
+            return Optional.ofNullable(progress);
+        }
+
+        // Responses can arrive out of order; keep the copy with the highest state version
+        synchronized void update(Progress stored) {
+            if (stored == null || !stored.isActive()) return;
+            if (progress == null || progress.getStateVersion() == null || stored.getStateVersion() == null
+                    || stored.getStateVersion() >= progress.getStateVersion()) {
+                progress = stored;
+            }
+        }
+    }
+}
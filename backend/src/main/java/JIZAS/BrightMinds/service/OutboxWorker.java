@@ -0,0 +1,157 @@
+package JIZAS.BrightMinds.service;
+
+import JIZAS.BrightMinds.entity.OutboxEvent;
+import JIZAS.BrightMinds.repository.OutboxEventRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Drains {@link OutboxEvent} rows: the badge evaluation and progress cleanup of a completed game
+ * run here instead of in the /complete-game request.
+ *
+ * Each run handles at most batch-size events, oldest first. Every event is claimed with FOR UPDATE
+ * SKIP LOCKED and handled in its own transaction, which also deletes the row, so the work and its
+ * removal commit together and several instances never handle the same event at once. A failed
+ * event is retried after an exponential backoff (retry-delay-ms doubled per attempt, capped at
+ * max-retry-delay-ms) and given up after max-attempts. Delivery is at least once: handlers must be
+ * safe to run again.
+ */
+@Component
+public class OutboxWorker {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private GameAttemptService gameAttemptService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${brightminds.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${brightminds.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${brightminds.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${brightminds.outbox.retry-delay-ms:5000}")
+    private long retryDelayMs;
+
+    @Value("${brightminds.outbox.max-retry-delay-ms:600000}")
+    private long maxRetryDelayMs;
+
+    private TransactionTemplate transactionTemplate;
+
+    // Run statistics, see stats()
+    private volatile long processed;
+    private volatile long failures;
+    private volatile long lastRunProcessed;
+    private volatile LocalDateTime lastRunAt;
+    private volatile String lastError;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Scheduled(initialDelayString = "${brightminds.outbox.initial-delay-ms:10000}",
+               fixedDelayString = "${brightminds.outbox.poll-interval-ms:1000}")
+    public void drain() {
+        if (!enabled) return;
+        int done = 0;
+        while (done < Math.max(batchSize, 1)) {
+            // Id of the claimed event, kept for the failure bookkeeping after a rollback
+            Long[] claimed = new Long[1];
+            try {
+                Boolean found = transactionTemplate.execute(status -> {
+                    OutboxEvent event = outboxEventRepository.claimNext(LocalDateTime.now()).orElse(null);
+                    if (event == null) return false;
+                    claimed[0] = event.getEventId();
+                    handle(event);
+                    outboxEventRepository.delete(event);
+                    return true;
+                });
+                if (!Boolean.TRUE.equals(found)) break;
+                done++;
+                processed++;
+            } catch (RuntimeException e) {
+                if (claimed[0] == null) {
+                    // Could not even claim; the database is likely unavailable, try next run
+                    System.err.println("OutboxWorker: Could not claim events: " + e.getMessage());
+                    lastError = e.getMessage();
+                    break;
+                }
+                recordFailure(claimed[0], e);
+                done++;
+            }
+        }
+        lastRunProcessed = done;
+        lastRunAt = LocalDateTime.now();
+    }
+
+    private void handle(OutboxEvent event) {
+        switch (event.getEventType()) {
+            case OutboxEvent.GAME_COMPLETED:
+                gameAttemptService.applyCompletionEffects(event.getAggregateId(), event.getCreatedAt());
+                break;
+            case OutboxEvent.ATTEMPTS_RECORDED:
+                gameAttemptService.applyBatchCompletionEffects(event.getAggregateId(), event.getPayload(), event.getCreatedAt());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown outbox event type: " + event.getEventType());
+        }
+    }
+
+    private void recordFailure(Long eventId, RuntimeException error) {
+        failures++;
+        String message = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+        lastError = message;
+        try {
+            transactionTemplate.executeWithoutResult(status -> outboxEventRepository.findById(eventId).ifPresent(event -> {
+                int attempts = event.getAttempts() + 1;
+                event.setAttempts(attempts);
+                event.setLastError(message.length() > 1000 ? message.substring(0, 1000) : message);
+                if (attempts >= maxAttempts) {
+                    event.setDeadAt(LocalDateTime.now());
+                    System.err.println("OutboxWorker: Giving up on event " + eventId + " after " + attempts + " attempts: " + message);
+                } else {
+                    long delay = Math.min(retryDelayMs << Math.min(attempts - 1, 20), maxRetryDelayMs);
+                    event.setAvailableAt(LocalDateTime.now().plusNanos(delay * 1_000_000));
+                    System.err.println("OutboxWorker: Event " + eventId + " failed (attempt " + attempts + "), retrying in " + delay + " ms: " + message);
+                }
+                outboxEventRepository.save(event);
+            }));
+        } catch (RuntimeException e) {
+            // The event stays due and is claimed again next run
+            System.err.println("OutboxWorker: Could not record failure of event " + eventId + ": " + e.getMessage());
+        }
+    }
+
+    /** Counters since startup plus the current backlog. */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("pending", outboxEventRepository.countPending());
+        stats.put("dead", outboxEventRepository.countByDeadAtIsNotNull());
+        stats.put("processed", processed);
+        stats.put("failures", failures);
+        stats.put("lastRunProcessed", lastRunProcessed);
+        stats.put("lastRunAt", lastRunAt);
+        stats.put("lastError", lastError);
+        return stats;
+    }
+}
@@ -0,0 +1,531 @@
+package JIZAS.BrightMinds.service;
+
+import JIZAS.BrightMinds.entity.Progress;
+import JIZAS.BrightMinds.entity.ProgressState;
+import JIZAS.BrightMinds.entity.Story;
+import JIZAS.BrightMinds.entity.User;
+import JIZAS.BrightMinds.repository.ProgressRepository;
+import JIZAS.BrightMinds.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind buffer for per-(user, story) progress.
+ *
+ * Saves are applied to an in-memory copy of the row and appended to a local journal (fsynced before
+ * the save is acknowledged); dirty copies are written to Postgres in batches every flush interval
+ * and on shutdown. Reads of a buffered (user, story) are answered from memory.
+ *
+ * Code that reads or writes a progress row directly calls {@link #flushAndEvict} first, so it sees
+ * every acknowledged save and the buffer never overwrites it later; deletes call {@link #discard}.
+ *
+ * Journal records carry a global sequence number; on startup the newest record per (user, story)
+ * wins, so state records become buffered again and "evicted" records (written once a copy is
+ * flushed or discarded) mean Postgres is current. The journal is rewritten with only the dirty
+ * copies once it grows past a few megabytes.
+ *
+ * The buffer is per process: enable it only when a single backend instance serves gameplay.
+ */
+@Service
+public class ProgressBuffer {
+
+    private static final long COMPACT_THRESHOLD_BYTES = 4L * 1024 * 1024;
+    private static final long IDLE_EVICT_MS = 10 * 60 * 1000L;
+
+    @Autowired
+    private ProgressRepository progressRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${brightminds.progress.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${brightminds.progress.write-behind.batch-size:100}")
+    private int batchSize;
+
+    @Value("${brightminds.progress.write-behind.journal-dir:./progress-journal}")
+    private String journalDir;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    // Held by flushes, flushAndEvict and discard so a row is never written after it was evicted
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Object journalLock = new Object();
+    private FileChannel journal;
+    private TransactionTemplate transactionTemplate;
+
+    public boolean isEnabled() { return enabled; }
+
+    @PostConstruct
+    void recover() {
+        if (!enabled) return;
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        Path path = journalPath();
+        Map<String, JournalRecord> latest = new HashMap<>();
+        if (Files.exists(path)) {
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) continue;
+                    JournalRecord record;
+                    try {
+                        record = objectMapper.readValue(line, JournalRecord.class);
+                    } catch (IOException e) {
+                        // A crash mid-append leaves a torn last line; that save was never acknowledged
+                        continue;
+                    }
+                    latest.merge(key(record.userId, record.storyId), record, (a, b) -> b.seq > a.seq ? b : a);
+                    sequence.accumulateAndGet(record.seq, Math::max);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read progress journal " + path, e);
+            }
+        }
+        for (JournalRecord record : latest.values()) {
+            if (record.evicted) continue;
+            Entry entry = new Entry(record.toProgress());
+            entry.dirty = true;
+            entry.seq = record.seq;
+            entries.put(key(record.userId, record.storyId), entry);
+        }
+        try {
+            Files.createDirectories(path.getParent());
+            journal = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open progress journal " + path, e);
+        }
+        System.out.println("ProgressBuffer: Recovered " + entries.size() + " unflushed progress entries from " + path);
+    }
+
+    /**
+     * Applies a save to the buffered copy, loading it from Postgres first if needed. Returns a
+     * detached snapshot after the save is journaled, or empty when there is no row yet and the
+     * user does not exist.
+     */
+    public Optional<Progress> apply(Long userId, Integer storyId, Consumer<Progress> mutation) {
+        String key = key(userId, storyId);
+        while (true) {
+            Entry entry = entries.computeIfAbsent(key, k -> load(userId, storyId));
+            if (entry == null) return Optional.empty();
+            JournalRecord record;
+            Progress snapshot;
+            synchronized (entry) {
+                if (entry.removed) continue;
+                mutation.accept(entry.state);
+                entry.dirty = true;
+                entry.seq = sequence.incrementAndGet();
+                entry.lastTouched = System.currentTimeMillis();
+                record = JournalRecord.of(entry.seq, entry.state);
+                snapshot = copyOf(entry.state);
+            }
+            append(List.of(record));
+            return Optional.of(snapshot);
+        }
+    }
+
+    /** Detached copy of the buffered progress, if this (user, story) is buffered. */
+    public Optional<Progress> peek(Long userId, Integer storyId) {
+        if (!enabled) return Optional.empty();
+        Entry entry = entries.get(key(userId, storyId));
+        if (entry == null) return Optional.empty();
+        synchronized (entry) {
+            return entry.removed ? Optional.empty() : Optional.of(copyOf(entry.state));
+        }
+    }
+
+    /** Writes the buffered copy (if dirty) in its own transaction and stops buffering it. */
+    public void flushAndEvict(Long userId, Integer storyId) {
+        if (!enabled) return;
+        flushLock.lock();
+        try {
+            String key = key(userId, storyId);
+            Entry entry;
+            while ((entry = entries.get(key)) != null) {
+                Progress snapshot;
+                long seq;
+                boolean dirty;
+                synchronized (entry) {
+                    snapshot = copyOf(entry.state);
+                    seq = entry.seq;
+                    dirty = entry.dirty;
+                }
+                if (dirty) {
+                    transactionTemplate.executeWithoutResult(status -> write(snapshot, null));
+                }
+                JournalRecord evicted;
+                synchronized (entry) {
+                    // A save that raced the write goes around again
+                    if (entry.seq != seq) continue;
+                    entry.removed = true;
+                    entries.remove(key, entry);
+                    evicted = JournalRecord.evicted(sequence.incrementAndGet(), userId, storyId);
+                }
+                append(List.of(evicted));
+                return;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /** Variant of {@link #flushAndEvict(Long, Integer)} for callers that only know the row id. */
+    public void flushAndEvict(Long progressId) {
+        if (!enabled || progressId == null) return;
+        for (Entry entry : entries.values()) {
+            Progress state = entry.state;
+            if (progressId.equals(state.getProgressId())) {
+                flushAndEvict(state.getUser().getUserId(), state.getStory().getStoryId());
+                return;
+            }
+        }
+    }
+
+    /** Drops the buffered copy without writing it; used right before the row is deleted or reset. */
+    public void discard(Long userId, Integer storyId) {
+        if (!enabled) return;
+        flushLock.lock();
+        try {
+            Entry entry = entries.remove(key(userId, storyId));
+            if (entry == null) return;
+            JournalRecord evicted;
+            synchronized (entry) {
+                entry.removed = true;
+                evicted = JournalRecord.evicted(sequence.incrementAndGet(), userId, storyId);
+            }
+            append(List.of(evicted));
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${brightminds.progress.write-behind.flush-interval-ms:2000}")
+    public void flushDirty() {
+        if (!enabled) return;
+        flushLock.lock();
+        try {
+            List<Entry> dirty = entries.values().stream().filter(e -> e.dirty).collect(Collectors.toList());
+            for (int from = 0; from < dirty.size(); from += batchSize) {
+                flushBatch(dirty.subList(from, Math.min(dirty.size(), from + batchSize)));
+            }
+            evictIdle();
+            compactIfLarge();
+        } catch (RuntimeException e) {
+            // Entries stay dirty and journaled; the next run retries them
+            System.err.println("ProgressBuffer: Error flushing progress: " + e.getMessage());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (!enabled) return;
+        flushDirty();
+        long left = entries.values().stream().filter(e -> e.dirty).count();
+        System.out.println("ProgressBuffer: Flushed on shutdown, " + left + " entries left in the journal");
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.err.println("ProgressBuffer: Error closing journal: " + e.getMessage());
+        }
+    }
+
+    private void flushBatch(List<Entry> batch) {
+        List<Progress> snapshots = new ArrayList<>(batch.size());
+        long[] seqs = new long[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            Entry entry = batch.get(i);
+            synchronized (entry) {
+                snapshots.add(copyOf(entry.state));
+                seqs[i] = entry.seq;
+            }
+        }
+
+        Long[] ids = new Long[batch.size()];
+        transactionTemplate.executeWithoutResult(status -> {
+            // One query for every row already known by id, instead of one lookup per entry
+            Map<Long, Progress> existing = progressRepository.findAllById(snapshots.stream()
+                            .map(Progress::getProgressId).filter(id -> id != null).collect(Collectors.toList()))
+                    .stream().collect(Collectors.toMap(Progress::getProgressId, Function.identity()));
+            for (int i = 0; i < snapshots.size(); i++) {
+                ids[i] = write(snapshots.get(i), existing);
+            }
+        });
+
+        List<JournalRecord> flushed = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            Entry entry = batch.get(i);
+            synchronized (entry) {
+                if (entry.state.getProgressId() == null) entry.state.setProgressId(ids[i]);
+                if (entry.seq == seqs[i] && !entry.removed) {
+                    entry.dirty = false;
+                    flushed.add(JournalRecord.evicted(sequence.incrementAndGet(),
+                            entry.state.getUser().getUserId(), entry.state.getStory().getStoryId()));
+                }
+            }
+        }
+        append(flushed);
+    }
+
+    // Must run inside a transaction; returns the row id
+    private Long write(Progress snapshot, Map<Long, Progress> existing) {
+        Progress target = snapshot.getProgressId() != null && existing != null ? existing.get(snapshot.getProgressId()) : null;
+        if (target == null) {
+            target = progressRepository.findByUserAndStory(snapshot.getUser().getUserId(), snapshot.getStory().getStoryId())
+                    .orElseGet(() -> {
+                        Progress created = new Progress();
+                        created.setUser(userRepository.getReferenceById(snapshot.getUser().getUserId()));
+                        Story story = new Story();
+                        story.setStoryId(snapshot.getStory().getStoryId());
+                        created.setStory(story);
+                        return created;
+                    });
+        }
+        target.setCurrentScene(snapshot.getCurrentScene());
+        target.setScore(snapshot.getScore());
+        target.setLastAccessed(snapshot.getLastAccessed());
+        target.setGameStartTime(snapshot.getGameStartTime());
+        target.setMistakeCount(snapshot.getMistakeCount());
+        target.setState(snapshot.getState());
+        target.setLastClientSeq(snapshot.getLastClientSeq());
+        target.setLastIdempotencyKey(snapshot.getLastIdempotencyKey());
+        target.setStatus(snapshot.getStatus());
+        return progressRepository.save(target).getProgressId();
+    }
+
+    private Entry load(Long userId, Integer storyId) {
+        Optional<Progress> row = progressRepository.findByUserAndStory(userId, storyId);
+        if (row.isPresent()) {
+            return new Entry(copyOf(row.get()));
+        }
+        if (!userRepository.existsById(userId)) return null;
+        Progress fresh = new Progress();
+        fresh.setUser(userStub(userId));
+        fresh.setStory(storyStub(storyId));
+        fresh.setScore(0);
+        return new Entry(fresh);
+    }
+
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - IDLE_EVICT_MS;
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            Entry entry = e.getValue();
+            synchronized (entry) {
+                if (!entry.dirty && entry.lastTouched < cutoff) {
+                    entry.removed = true;
+                    entries.remove(e.getKey(), entry);
+                }
+            }
+        }
+    }
+
+    // Rewrites the journal with just the dirty entries; appends wait on the journal lock meanwhile
+    private void compactIfLarge() {
+        synchronized (journalLock) {
+            try {
+                if (journal.size() < COMPACT_THRESHOLD_BYTES) return;
+                Path path = journalPath();
+                Path tmp = Files.createTempFile(path.getParent(), ".progress-", ".journal");
+                try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                    for (Entry entry : entries.values()) {
+                        JournalRecord record;
+                        synchronized (entry) {
+                            if (!entry.dirty || entry.removed) continue;
+                            record = JournalRecord.of(entry.seq, entry.state);
+                        }
+                        out.write(ByteBuffer.wrap(line(record)));
+                    }
+                    out.force(true);
+                }
+                journal.close();
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                journal = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to compact progress journal", e);
+            }
+        }
+    }
+
+    private void append(List<JournalRecord> records) {
+        if (records.isEmpty()) return;
+        synchronized (journalLock) {
+            try {
+                for (JournalRecord record : records) {
+                    ByteBuffer buffer = ByteBuffer.wrap(line(record));
+                    while (buffer.hasRemaining()) journal.write(buffer);
+                }
+                journal.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to append to progress journal", e);
+            }
+        }
+    }
+
+    private byte[] line(JournalRecord record) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(record);
+        byte[] line = new byte[json.length + 1];
+        System.arraycopy(json, 0, line, 0, json.length);
+        line[json.length] = '\n';
+        return line;
+    }
+
+    private Path journalPath() {
+        return Paths.get(journalDir).toAbsolutePath().normalize().resolve("progress.journal");
+    }
+
+    private static String key(Long userId, Integer storyId) {
+        return userId + ":" + storyId;
+    }
+
+    private static User userStub(Long userId) {
+        User user = new User();
+        user.setUserId(userId);
+        return user;
+    }
+
+    private static Story storyStub(Integer storyId) {
+        Story story = new Story();
+        story.setStoryId(storyId);
+        return story;
+    }
+
+    // Detached copy with id-only user and story, safe to hand out and to read outside a session
+    static Progress copyOf(Progress src) {
+        Progress p = new Progress();
+        p.setProgressId(src.getProgressId());
+        p.setUser(userStub(src.getUser().getUserId()));
+        p.setStory(storyStub(src.getStory().getStoryId()));
+        p.setCurrentScene(src.getCurrentScene());
+        p.setScore(src.getScore());
+        p.setLastAccessed(src.getLastAccessed());
+        p.setGameStartTime(src.getGameStartTime());
+        p.setMistakeCount(src.getMistakeCount());
+        // ProgressState is immutable, so the copy can share it
+        p.setState(src.getState());
+        // The session's conditional write compares against this
+        p.setStateVersion(src.getStateVersion());
+        p.setLastClientSeq(src.getLastClientSeq());
+        p.setLastIdempotencyKey(src.getLastIdempotencyKey());
+        p.setStatus(src.getStatus());
+        return p;
+    }
+
+    private static final class Entry {
+        final Progress state;
+        boolean dirty;
+        boolean removed;
+        long seq;
+        long lastTouched = System.currentTimeMillis();
+
+        Entry(Progress state) {
+            this.state = state;
+        }
+    }
+
+    /** One journal line: the full progress state, or an eviction marker when evicted is true. */
+    static final class JournalRecord {
+        public long seq;
+        public Long userId;
+        public Integer storyId;
+        public boolean evicted;
+        public Long progressId;
+        public String currentScene;
+        public Integer score;
+        public LocalDateTime lastAccessed;
+        public LocalDateTime gameStartTime;
+        public Integer mistakeCount;
+        // progress_state encoding; journals written before it carry the three maps instead
+        public String state;
+        public Map<String, Object> answerStates;
+        public Map<String, Object> perQuestionState;
+        public Map<String, Object> questionMistakes;
+        public Long lastClientSeq;
+        public String lastIdempotencyKey;
+        public Progress.Status status;
+
+        static JournalRecord of(long seq, Progress p) {
+            JournalRecord r = new JournalRecord();
+            r.seq = seq;
+            r.userId = p.getUser().getUserId();
+            r.storyId = p.getStory().getStoryId();
+            r.progressId = p.getProgressId();
+            r.currentScene = p.getCurrentScene();
+            r.score = p.getScore();
+            r.lastAccessed = p.getLastAccessed();
+            r.gameStartTime = p.getGameStartTime();
+            r.mistakeCount = p.getMistakeCount();
+            r.state = p.getState().toJson();
+            r.lastClientSeq = p.getLastClientSeq();
+            r.lastIdempotencyKey = p.getLastIdempotencyKey();
+            r.status = p.getStatus();
+            return r;
+        }
+
+        static JournalRecord evicted(long seq, Long userId, Integer storyId) {
+            JournalRecord r = new JournalRecord();
+            r.seq = seq;
+            r.userId = userId;
+            r.storyId = storyId;
+            r.evicted = true;
+            return r;
+        }
+
+        Progress toProgress() {
+            Progress p = new Progress();
+            p.setProgressId(progressId);
+            p.setUser(userStub(userId));
+            p.setStory(storyStub(storyId));
+            p.setCurrentScene(currentScene);
+            p.setScore(score);
+            p.setLastAccessed(lastAccessed);
+            p.setGameStartTime(gameStartTime);
+            p.setMistakeCount(mistakeCount);
+            p.setState(ProgressState.read(state, answerStates, perQuestionState, questionMistakes));
+            p.setLastClientSeq(lastClientSeq);
+            p.setLastIdempotencyKey(lastIdempotencyKey);
+            p.setStatus(status);
+            return p;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package JIZAS.BrightMinds.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Removes progress rows nobody has touched for max-age-days, oldest first by last_accessed.
+ *
+ * Each run walks the idx_progress_last_accessed index in keyset batches of batch-size rows, each
+ * batch one DELETE ... RETURNING in its own statement. Rows a save is writing right now are
+ * locked and skipped (FOR UPDATE SKIP LOCKED); the lock re-checks last_accessed, so a row saved
+ * since the scan is kept. A run stops after max-batches, or early when a batch takes longer than
+ * batch-time-budget-ms, and the next run continues. In archive mode the rows are moved to
+ * progress_archive as JSON instead of being dropped. Rows with no last_accessed are never touched.
+ */
+@Component
+public class ProgressReaper {
+
+    private static final String SELECT_BATCH =
+            "SELECT progress_id FROM progress WHERE last_accessed < :cutoff "
+            + "AND (last_accessed, progress_id) > (:afterAccessed, :afterId) "
+            + "ORDER BY last_accessed, progress_id LIMIT :limit FOR UPDATE SKIP LOCKED";
+
+    private static final String DELETE_SQL =
+            "WITH doomed AS (" + SELECT_BATCH + ") "
+            + "DELETE FROM progress p USING doomed d WHERE p.progress_id = d.progress_id "
+            + "RETURNING p.progress_id, p.last_accessed";
+
+    private static final String ARCHIVE_SQL =
+            "WITH doomed AS (" + SELECT_BATCH + "), "
+            + "moved AS (DELETE FROM progress p USING doomed d WHERE p.progress_id = d.progress_id RETURNING p.*) "
+            + "INSERT INTO progress_archive (progress_id, user_id, story_id, last_accessed, archived_at, data) "
+            + "SELECT m.progress_id, m.user_id, m.story_id, m.last_accessed, :now, to_jsonb(m) FROM moved m "
+            + "RETURNING progress_id, last_accessed";
+
+    // Whole rows as JSON, so columns added to progress later never break the archive
+    private static final String CREATE_ARCHIVE_TABLE =
+            "CREATE TABLE IF NOT EXISTS progress_archive (progress_id BIGINT PRIMARY KEY, user_id BIGINT, "
+            + "story_id INTEGER, last_accessed TIMESTAMP, archived_at TIMESTAMP NOT NULL, data JSONB NOT NULL)";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Value("${brightminds.progress.reaper.enabled:true}")
+    private boolean enabled;
+
+    @Value("${brightminds.progress.reaper.max-age-days:90}")
+    private int maxAgeDays;
+
+    // "delete" or "archive"
+    @Value("${brightminds.progress.reaper.mode:delete}")
+    private String mode;
+
+    @Value("${brightminds.progress.reaper.batch-size:200}")
+    private int batchSize;
+
+    @Value("${brightminds.progress.reaper.max-batches:50}")
+    private int maxBatches;
+
+    @Value("${brightminds.progress.reaper.batch-time-budget-ms:500}")
+    private long batchTimeBudgetMs;
+
+    private boolean archiveTableReady;
+
+    // Run statistics, see stats()
+    private volatile long runs;
+    private volatile long totalRemoved;
+    private volatile long lastRunRemoved;
+    private volatile long lastRunBatches;
+    private volatile long lastRunMillis;
+    private volatile LocalDateTime lastRunAt;
+    private volatile String lastError;
+
+    @Scheduled(initialDelayString = "${brightminds.progress.reaper.initial-delay-ms:120000}",
+               fixedDelayString = "${brightminds.progress.reaper.interval-ms:3600000}")
+    public void reap() {
+        if (!enabled || maxAgeDays <= 0) return;
+        boolean archive = "archive".equalsIgnoreCase(mode);
+        long started = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        long removed = 0;
+        int batches = 0;
+        String error = null;
+        try {
+            if (archive && !archiveTableReady) {
+                jdbcTemplate.getJdbcTemplate().execute(CREATE_ARCHIVE_TABLE);
+                archiveTableReady = true;
+            }
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("cutoff", Timestamp.valueOf(now.minusDays(maxAgeDays)))
+                    .addValue("afterAccessed", Timestamp.valueOf(LocalDateTime.of(1970, 1, 1, 0, 0)))
+                    .addValue("afterId", 0L)
+                    .addValue("limit", Math.max(batchSize, 1))
+                    .addValue("now", Timestamp.valueOf(now));
+            while (batches < Math.max(maxBatches, 1)) {
+                long batchStarted = System.currentTimeMillis();
+                List<Object[]> rows = jdbcTemplate.query(archive ? ARCHIVE_SQL : DELETE_SQL, params,
+                        (rs, rowNum) -> new Object[] {rs.getLong("progress_id"), rs.getTimestamp("last_accessed")});
+                batches++;
+                removed += rows.size();
+                if (rows.size() < Math.max(batchSize, 1)) break;
+
+                // RETURNING has no order; continue after the largest (last_accessed, progress_id) key
+                Object[] last = rows.get(0);
+                for (Object[] row : rows) {
+                    int cmp = ((Timestamp) row[1]).compareTo((Timestamp) last[1]);
+                    if (cmp > 0 || (cmp == 0 && (Long) row[0] > (Long) last[0])) last = row;
+                }
+                params.addValue("afterAccessed", last[1]).addValue("afterId", last[0]);
+
+                if (System.currentTimeMillis() - batchStarted > batchTimeBudgetMs) {
+                    System.out.println("ProgressReaper: Batch took over " + batchTimeBudgetMs + " ms, continuing next run");
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            error = e.getMessage();
+            System.err.println("ProgressReaper: Run failed after " + removed + " rows: " + e.getMessage());
+        }
+
+        runs++;
+        totalRemoved += removed;
+        lastRunRemoved = removed;
+        lastRunBatches = batches;
+        lastRunMillis = System.currentTimeMillis() - started;
+        lastRunAt = now;
+        lastError = error;
+        if (removed > 0) {
+            System.out.println("ProgressReaper: " + (archive ? "Archived " : "Deleted ") + removed
+                    + " progress rows idle for over " + maxAgeDays + " days in " + batches + " batches, " + lastRunMillis + " ms");
+        }
+    }
+
+    /** Counters of the reaper runs since startup. */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("mode", "archive".equalsIgnoreCase(mode) ? "archive" : "delete");
+        stats.put("maxAgeDays", maxAgeDays);
+        stats.put("runs", runs);
+        stats.put("totalRemoved", totalRemoved);
+        stats.put("lastRunRemoved", lastRunRemoved);
+        stats.put("lastRunBatches", lastRunBatches);
+        stats.put("lastRunMillis", lastRunMillis);
+        stats.put("lastRunAt", lastRunAt);
+        stats.put("lastError", lastError);
+        return stats;
+    }
+}
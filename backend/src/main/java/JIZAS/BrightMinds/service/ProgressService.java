@@ -2,21 +2,23 @@ package JIZAS.BrightMinds.service;
 
 import JIZAS.BrightMinds.dto.*;
 import JIZAS.BrightMinds.entity.Progress;
+import JIZAS.BrightMinds.entity.ProgressState;
 import JIZAS.BrightMinds.entity.Story;
-import JIZAS.BrightMinds.entity.Scene;
 import JIZAS.BrightMinds.entity.User;
 import JIZAS.BrightMinds.entity.UserResponse;
 import JIZAS.BrightMinds.repository.ProgressRepository;
+import JIZAS.BrightMinds.repository.ProgressUpsertRepository;
 import JIZAS.BrightMinds.repository.UserRepository;
-import JIZAS.BrightMinds.repository.SceneRepository;
 import JIZAS.BrightMinds.repository.UserResponseRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,48 +27,61 @@ public class ProgressService {
 
     private final ProgressRepository repo;
     private final UserRepository userRepo;
-    private final SceneRepository sceneRepo;
+    private final StoryContentStore storyContentStore;
     private final UserResponseRepository userResponseRepo;
+    private final ProgressBuffer progressBuffer;
+    private final GameSessionStore gameSessionStore;
 
     public ProgressService(ProgressRepository repo, UserRepository userRepo, 
-                          SceneRepository sceneRepo, UserResponseRepository userResponseRepo) {
+                          StoryContentStore storyContentStore, UserResponseRepository userResponseRepo,
+                          ProgressBuffer progressBuffer, GameSessionStore gameSessionStore) {
         this.repo = repo;
         this.userRepo = userRepo;
-        this.sceneRepo = sceneRepo;
+        this.storyContentStore = storyContentStore;
         this.userResponseRepo = userResponseRepo;
+        this.progressBuffer = progressBuffer;
+        this.gameSessionStore = gameSessionStore;
     }
 
-    public ProgressViewDTO create(ProgressRequestDTO req) {
-        // Check if progress already exists for this user and story
-        Optional<Progress> existingProgress = repo.findByUserAndStory(req.getUserId(), req.getStoryId());
-        
-        if (existingProgress.isPresent()) {
-            // Update existing progress instead of creating new one
-            Progress p = existingProgress.get();
-            p.setCurrentScene(req.getCurrentScene());
-            p.setScore(req.getScore());
-            p.setPerQuestionState(req.getPerQuestionState());
-            p.setLastAccessed(LocalDateTime.now());
-            return toView(repo.save(p));
-        }
-
-        // Create new progress
-        Progress p = new Progress();
-
-        // Optional.ifPresent to satisfy the null-check warning
-        userRepo.findById(req.getUserId()).ifPresent(p::setUser);
-        if (p.getUser() == null) return null;
+    /**
+     * Active progress for a user-story pair, taken from the write-behind buffer when it holds one.
+     * A buffered result is a detached copy: read it, never save it.
+     */
+    private Optional<Progress> findProgress(Long userId, Integer storyId) {
+        Optional<Progress> buffered = progressBuffer.peek(userId, storyId);
+        return (buffered.isPresent() ? buffered : repo.findByUserAndStory(userId, storyId)).filter(Progress::isActive);
+    }
 
-        Story s = new Story();
-        s.setStoryId(req.getStoryId());
-        p.setStory(s);
+    /**
+     * Makes buffered saves for this user-story pair durable and stops buffering it, so the row
+     * can be read or written directly. Called on game completion.
+     */
+    public void flushBuffered(Long userId, Integer storyId) {
+        progressBuffer.flushAndEvict(userId, storyId);
+    }
 
-        p.setCurrentScene(req.getCurrentScene());
-        p.setScore(req.getScore());
-        p.setPerQuestionState(req.getPerQuestionState());
-        p.setLastAccessed(LocalDateTime.now());
+    /**
+     * Applies per-key set/remove/increment operations to the progress state without loading the
+     * entity. Returns null when the user has no progress for the story.
+     */
+    public ProgressVersionDTO patchProgress(Long userId, Integer storyId, ProgressPatchDTO patch) {
+        if (patch == null) throw new IllegalArgumentException("Patch body is required");
+        // The UPDATE works on the stored row, so buffered saves must land first
+        progressBuffer.flushAndEvict(userId, storyId);
+        return repo.applyPatch(userId, storyId, patch.getOperations())
+                .map(ProgressVersionDTO::new)
+                .orElse(null);
+    }
 
-        return toView(repo.save(p));
+    public ProgressViewDTO create(ProgressRequestDTO req) {
+        progressBuffer.flushAndEvict(req.getUserId(), req.getStoryId());
+        // Updates the existing progress for this user and story, or creates it
+        return repo.upsert(new ProgressUpsertRepository.Upsert(req.getUserId(), req.getStoryId())
+                        .currentScene(req.getCurrentScene())
+                        .score(req.getScore())
+                        .perQuestionState(req.getPerQuestionState()))
+                .map(this::toView)
+                .orElse(null);
     }
 
     public ProgressViewDTO get(Long id) {
@@ -78,6 +93,7 @@ public class ProgressService {
     }
 
     public ProgressViewDTO update(Long id, ProgressRequestDTO req) {
+        progressBuffer.flushAndEvict(id);
         Progress p = repo.findById(id).orElse(null);
         if (p == null) return null;
 
@@ -114,18 +130,15 @@ public class ProgressService {
      * Get progress for a specific user and story combination
      */
     public ProgressViewDTO getByUserAndStory(Long userId, Integer storyId) {
-        return repo.findByUserAndStory(userId, storyId).map(this::toView).orElse(null);
+        return findProgress(userId, storyId).map(this::toView).orElse(null);
     }
 
     /**
-     * Start a new attempt - deletes any existing progress for the user-story combination
-     * and creates a fresh progress record
+     * Start a new attempt - resets any existing progress for the user-story combination
+     * and saves the fresh progress onto the same row
      */
     public ProgressViewDTO startNewAttempt(ProgressRequestDTO req) {
-        // Delete any existing progress for this user-story combination
-        deleteByUserAndStory(req.getUserId(), req.getStoryId());
-        
-        // Create new progress
+        resetProgress(req.getUserId(), req.getStoryId());
         return create(req);
     }
 
@@ -137,32 +150,66 @@ public class ProgressService {
     }
 
     /**
-     * Delete progress by user and story combination
+     * Restart: clears the user's progress for the story in place, keeping the row for the next game
      */
-    public void deleteByUserAndStory(Long userId, Integer storyId) {
-        repo.findByUserAndStory(userId, storyId).ifPresent(progress -> {
-            repo.delete(progress);
-        });
+    public void resetProgress(Long userId, Integer storyId) {
+        progressBuffer.discard(userId, storyId);
+        gameSessionStore.evict(userId, storyId);
+        repo.resetInPlace(userId, storyId, Progress.Status.RESET);
     }
 
     /**
-     * Delete progress after game completion
-     * This should be called after a game attempt is recorded
+     * Marks the progress completed and clears it in place
+     * Runs after the game attempt ended at completedAt; progress written after that belongs to a
+     * new game and is kept
      */
-    public void deleteProgressAfterCompletion(Long userId, Integer storyId) {
-        deleteByUserAndStory(userId, storyId);
+    public void completeProgress(Long userId, Integer storyId, LocalDateTime completedAt) {
+        // Make buffered saves durable first, so the reset sees whether a new game has started
+        progressBuffer.flushAndEvict(userId, storyId);
+        if (repo.resetInPlace(userId, storyId, Progress.Status.COMPLETED, completedAt)) {
+            gameSessionStore.evict(userId, storyId);
+        }
     }
 
     /**
      * Check if user has existing progress for a story
      */
     public GameProgressDTO checkExistingProgress(Long userId, Integer storyId) {
+        return gameProgress(userId, storyId, storyContentStore.getSceneIndex(storyId), findProgress(userId, storyId));
+    }
+
+    /**
+     * Opens a gameplay session for the authenticated user and the story, resolving the user, the
+     * story content and the progress once. Returns null when the user or story does not exist.
+     */
+    public GameSessionDTO openSession(String username, Integer storyId) {
+        User user = userRepo.findByEmail(username).orElse(null);
+        StoryContentStore.StoryContent story = storyContentStore.getStory(storyId).orElse(null);
+        if (user == null || story == null) return null;
+
+        Optional<Progress> progress = findProgress(user.getUserId(), storyId);
+        GameSessionStore.GameSession session = gameSessionStore.open(user.getUserId(), username, story, progress.orElse(null));
+
+        GameSessionDTO dto = new GameSessionDTO();
+        dto.setSessionId(session.getId());
+        dto.setUserId(user.getUserId());
+        dto.setStoryId(storyId);
+        dto.setContentVersion(story.getContentVersion());
+        dto.setIdleTimeoutSeconds(gameSessionStore.getIdleTimeoutMs() / 1000);
+        dto.setProgress(gameProgress(user.getUserId(), storyId, session.getSceneIndex(), progress));
+        return dto;
+    }
+
+    /** checkExistingProgress from the session, without a lookup. */
+    public GameProgressDTO sessionProgress(GameSessionStore.GameSession session) {
+        return gameProgress(session.getUserId(), session.getStoryId(), session.getSceneIndex(), session.getProgress());
+    }
+
+    private GameProgressDTO gameProgress(Long userId, Integer storyId, SceneIndex scenes, Optional<Progress> existingProgress) {
         GameProgressDTO gameProgress = new GameProgressDTO();
         gameProgress.setUserId(userId);
         gameProgress.setStoryId(storyId);
         
-        Optional<Progress> existingProgress = repo.findByUserAndStory(userId, storyId);
-        
         if (existingProgress.isPresent()) {
             Progress progress = existingProgress.get();
             gameProgress.setHasExistingProgress(true);
@@ -172,15 +219,12 @@ public class ProgressService {
                 gameProgress.setCurrentSceneId(Integer.parseInt(progress.getCurrentScene()));
                 
                 // Get scene order if scene ID exists
-                Optional<Scene> scene = sceneRepo.findById(gameProgress.getCurrentSceneId());
-                scene.ifPresent(s -> gameProgress.setCurrentSceneOrder(s.getSceneOrder()));
+                gameProgress.setCurrentSceneOrder(scenes.sceneOrderOf(gameProgress.getCurrentSceneId()));
             } else {
                 // If no current scene, start from the first scene
-                List<Scene> allScenes = sceneRepo.findByStoryStoryIdOrderBySceneOrder(storyId);
-                if (!allScenes.isEmpty()) {
-                    Scene firstScene = allScenes.get(0);
-                    gameProgress.setCurrentSceneId(firstScene.getSceneId());
-                    gameProgress.setCurrentSceneOrder(firstScene.getSceneOrder());
+                if (!scenes.isEmpty()) {
+                    gameProgress.setCurrentSceneId(scenes.firstSceneId());
+                    gameProgress.setCurrentSceneOrder(scenes.sceneOrderOf(scenes.firstSceneId()));
                 }
             }
             
@@ -190,6 +234,7 @@ public class ProgressService {
             gameProgress.setAnswerStates(progress.getAnswerStates());
             gameProgress.setPerQuestionState(progress.getPerQuestionState());
             gameProgress.setQuestionMistakes(progress.getQuestionMistakes());
+            gameProgress.setAcceptedSeq(progress.getLastClientSeq());
         } else {
             gameProgress.setHasExistingProgress(false);
             gameProgress.setScore(0);
@@ -202,25 +247,49 @@ public class ProgressService {
      * Save progress after user moves to a new scene
      */
     public ProgressViewDTO saveProgressAfterScene(SaveProgressDTO saveProgressDTO) {
-        // Get or create progress for this user-story combination
-        Optional<Progress> existingProgress = repo.findByUserAndStory(
-            saveProgressDTO.getUserId(), saveProgressDTO.getStoryId());
-        
-        Progress progress;
-        if (existingProgress.isPresent()) {
-            progress = existingProgress.get();
-        } else {
-            // Create new progress
-            progress = new Progress();
-            userRepo.findById(saveProgressDTO.getUserId()).ifPresent(progress::setUser);
-            if (progress.getUser() == null) return null;
-            
-            Story story = new Story();
-            story.setStoryId(saveProgressDTO.getStoryId());
-            progress.setStory(story);
-            progress.setScore(0);
+        // A dropped duplicate still answers with the current progress
+        return sceneSave(saveProgressDTO)
+                .or(() -> findProgress(saveProgressDTO.getUserId(), saveProgressDTO.getStoryId()))
+                .map(this::toView).orElse(null);
+    }
+
+    /**
+     * Sequenced scene save: requires clientSeq and replies with a small ack instead of the progress
+     * view, so clients can send saves without waiting and retry them safely. Returns null when the
+     * user does not exist.
+     */
+    public ProgressAckDTO saveSceneSequenced(SaveProgressDTO saveProgressDTO) {
+        requireSequence(saveProgressDTO);
+        return ack(saveProgressDTO, sceneSave(saveProgressDTO), null);
+    }
+
+    /** saveSceneSequenced for the session's user and story; keeps the session's progress current. */
+    public ProgressAckDTO saveSceneSequenced(SaveProgressDTO saveProgressDTO, GameSessionStore.GameSession session) {
+        bind(saveProgressDTO, session);
+        requireSequence(saveProgressDTO);
+        return ack(saveProgressDTO, sceneSave(saveProgressDTO), session);
+    }
+
+    // Empty when the user does not exist or the save was already superseded
+    private Optional<Progress> sceneSave(SaveProgressDTO saveProgressDTO) {
+        if (progressBuffer.isEnabled()) {
+            return applyBuffered(saveProgressDTO, progress -> applySceneSave(progress, saveProgressDTO));
         }
-        
+
+        // Score is added in SQL, so concurrent or repeated saves never lose points
+        return repo.upsert(new ProgressUpsertRepository.Upsert(saveProgressDTO.getUserId(), saveProgressDTO.getStoryId())
+                .currentScene(saveProgressDTO.getSceneId().toString())
+                .gameStartTime(saveProgressDTO.getGameStartTime())
+                .mistakeCount(saveProgressDTO.getMistakeCount())
+                .answerStates(saveProgressDTO.getAnswerStates())
+                .addScore(saveProgressDTO.getPointsEarned() != null ? saveProgressDTO.getPointsEarned() : 0)
+                .perQuestionState(saveProgressDTO.getPerQuestionState())
+                .questionMistakes(saveProgressDTO.getQuestionMistakes())
+                .clientSeq(saveProgressDTO.getClientSeq())
+                .idempotencyKey(saveProgressDTO.getIdempotencyKey()));
+    }
+
+    private void applySceneSave(Progress progress, SaveProgressDTO saveProgressDTO) {
         // Update progress with new scene information
         progress.setCurrentScene(saveProgressDTO.getSceneId().toString());
         progress.setLastAccessed(LocalDateTime.now());
@@ -256,8 +325,6 @@ public class ProgressService {
         if (saveProgressDTO.getQuestionMistakes() != null) {
             progress.setQuestionMistakes(saveProgressDTO.getQuestionMistakes());
         }
-        
-        return toView(repo.save(progress));
     }
 
     /**
@@ -267,28 +334,101 @@ public class ProgressService {
         System.out.println("ProgressService: Saving wrong answer state for user " + saveProgressDTO.getUserId() + 
                           ", story " + saveProgressDTO.getStoryId() + ", scene " + saveProgressDTO.getSceneId());
         
-        Optional<Progress> existingProgress = repo.findByUserAndStory(
-                saveProgressDTO.getUserId(), saveProgressDTO.getStoryId());
+        return wrongAnswerSave(saveProgressDTO)
+                .or(() -> findProgress(saveProgressDTO.getUserId(), saveProgressDTO.getStoryId()))
+                .map(this::toView).orElse(null);
+    }
 
-        Progress progress;
-        if (existingProgress.isPresent()) {
-            progress = existingProgress.get();
-            System.out.println("ProgressService: Found existing progress, updating wrong answer state");
-        } else {
-            // Create new progress if none exists
-            progress = new Progress();
-            User user = new User();
-            user.setUserId(saveProgressDTO.getUserId());
-            progress.setUser(user);
-            
-            Story story = new Story();
-            story.setStoryId(saveProgressDTO.getStoryId());
-            progress.setStory(story);
-            progress.setScore(0);
-            progress.setMistakeCount(0);
-            System.out.println("ProgressService: Created new progress for wrong answer state");
+    /** Sequenced variant of saveWrongAnswerState, see saveSceneSequenced. */
+    public ProgressAckDTO saveWrongAnswerSequenced(SaveProgressDTO saveProgressDTO) {
+        requireSequence(saveProgressDTO);
+        return ack(saveProgressDTO, wrongAnswerSave(saveProgressDTO), null);
+    }
+
+    public ProgressAckDTO saveWrongAnswerSequenced(SaveProgressDTO saveProgressDTO, GameSessionStore.GameSession session) {
+        bind(saveProgressDTO, session);
+        requireSequence(saveProgressDTO);
+        return ack(saveProgressDTO, wrongAnswerSave(saveProgressDTO), session);
+    }
+
+    // The session decides whose progress is written, whatever the body says
+    private static void bind(SaveProgressDTO saveProgressDTO, GameSessionStore.GameSession session) {
+        saveProgressDTO.setUserId(session.getUserId());
+        saveProgressDTO.setStoryId(session.getStoryId());
+    }
+
+    private Optional<Progress> wrongAnswerSave(SaveProgressDTO saveProgressDTO) {
+        if (progressBuffer.isEnabled()) {
+            return applyBuffered(saveProgressDTO, progress -> applyWrongAnswer(progress, saveProgressDTO));
         }
-        
+
+        return repo.upsert(new ProgressUpsertRepository.Upsert(saveProgressDTO.getUserId(), saveProgressDTO.getStoryId())
+                .currentScene(saveProgressDTO.getSceneId().toString())
+                .gameStartTime(saveProgressDTO.getGameStartTime())
+                .addMistakes(1)
+                .answerStates(saveProgressDTO.getAnswerStates())
+                .perQuestionState(saveProgressDTO.getPerQuestionState())
+                .questionMistakes(saveProgressDTO.getQuestionMistakes())
+                .clientSeq(saveProgressDTO.getClientSeq())
+                .idempotencyKey(saveProgressDTO.getIdempotencyKey()));
+    }
+
+    // Same duplicate and stale checks as the upsert, applied to the buffered copy
+    private Optional<Progress> applyBuffered(SaveProgressDTO saveProgressDTO, Consumer<Progress> mutation) {
+        boolean[] applied = {false};
+        Optional<Progress> snapshot = progressBuffer.apply(saveProgressDTO.getUserId(), saveProgressDTO.getStoryId(), progress -> {
+            if (!acceptsSequence(progress, saveProgressDTO.getClientSeq(), saveProgressDTO.getIdempotencyKey())) return;
+            mutation.accept(progress);
+            progress.setStatus(Progress.Status.ACTIVE);
+            if (saveProgressDTO.getClientSeq() != null) progress.setLastClientSeq(saveProgressDTO.getClientSeq());
+            if (saveProgressDTO.getIdempotencyKey() != null) progress.setLastIdempotencyKey(saveProgressDTO.getIdempotencyKey());
+            applied[0] = true;
+        });
+        return applied[0] ? snapshot : Optional.empty();
+    }
+
+    private static void requireSequence(SaveProgressDTO saveProgressDTO) {
+        if (saveProgressDTO.getUserId() == null || saveProgressDTO.getStoryId() == null || saveProgressDTO.getSceneId() == null) {
+            throw new IllegalArgumentException("userId, storyId and sceneId are required");
+        }
+        if (saveProgressDTO.getClientSeq() == null || saveProgressDTO.getClientSeq() < 1) {
+            throw new IllegalArgumentException("clientSeq must be a positive number");
+        }
+        if (saveProgressDTO.getIdempotencyKey() != null && saveProgressDTO.getIdempotencyKey().length() > 64) {
+            throw new IllegalArgumentException("idempotencyKey must be at most 64 characters");
+        }
+    }
+
+    private ProgressAckDTO ack(SaveProgressDTO saveProgressDTO, Optional<Progress> saved, GameSessionStore.GameSession session) {
+        if (saved.isPresent()) {
+            if (session != null) session.update(saved.get());
+            return new ProgressAckDTO(ProgressAckDTO.APPLIED, saved.get().getLastClientSeq());
+        }
+        Progress stored = findProgress(saveProgressDTO.getUserId(), saveProgressDTO.getStoryId()).orElse(null);
+        if (stored == null) return null;
+        if (session != null) session.update(stored);
+        return new ProgressAckDTO(sequenceStatus(stored, saveProgressDTO.getClientSeq(), saveProgressDTO.getIdempotencyKey()),
+                stored.getLastClientSeq());
+    }
+
+    /**
+     * Whether a save with this client sequence number and idempotency key is new to the stored
+     * progress. Mirrors the WHERE clause of the progress upsert.
+     */
+    static boolean acceptsSequence(Progress stored, Long clientSeq, String idempotencyKey) {
+        boolean newerSeq = clientSeq == null || stored.getLastClientSeq() == null || stored.getLastClientSeq() < clientSeq;
+        boolean newKey = idempotencyKey == null || !idempotencyKey.equals(stored.getLastIdempotencyKey());
+        return newerSeq && newKey;
+    }
+
+    // Status of a save the stored progress did not accept
+    static String sequenceStatus(Progress stored, Long clientSeq, String idempotencyKey) {
+        boolean sameKey = idempotencyKey != null && idempotencyKey.equals(stored.getLastIdempotencyKey());
+        boolean sameSeq = clientSeq != null && clientSeq.equals(stored.getLastClientSeq());
+        return sameKey || sameSeq ? ProgressAckDTO.DUPLICATE : ProgressAckDTO.STALE;
+    }
+
+    private void applyWrongAnswer(Progress progress, SaveProgressDTO saveProgressDTO) {
         // Update current scene
         progress.setCurrentScene(saveProgressDTO.getSceneId().toString());
         progress.setLastAccessed(LocalDateTime.now());
@@ -317,10 +457,6 @@ public class ProgressService {
         if (saveProgressDTO.getQuestionMistakes() != null) {
             progress.setQuestionMistakes(saveProgressDTO.getQuestionMistakes());
         }
-        
-        Progress savedProgress = repo.save(progress);
-        System.out.println("ProgressService: Wrong answer state saved successfully");
-        return toView(savedProgress);
     }
 
     /**
@@ -335,37 +471,22 @@ public class ProgressService {
      * Get next scene for user based on current progress
      */
     public Integer getNextSceneId(Long userId, Integer storyId) {
-        Optional<Progress> progressOpt = repo.findByUserAndStory(userId, storyId);
-        
-        if (progressOpt.isPresent()) {
-            Progress progress = progressOpt.get();
-            if (progress.getCurrentScene() != null) {
-                Integer currentSceneId = Integer.parseInt(progress.getCurrentScene());
-                Optional<Scene> currentScene = sceneRepo.findById(currentSceneId);
-                
-                if (currentScene.isPresent()) {
-                    // Get next scene in the story
-                    List<Scene> allScenes = sceneRepo.findByStoryStoryIdOrderBySceneOrder(storyId);
-                    int currentIndex = -1;
-                    
-                    for (int i = 0; i < allScenes.size(); i++) {
-                        if (allScenes.get(i).getSceneId().equals(currentSceneId)) {
-                            currentIndex = i;
-                            break;
-                        }
-                    }
-                    
-                    // Return next scene ID if exists
-                    if (currentIndex >= 0 && currentIndex < allScenes.size() - 1) {
-                        return allScenes.get(currentIndex + 1).getSceneId();
-                    }
-                }
-            }
+        return nextSceneId(storyContentStore.getSceneIndex(storyId), findProgress(userId, storyId));
+    }
+
+    /** getNextSceneId from the session, without a lookup. */
+    public Integer getNextSceneId(GameSessionStore.GameSession session) {
+        return nextSceneId(session.getSceneIndex(), session.getProgress());
+    }
+
+    private static Integer nextSceneId(SceneIndex scenes, Optional<Progress> progressOpt) {
+        if (progressOpt.isPresent() && progressOpt.get().getCurrentScene() != null) {
+            Integer next = scenes.nextSceneId(Integer.parseInt(progressOpt.get().getCurrentScene()));
+            if (next != null) return next;
         }
         
         // Return first scene if no progress or at the end
-        List<Scene> allScenes = sceneRepo.findByStoryStoryIdOrderBySceneOrder(storyId);
-        return allScenes.isEmpty() ? null : allScenes.get(0).getSceneId();
+        return scenes.firstSceneId();
     }
 
     /**
@@ -373,52 +494,33 @@ public class ProgressService {
      * This method ensures users can't reattempt completed questions
      */
     public Integer getNextAvailableSceneId(Long userId, Integer storyId) {
-        Optional<Progress> progressOpt = repo.findByUserAndStory(userId, storyId);
+        SceneIndex scenes = storyContentStore.getSceneIndex(storyId);
+        Optional<Progress> progressOpt = findProgress(userId, storyId);
         
-        if (progressOpt.isPresent()) {
-            Progress progress = progressOpt.get();
-            Map<String, Object> perQuestionState = progress.getPerQuestionState();
-            
-            if (perQuestionState != null && !perQuestionState.isEmpty()) {
-                // Get all scenes for this story
-                List<Scene> allScenes = sceneRepo.findByStoryStoryIdOrderBySceneOrder(storyId);
-                
-                // Find the first scene that doesn't have a completed question
-                for (Scene scene : allScenes) {
-                    // Try both sceneId and sceneOrder as keys
-                    String sceneKeyById = "scene_" + scene.getSceneId();
-                    String sceneKeyByOrder = "scene_" + scene.getSceneOrder();
-                    Object sceneState = perQuestionState.get(sceneKeyById);
-                    
-                    // If not found by sceneId, try sceneOrder
-                    if (sceneState == null) {
-                        sceneState = perQuestionState.get(sceneKeyByOrder);
-                    }
-                    
-                    // If scene state exists and indicates completion, skip it
-                    if (sceneState instanceof Map<?, ?>) {
-                        @SuppressWarnings("unchecked")
-                        Map<String, Object> sceneStateMap = (Map<String, Object>) sceneState;
-                        Boolean isCompleted = (Boolean) sceneStateMap.get("completed");
-                        if (Boolean.TRUE.equals(isCompleted)) {
-                            continue; // Skip completed scenes
-                        }
-                    }
-                    
-                    // Return the first non-completed scene (prefer sceneId, fallback to sceneOrder)
-                    return scene.getSceneId() != null ? scene.getSceneId() : scene.getSceneOrder();
-                }
-                
-                // If all scenes are completed, return the last scene
-                Scene lastScene = allScenes.isEmpty() ? null : allScenes.get(allScenes.size() - 1);
-                return lastScene != null ? (lastScene.getSceneId() != null ? lastScene.getSceneId() : lastScene.getSceneOrder()) : null;
-            }
+        if (progressOpt.isPresent() && !progressOpt.get().getState().isPerQuestionStateEmpty()) {
+            // First scene without a completed question, or the last scene when all are done
+            return scenes.firstIncompleteSceneId(completedScenes(scenes, progressOpt.get().getState()));
         }
         
         // Return first scene if no progress or no question state
-        List<Scene> allScenes = sceneRepo.findByStoryStoryIdOrderBySceneOrder(storyId);
-        Scene firstScene = allScenes.isEmpty() ? null : allScenes.get(0);
-        return firstScene != null ? (firstScene.getSceneId() != null ? firstScene.getSceneId() : firstScene.getSceneOrder()) : null;
+        return scenes.firstSceneId();
+    }
+
+    /**
+     * Positions of completed scenes. Completions are recorded by sceneId; ids this story does not
+     * have are tried as a sceneOrder, which is how some older rows were keyed.
+     */
+    private static BitSet completedScenes(SceneIndex scenes, ProgressState state) {
+        BitSet completed = new BitSet(scenes.size());
+        for (int sceneId : state.completedSceneIds()) {
+            Integer position = scenes.positionOf(sceneId);
+            if (position == null) {
+                Integer byOrder = scenes.sceneIdForOrder(sceneId);
+                position = byOrder != null ? scenes.positionOf(byOrder) : null;
+            }
+            if (position != null) completed.set(position);
+        }
+        return completed;
     }
 
     private ProgressViewDTO toView(Progress p) {
@@ -430,6 +532,7 @@ public class ProgressService {
         v.setScore(p.getScore());
         v.setLastAccessed(p.getLastAccessed());
         v.setPerQuestionState(p.getPerQuestionState());
+        v.setStatus(p.getStatus() != null ? p.getStatus().name() : Progress.Status.ACTIVE.name());
         return v;
     }
 }
@@ -0,0 +1,97 @@
+package JIZAS.BrightMinds.service;
+
+import JIZAS.BrightMinds.entity.ProgressState;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rewrites progress rows that still hold the old answer_states / per_question_state /
+ * question_mistakes maps into the progress_state encoding, one keyset batch per run.
+ *
+ * Old rows are readable either way (see {@link ProgressState#read}); this only moves them to the
+ * compact form. A row changed between the read and the write is skipped, since its state_version
+ * no longer matches; the next start picks it up if it still needs it.
+ */
+@Component
+public class ProgressStateMigration {
+
+    private static final String SELECT_SQL =
+            "SELECT progress_id, state_version, progress_state, answer_states, per_question_state, question_mistakes "
+            + "FROM progress WHERE progress_id > ? "
+            + "AND (answer_states IS NOT NULL OR per_question_state IS NOT NULL OR question_mistakes IS NOT NULL) "
+            + "ORDER BY progress_id LIMIT ?";
+
+    private static final String UPDATE_SQL =
+            "UPDATE progress SET progress_state = CAST(? AS jsonb), answer_states = NULL, per_question_state = NULL, "
+            + "question_mistakes = NULL WHERE progress_id = ? AND state_version IS NOT DISTINCT FROM ?";
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${brightminds.progress.state-migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${brightminds.progress.state-migration.batch-size:500}")
+    private int batchSize;
+
+    private volatile boolean finished;
+    private long lastProgressId;
+    private long migrated;
+
+    @Scheduled(initialDelayString = "${brightminds.progress.state-migration.initial-delay-ms:30000}",
+               fixedDelayString = "${brightminds.progress.state-migration.interval-ms:5000}")
+    public void migrateBatch() {
+        if (!enabled || finished) return;
+        try {
+            List<Object[]> rows = jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> new Object[] {
+                    rs.getLong("progress_id"),
+                    rs.getObject("state_version", Long.class),
+                    ProgressState.read(rs.getString("progress_state"), fromJson(rs.getString("answer_states")),
+                            fromJson(rs.getString("per_question_state")), fromJson(rs.getString("question_mistakes"))).toJson()
+            }, lastProgressId, Math.max(batchSize, 1));
+
+            List<Object[]> updates = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                updates.add(new Object[] {row[2], row[0], row[1]});
+            }
+            if (!updates.isEmpty()) {
+                for (int count : jdbcTemplate.batchUpdate(UPDATE_SQL, updates)) {
+                    if (count > 0) migrated += count;
+                }
+                lastProgressId = (Long) rows.get(rows.size() - 1)[0];
+            }
+            if (rows.size() < Math.max(batchSize, 1)) {
+                finished = true;
+                if (migrated > 0) {
+                    System.out.println("ProgressStateMigration: Rewrote " + migrated + " progress rows to the compact state format");
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("ProgressStateMigration: Batch after progress " + lastProgressId + " failed: " + e.getMessage());
+        }
+    }
+
+    private Map<String, Object> fromJson(String json) {
+        if (json == null) return null;
+        try {
+            return objectMapper.readValue(json, MAP_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored progress state is not a JSON object", e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package JIZAS.BrightMinds.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Makes sure the (user_id, story_id) unique key exists before progress upserts run.
+ *
+ * ddl-auto=update cannot add the constraint to a table that already holds duplicate rows, and
+ * ON CONFLICT needs it. So duplicates are collapsed first, keeping the most recently accessed row
+ * per pair, and the key is created as a unique index. Both steps are no-ops once applied.
+ */
+@Component
+public class ProgressUniqueKeyMigration {
+
+    private static final String DELETE_DUPLICATES =
+            "DELETE FROM progress p USING ("
+            + "SELECT progress_id, ROW_NUMBER() OVER (PARTITION BY user_id, story_id "
+            + "ORDER BY last_accessed DESC NULLS LAST, progress_id DESC) AS rn FROM progress) d "
+            + "WHERE p.progress_id = d.progress_id AND d.rn > 1";
+
+    private static final String CREATE_UNIQUE_INDEX =
+            "CREATE UNIQUE INDEX IF NOT EXISTS uk_progress_user_story ON progress (user_id, story_id)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void ensureUniqueKey() {
+        try {
+            int removed = jdbcTemplate.update(DELETE_DUPLICATES);
+            if (removed > 0) {
+                System.out.println("ProgressUniqueKeyMigration: Removed " + removed + " duplicate progress rows");
+            }
+            jdbcTemplate.execute(CREATE_UNIQUE_INDEX);
+        } catch (RuntimeException e) {
+            System.err.println("ProgressUniqueKeyMigration: Could not ensure unique progress key: " + e.getMessage());
+        }
+    }
+}
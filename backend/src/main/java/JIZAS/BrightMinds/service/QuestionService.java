@@ -16,8 +16,12 @@ public class QuestionService {
     @Autowired
     private QuestionRepository questionRepository;
     
+    @Autowired
+    private StoryContentStore storyContentStore;
+    
     // Create a new question
     public Question createQuestion(Question question) {
+        storyContentStore.invalidateAll();
         return questionRepository.save(question);
     }
     
@@ -69,6 +73,7 @@ public class QuestionService {
     // Update question
     public Question updateQuestion(Question question) {
         if (questionRepository.existsById(question.getQuestionId())) {
+            storyContentStore.invalidateAll();
             return questionRepository.save(question);
         }
         throw new RuntimeException("Question not found with ID: " + question.getQuestionId());
@@ -76,6 +81,7 @@ public class QuestionService {
     
     // Delete question by ID
     public void deleteQuestion(Integer questionId) {
+        storyContentStore.invalidateAll();
         questionRepository.deleteById(questionId);
     }
     
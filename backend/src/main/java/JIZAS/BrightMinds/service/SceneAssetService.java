@@ -14,17 +14,19 @@ import java.util.Optional;
 public class SceneAssetService {
 
 	private final SceneAssetRepository repo;
+	private final StoryContentStore storyContentStore;
 
-	public SceneAssetService(SceneAssetRepository repo) {
+	public SceneAssetService(SceneAssetRepository repo, StoryContentStore storyContentStore) {
 		this.repo = repo;
+		this.storyContentStore = storyContentStore;
 	}
 
-	public SceneAsset create(SceneAsset s) { return repo.save(s); }
+	public SceneAsset create(SceneAsset s) { storyContentStore.invalidateAll(); return repo.save(s); }
 	public Optional<SceneAsset> get(Long id) { return repo.findById(id); }
 	public List<SceneAsset> listAll() { return repo.findAll(); }
 	public List<SceneAsset> listByScene(Integer sceneId) { return repo.findByScene_SceneId(sceneId); }
-	public SceneAsset update(SceneAsset s) { return repo.save(s); }
-	public void delete(Long id) { repo.deleteById(id); }
+	public SceneAsset update(SceneAsset s) { storyContentStore.invalidateAll(); return repo.save(s); }
+	public void delete(Long id) { storyContentStore.invalidateAll(); repo.deleteById(id); }
 	
 	public Optional<SceneAsset> findByAssetNameAndSceneOrder(String assetName, Integer sceneOrder) {
 		return repo.findByAssetNameAndSceneOrder(assetName, sceneOrder);
@@ -36,6 +38,7 @@ public class SceneAssetService {
 		
 		sceneAsset.setPositionX(newPositionX);
 		sceneAsset.setPositionY(newPositionY);
+		storyContentStore.invalidateAll();
 		return repo.save(sceneAsset);
 	}
 	
@@ -44,6 +47,7 @@ public class SceneAssetService {
 			.orElseThrow(() -> new RuntimeException("SceneAsset not found with ID: " + sceneAssetId));
 		
 		sceneAsset.setMetadata(metadata);
+		storyContentStore.invalidateAll();
 		return repo.save(sceneAsset);
 	}
 }
@@ -0,0 +1,86 @@
+package JIZAS.BrightMinds.service;
+
+import JIZAS.BrightMinds.dto.GameSceneDTO;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Scene ids of one story in scene order, with sceneId -> position and sceneOrder -> sceneId lookups.
+ * Built once per {@link StoryContentStore.StoryContent}, so next, first and first-incomplete scene
+ * lookups never touch the database. Positions are 0-based indexes into the ordered scenes.
+ */
+public final class SceneIndex {
+
+    static final SceneIndex EMPTY = new SceneIndex(List.of());
+
+    private final int[] sceneIds;
+    private final int[] sceneOrders;
+    private final Map<Integer, Integer> positionById;
+    private final Map<Integer, Integer> idByOrder;
+
+    SceneIndex(List<GameSceneDTO> scenes) {
+        this.sceneIds = new int[scenes.size()];
+        this.sceneOrders = new int[scenes.size()];
+        Map<Integer, Integer> byId = new HashMap<>();
+        Map<Integer, Integer> byOrder = new HashMap<>();
+        for (int i = 0; i < scenes.size(); i++) {
+            Integer sceneId = scenes.get(i).getScene().getSceneId();
+            Integer sceneOrder = scenes.get(i).getScene().getSceneOrder();
+            sceneIds[i] = sceneId;
+            sceneOrders[i] = sceneOrder != null ? sceneOrder : -1;
+            byId.put(sceneId, i);
+            if (sceneOrder != null) byOrder.putIfAbsent(sceneOrder, sceneId);
+        }
+        this.positionById = Collections.unmodifiableMap(byId);
+        this.idByOrder = Collections.unmodifiableMap(byOrder);
+    }
+
+    public int size() { return sceneIds.length; }
+    public boolean isEmpty() { return sceneIds.length == 0; }
+
+    public int sceneIdAt(int position) { return sceneIds[position]; }
+
+    /** Null when the story has no scenes. */
+    public Integer firstSceneId() {
+        return sceneIds.length > 0 ? sceneIds[0] : null;
+    }
+
+    public Integer lastSceneId() {
+        return sceneIds.length > 0 ? sceneIds[sceneIds.length - 1] : null;
+    }
+
+    /** Position of the scene in story order, or null when it is not part of this story. */
+    public Integer positionOf(Integer sceneId) {
+        return positionById.get(sceneId);
+    }
+
+    public Integer sceneIdForOrder(Integer sceneOrder) {
+        return idByOrder.get(sceneOrder);
+    }
+
+    public Integer sceneOrderOf(Integer sceneId) {
+        Integer i = positionById.get(sceneId);
+        return i != null && sceneOrders[i] >= 0 ? sceneOrders[i] : null;
+    }
+
+    /** Scene after the given one in story order, or null when it is the last (or unknown). */
+    public Integer nextSceneId(Integer sceneId) {
+        Integer i = positionById.get(sceneId);
+        if (i == null || i + 1 >= sceneIds.length) return null;
+        return sceneIds[i + 1];
+    }
+
+    /**
+     * First scene whose position is not set in completed, or the last scene when all are.
+     * Null when the story has no scenes.
+     */
+    public Integer firstIncompleteSceneId(BitSet completed) {
+        if (sceneIds.length == 0) return null;
+        int i = completed.nextClearBit(0);
+        return i < sceneIds.length ? sceneIds[i] : sceneIds[sceneIds.length - 1];
+    }
+}
@@ -15,8 +15,11 @@ public class SceneService {
     
     @Autowired
     private SceneRepository sceneRepository;
+
+    @Autowired
+    private StoryContentStore storyContentStore;
     
-    public Scene create(Scene scene) { return sceneRepository.save(scene); }
+    public Scene create(Scene scene) { storyContentStore.invalidateAll(); return sceneRepository.save(scene); }
     public List<Scene> listAll() { return sceneRepository.findAll(); }
     public Optional<Scene> getById(Integer id) { return sceneRepository.findById(id); }
     public List<Scene> listByStory(Integer storyId) { return sceneRepository.findByStory_StoryIdOrderBySceneOrderAsc(storyId); }
@@ -24,9 +27,10 @@ public class SceneService {
         if (!sceneRepository.existsById(scene.getSceneId())) {
             throw new RuntimeException("Scene not found with ID: " + scene.getSceneId());
         }
+        storyContentStore.invalidateAll();
         return sceneRepository.save(scene);
     }
-    public void delete(Integer id) { sceneRepository.deleteById(id); }
+    public void delete(Integer id) { storyContentStore.invalidateAll(); sceneRepository.deleteById(id); }
 }
 
 
@@ -22,6 +22,8 @@ public class SeederService {
     @Autowired private SceneAssetRepository sceneAssetRepository;
     @Autowired private BadgeRepository badgeRepository;
     @Autowired private UserResponseRepository userResponseRepository;
+    @Autowired private StoryContentStore storyContentStore;
+    @Autowired private ContentExportService contentExportService;
 
     public void seedStory(StorySeedDTO storyDTO) {
         // Check if story exists to update it instead of creating a duplicate
@@ -42,6 +44,7 @@ public class SeederService {
         }
         
         story.setSequenceGraph(storyDTO.getSequenceGraph());
+        story.setContentVersion(story.getContentVersion() != null ? story.getContentVersion() + 1 : 1L);
         story = storyRepository.save(story);
 
         // If updating an existing story, clear old scenes to ensure a clean sync of the new structure
@@ -77,6 +80,11 @@ public class SeederService {
                 seedScene(sceneDTO, story);
             }
         }
+
+        // Rebuild the in-memory copy of this story once the new content is committed
+        storyContentStore.invalidate(story.getStoryId());
+        // Then write the static export of it (no-op unless brightminds.export.enabled)
+        contentExportService.publishAfterCommit(story.getStoryId());
     }
 
     private void seedScene(SceneSeedDTO sceneDTO, Story story) {
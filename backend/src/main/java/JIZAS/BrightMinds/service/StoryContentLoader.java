@@ -0,0 +1,182 @@
+package JIZAS.BrightMinds.service;
+
+import JIZAS.BrightMinds.dto.*;
+import JIZAS.BrightMinds.entity.Story;
+import JIZAS.BrightMinds.repository.SceneReadRepository;
+import JIZAS.BrightMinds.repository.StoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Reads a whole story graph (scenes, dialogues, scene assets, questions, choices, answers)
+ * through {@link SceneReadRepository} projections: one query per table, independent of how
+ * many scenes, dialogues or assets the story has, and no entity hydration beyond the story row.
+ */
+@Service
+@Transactional(readOnly = true)
+public class StoryContentLoader {
+
+    @Autowired private StoryRepository storyRepository;
+    @Autowired private SceneReadRepository sceneReadRepository;
+
+    @Value("${brightminds.prefetch.scene-count:2}")
+    private int prefetchSceneCount;
+
+    public StoryContentStore.StoryContent load(Integer storyId) {
+        Story story = storyRepository.findById(storyId).orElse(null);
+        if (story == null) {
+            return null;
+        }
+
+        List<SceneReadRepository.SceneRow> scenes = sceneReadRepository.findScenesByStoryId(storyId);
+        StoryDTO storyDTO = new StoryDTO(story, List.copyOf(scenes.stream().map(StoryContentLoader::toSceneDTO).collect(Collectors.toList())));
+        if (scenes.isEmpty()) {
+            return new StoryContentStore.StoryContent(storyDTO, story.getContentVersion(), List.of());
+        }
+        List<Integer> sceneIds = scenes.stream().map(SceneReadRepository.SceneRow::getSceneId).collect(Collectors.toList());
+
+        Map<Integer, List<DialogueDTO>> dialoguesByScene = sceneReadRepository.findDialoguesBySceneIds(sceneIds).stream()
+                .collect(Collectors.groupingBy(SceneReadRepository.DialogueRow::getSceneId,
+                        Collectors.mapping(StoryContentLoader::toDialogueDTO, Collectors.toList())));
+
+        Map<Integer, List<SceneAssetDTO>> assetsByScene = sceneReadRepository.findSceneAssetsBySceneIds(sceneIds).stream()
+                .collect(Collectors.groupingBy(SceneReadRepository.SceneAssetRow::getSceneId,
+                        Collectors.mapping(StoryContentLoader::toSceneAssetDTO, Collectors.toList())));
+
+        List<SceneReadRepository.QuestionRow> questions = sceneReadRepository.findQuestionsBySceneIds(sceneIds);
+        Map<Integer, QuestionDTO> questionByScene = new HashMap<>();
+        if (!questions.isEmpty()) {
+            List<Integer> questionIds = questions.stream().map(SceneReadRepository.QuestionRow::getQuestionId).collect(Collectors.toList());
+
+            Map<Integer, List<ChoiceDTO>> choicesByQuestion = sceneReadRepository.findChoicesByQuestionIds(questionIds).stream()
+                    .collect(Collectors.groupingBy(SceneReadRepository.ChoiceRow::getQuestionId,
+                            Collectors.mapping(StoryContentLoader::toChoiceDTO, Collectors.toList())));
+
+            Map<Integer, List<AnswerDTO>> answersByQuestion = sceneReadRepository.findAnswersByQuestionIds(questionIds).stream()
+                    .collect(Collectors.groupingBy(SceneReadRepository.AnswerRow::getQuestionId,
+                            Collectors.mapping(StoryContentLoader::toAnswerDTO, Collectors.toList())));
+
+            for (SceneReadRepository.QuestionRow q : questions) {
+                // Assuming one question per scene for now; keep the first one like the per-scene path did
+                if (questionByScene.containsKey(q.getSceneId())) continue;
+
+                QuestionDTO dto = new QuestionDTO();
+                dto.setQuestionId(q.getQuestionId());
+                dto.setSceneId(q.getSceneId());
+                dto.setType(q.getType() != null ? q.getType().name() : null);
+                dto.setPromptText(q.getPromptText());
+                dto.setQuestionImageUrl(q.getQuestionImageUrl());
+                dto.setPoints(q.getPoints());
+                dto.setChoices(List.copyOf(choicesByQuestion.getOrDefault(q.getQuestionId(), List.of())));
+                dto.setAnswers(List.copyOf(answersByQuestion.getOrDefault(q.getQuestionId(), List.of())));
+                questionByScene.put(q.getSceneId(), dto);
+            }
+        }
+
+        List<GameSceneDTO> gameScenes = new ArrayList<>(scenes.size());
+        for (SceneDTO scene : storyDTO.getScenes()) {
+            GameSceneDTO gameScene = new GameSceneDTO();
+            gameScene.setScene(scene);
+            gameScene.setDialogues(List.copyOf(dialoguesByScene.getOrDefault(scene.getSceneId(), List.of())));
+            gameScene.setAssets(List.copyOf(assetsByScene.getOrDefault(scene.getSceneId(), List.of())));
+            gameScene.setQuestion(questionByScene.get(scene.getSceneId()));
+            gameScenes.add(gameScene);
+        }
+        for (int i = 0; i < gameScenes.size(); i++) {
+            gameScenes.get(i).setPrefetch(prefetchFor(gameScenes, i));
+        }
+
+        return new StoryContentStore.StoryContent(storyDTO, story.getContentVersion(), gameScenes);
+    }
+
+    public List<StoryCatalogDTO> loadCatalog() {
+        return storyRepository.findCatalog();
+    }
+
+    // Next scenes in story order plus the images and voiceovers they will need
+    private ScenePrefetchDTO prefetchFor(List<GameSceneDTO> gameScenes, int index) {
+        List<Integer> sceneIds = new ArrayList<>();
+        LinkedHashSet<String> assetUrls = new LinkedHashSet<>();
+        int end = Math.min(gameScenes.size(), index + 1 + Math.max(prefetchSceneCount, 0));
+        for (GameSceneDTO next : gameScenes.subList(index + 1, end)) {
+            sceneIds.add(next.getScene().getSceneId());
+            for (SceneAssetDTO asset : next.getAssets()) {
+                if (asset.getFilePath() != null) assetUrls.add(asset.getFilePath());
+            }
+            for (DialogueDTO dialogue : next.getDialogues()) {
+                if (dialogue.getVoiceoverUrl() != null) assetUrls.add(dialogue.getVoiceoverUrl());
+            }
+        }
+        return new ScenePrefetchDTO(List.copyOf(sceneIds), List.copyOf(assetUrls));
+    }
+
+    private static SceneDTO toSceneDTO(SceneReadRepository.SceneRow row) {
+        SceneDTO dto = new SceneDTO();
+        dto.setSceneId(row.getSceneId());
+        dto.setStoryId(row.getStoryId());
+        dto.setSceneOrder(row.getSceneOrder());
+        dto.setSceneText(row.getSceneText());
+        return dto;
+    }
+
+    private static DialogueDTO toDialogueDTO(SceneReadRepository.DialogueRow row) {
+        DialogueDTO dto = new DialogueDTO();
+        dto.setDialogueId(row.getDialogueId());
+        dto.setSceneId(row.getSceneId());
+        dto.setCharacterName(row.getCharacterName());
+        dto.setLineText(row.getLineText());
+        dto.setLineTextTl(row.getLineTextTl());
+        dto.setVoiceAssetId(row.getVoiceAssetId());
+        dto.setVoiceover(row.getVoiceName());
+        dto.setVoiceoverUrl(row.getVoiceFilePath());
+        dto.setOrderIndex(row.getOrderIndex());
+        dto.setMetadata(row.getMetadata());
+        return dto;
+    }
+
+    private static SceneAssetDTO toSceneAssetDTO(SceneReadRepository.SceneAssetRow row) {
+        SceneAssetDTO dto = new SceneAssetDTO();
+        dto.setSceneAssetId(row.getSceneAssetId());
+        dto.setAssetId(row.getAssetId());
+        dto.setName(row.getName());
+        dto.setType(row.getType());
+        dto.setFilePath(row.getFilePath());
+        dto.setPositionX(row.getPositionX());
+        dto.setPositionY(row.getPositionY());
+        dto.setIsInteractive(row.getIsInteractive());
+        dto.setOrderIndex(row.getOrderIndex());
+        dto.setMetadata(row.getMetadata());
+        return dto;
+    }
+
+    private static ChoiceDTO toChoiceDTO(SceneReadRepository.ChoiceRow row) {
+        ChoiceDTO dto = new ChoiceDTO();
+        dto.setChoiceId(row.getChoiceId());
+        dto.setQuestionId(row.getQuestionId());
+        dto.setChoiceText(row.getChoiceText());
+        dto.setIsCorrect(row.getIsCorrect());
+        dto.setChoiceImageUrl(row.getChoiceImageUrl());
+        dto.setOrderIndex(row.getOrderIndex());
+        return dto;
+    }
+
+    private static AnswerDTO toAnswerDTO(SceneReadRepository.AnswerRow row) {
+        AnswerDTO dto = new AnswerDTO();
+        dto.setAnswerId(row.getAnswerId());
+        dto.setQuestionId(row.getQuestionId());
+        dto.setAnswerText(row.getAnswerText());
+        dto.setAssetName(row.getAssetName());
+        dto.setIsCorrect(row.getIsCorrect());
+        dto.setDragdropPosition(row.getDragdropPosition());
+        return dto;
+    }
+}
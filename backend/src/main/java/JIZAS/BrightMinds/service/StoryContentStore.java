@@ -0,0 +1,324 @@
+package JIZAS.BrightMinds.service;
+
+import JIZAS.BrightMinds.dto.AssetManifestDTO;
+import JIZAS.BrightMinds.dto.AssetManifestEntryDTO;
+import JIZAS.BrightMinds.dto.DialogueDTO;
+import JIZAS.BrightMinds.dto.GameSceneDTO;
+import JIZAS.BrightMinds.dto.SceneAssetDTO;
+import JIZAS.BrightMinds.dto.SceneDTO;
+import JIZAS.BrightMinds.dto.StoryBundleDTO;
+import JIZAS.BrightMinds.dto.StoryCatalogDTO;
+import JIZAS.BrightMinds.dto.StoryDTO;
+import JIZAS.BrightMinds.repository.SceneRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Read-only, in-memory copy of story content used by the gameplay endpoints.
+ *
+ * Each story graph is loaded once by {@link StoryContentLoader} and kept as an immutable
+ * {@link StoryContent}. Concurrent first requests for the same story share a single load, which
+ * runs outside the map so database queries never hold a map lock.
+ * Snapshots are shared by every request: the DTOs they hand out must be treated as read-only.
+ * Writes to story content call {@link #invalidate(Integer)} or {@link #invalidateAll()}, which
+ * drop the affected stories once the writing transaction commits; the next read rebuilds them.
+ * The story catalog is cached the same way and dropped on any invalidation.
+ */
+@Service
+public class StoryContentStore {
+
+    @Autowired
+    private StoryContentLoader loader;
+
+    @Autowired
+    private SceneRepository sceneRepository;
+
+    private final ConcurrentHashMap<Integer, StoryContent> stories = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, CompletableFuture<StoryContent>> loading = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Integer> sceneToStory = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final Object catalogLock = new Object();
+    private volatile StoryCatalog catalog;
+
+    public StoryCatalog getCatalog() {
+        StoryCatalog current = catalog;
+        if (current != null) return current;
+        synchronized (catalogLock) {
+            if (catalog == null) {
+                catalog = new StoryCatalog(loader.loadCatalog());
+            }
+            return catalog;
+        }
+    }
+
+    public Optional<StoryContent> getStory(Integer storyId) {
+        if (storyId == null) return Optional.empty();
+        StoryContent content = stories.get(storyId);
+        return Optional.ofNullable(content != null ? content : loadShared(storyId));
+    }
+
+    // The first miss loads, concurrent misses for the same story wait on its future
+    private StoryContent loadShared(Integer storyId) {
+        CompletableFuture<StoryContent> mine = new CompletableFuture<>();
+        CompletableFuture<StoryContent> pending = loading.putIfAbsent(storyId, mine);
+        if (pending != null) {
+            try {
+                return pending.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) throw cause;
+                throw e;
+            }
+        }
+        try {
+            StoryContent content = stories.get(storyId);
+            if (content == null) {
+                long startedAt = generation.get();
+                content = load(storyId);
+                if (content != null) {
+                    stories.put(storyId, content);
+                    // An invalidation that ran during the load must not leave this snapshot behind
+                    if (generation.get() != startedAt) stories.remove(storyId, content);
+                }
+            }
+            mine.complete(content);
+            return content;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(storyId, mine);
+        }
+    }
+
+    /** Scene index of the story, empty when the story does not exist. */
+    public SceneIndex getSceneIndex(Integer storyId) {
+        return getStory(storyId).map(StoryContent::getSceneIndex).orElse(SceneIndex.EMPTY);
+    }
+
+    public Optional<GameSceneDTO> getScene(Integer sceneId) {
+        return getStoryForScene(sceneId).map(story -> story.getScene(sceneId));
+    }
+
+    public Optional<StoryContent> getStoryForScene(Integer sceneId) {
+        if (sceneId == null) return Optional.empty();
+        Integer storyId = sceneToStory.get(sceneId);
+        if (storyId == null) {
+            // Cold miss: only the owning story id is looked up, the graph comes from the loader
+            storyId = sceneRepository.findStoryIdBySceneId(sceneId).orElse(null);
+        }
+        return getStory(storyId).filter(story -> story.getScene(sceneId) != null);
+    }
+
+    /** Like {@link #getStoryForScene(Integer)} but never loads anything. */
+    public Optional<StoryContent> peekStoryForScene(Integer sceneId) {
+        if (sceneId == null) return Optional.empty();
+        Integer storyId = sceneToStory.get(sceneId);
+        return storyId != null ? Optional.ofNullable(stories.get(storyId)) : Optional.empty();
+    }
+
+    /** Drops one story after the current transaction commits (immediately if there is none). */
+    public void invalidate(Integer storyId) {
+        if (storyId == null) {
+            invalidateAll();
+            return;
+        }
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            loading.remove(storyId);
+            stories.remove(storyId);
+            sceneToStory.values().removeIf(storyId::equals);
+            dropCatalog();
+        });
+    }
+
+    /** Drops every story after the current transaction commits (immediately if there is none). */
+    public void invalidateAll() {
+        afterCommit(() -> {
+            generation.incrementAndGet();
+            loading.clear();
+            stories.clear();
+            sceneToStory.clear();
+            dropCatalog();
+        });
+    }
+
+    private void dropCatalog() {
+        // Taking the lock waits out an in-flight load, so a stale catalog is never left behind
+        synchronized (catalogLock) {
+            catalog = null;
+        }
+    }
+
+    private StoryContent load(Integer storyId) {
+        StoryContent content = loader.load(storyId);
+        if (content != null) {
+            content.getScenes().forEach(s -> sceneToStory.put(s.getScene().getSceneId(), storyId));
+        }
+        return content;
+    }
+
+    // Runs the action after the current transaction commits, or right away outside a transaction
+    static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Immutable snapshot of a story, its playable scenes ordered by scene order, their answer keys and asset manifest.
+     * The DTOs are not copied on the way out; callers read or serialize them and never call their setters.
+     */
+    public static final class StoryContent {
+        private final Integer storyId;
+        private final long contentVersion;
+        private final StoryDTO story;
+        private final List<GameSceneDTO> scenes;
+        private final Map<Integer, GameSceneDTO> scenesById;
+        private final SceneIndex sceneIndex;
+        private final Map<Integer, AnswerKey> answerKeys;
+        private final StoryBundleDTO bundle;
+        private final AssetManifestDTO assetManifest;
+        private final ConcurrentHashMap<String, ContentPayloadCache.SerializedPayload> payloads = new ConcurrentHashMap<>();
+
+        public StoryContent(StoryDTO story, Long contentVersion, List<GameSceneDTO> scenes) {
+            this.storyId = story.getStoryId();
+            this.contentVersion = contentVersion != null ? contentVersion : 0L;
+            this.story = story;
+            this.scenes = List.copyOf(scenes);
+            this.bundle = new StoryBundleDTO(story, this.scenes);
+            Map<Integer, GameSceneDTO> byId = new LinkedHashMap<>();
+            Map<Integer, AnswerKey> keys = new HashMap<>();
+            for (GameSceneDTO scene : this.scenes) {
+                byId.put(scene.getScene().getSceneId(), scene);
+                AnswerKey key = AnswerKey.compile(scene.getQuestion());
+                if (key != null) keys.put(key.getQuestionId(), key);
+            }
+            this.scenesById = Collections.unmodifiableMap(byId);
+            this.sceneIndex = new SceneIndex(this.scenes);
+            this.answerKeys = Collections.unmodifiableMap(keys);
+            this.assetManifest = new AssetManifestDTO(storyId, this.contentVersion, buildAssetManifest(this.scenes));
+        }
+
+        public Integer getStoryId() { return storyId; }
+        public long getContentVersion() { return contentVersion; }
+        public StoryDTO getStory() { return story; }
+        public StoryBundleDTO getBundle() { return bundle; }
+        public List<GameSceneDTO> getScenes() { return scenes; }
+        public GameSceneDTO getScene(Integer sceneId) { return scenesById.get(sceneId); }
+        public AnswerKey getAnswerKey(Integer questionId) { return answerKeys.get(questionId); }
+        public AssetManifestDTO getAssetManifest() { return assetManifest; }
+        public SceneIndex getSceneIndex() { return sceneIndex; }
+
+        /** Scene after the given one in story order, or null when it is the last (or unknown). */
+        public Integer getNextSceneId(Integer sceneId) {
+            return sceneIndex.nextSceneId(sceneId);
+        }
+
+        // Each image and audio asset once, at the scene that first uses it
+        private static List<AssetManifestEntryDTO> buildAssetManifest(List<GameSceneDTO> scenes) {
+            Map<String, AssetManifestEntryDTO> entries = new LinkedHashMap<>();
+            for (GameSceneDTO gameScene : scenes) {
+                SceneDTO scene = gameScene.getScene();
+                for (SceneAssetDTO asset : gameScene.getAssets()) {
+                    String kind = assetKind(asset.getType());
+                    if (kind == null || asset.getFilePath() == null) continue;
+                    entries.computeIfAbsent(assetKey(asset.getAssetId(), asset.getFilePath()), k -> new AssetManifestEntryDTO(
+                            asset.getAssetId(), asset.getName(), asset.getType(), kind, asset.getFilePath(),
+                            scene.getSceneId(), scene.getSceneOrder(), contentHash(asset.getType(), asset.getFilePath())));
+                }
+                for (DialogueDTO dialogue : gameScene.getDialogues()) {
+                    if (dialogue.getVoiceoverUrl() == null) continue;
+                    entries.computeIfAbsent(assetKey(dialogue.getVoiceAssetId(), dialogue.getVoiceoverUrl()), k -> new AssetManifestEntryDTO(
+                            dialogue.getVoiceAssetId(), dialogue.getVoiceover(), "audio", "audio", dialogue.getVoiceoverUrl(),
+                            scene.getSceneId(), scene.getSceneOrder(), contentHash("audio", dialogue.getVoiceoverUrl())));
+                }
+            }
+            return List.copyOf(entries.values());
+        }
+
+        private static String assetKey(Long assetId, String url) {
+            return assetId != null ? "id:" + assetId : "url:" + url;
+        }
+
+        // Seeded types are background, sprite and audio; anything else that is not video is drawn as an image
+        private static String assetKind(String type) {
+            if (type == null) return "image";
+            switch (type.toLowerCase(Locale.ROOT)) {
+                case "audio":
+                case "sound":
+                case "music":
+                case "voice":
+                    return "audio";
+                case "video":
+                    return null;
+                default:
+                    return "image";
+            }
+        }
+
+        // Files live on a CDN, so the hash covers what identifies their bytes: the versioned URL and type
+        private static String contentHash(String type, String url) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                digest.update((type + "\n" + url).getBytes(StandardCharsets.UTF_8));
+                return HexFormat.of().formatHex(digest.digest(), 0, 8);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        // Serialized forms live and die with this snapshot, so a rebuild drops them too
+        ContentPayloadCache.SerializedPayload payload(String key, Function<String, ContentPayloadCache.SerializedPayload> serializer) {
+            return payloads.computeIfAbsent(key, serializer);
+        }
+
+        boolean hasPayload(String key) {
+            return payloads.containsKey(key);
+        }
+    }
+
+    /** Immutable story picker listing, ordered by story order. */
+    public static final class StoryCatalog {
+        private final List<StoryCatalogDTO> entries;
+        private volatile ContentPayloadCache.SerializedPayload payload;
+
+        public StoryCatalog(List<StoryCatalogDTO> entries) {
+            this.entries = List.copyOf(entries);
+        }
+
+        public List<StoryCatalogDTO> getEntries() { return entries; }
+
+        synchronized ContentPayloadCache.SerializedPayload payload(Function<String, ContentPayloadCache.SerializedPayload> serializer) {
+            if (payload == null) {
+                payload = serializer.apply("catalog");
+            }
+            return payload;
+        }
+    }
+}
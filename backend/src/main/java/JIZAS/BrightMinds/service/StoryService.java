@@ -16,16 +16,24 @@ public class StoryService {
     @Autowired
     private StoryRepository storyRepository;
     
-    public Story create(Story story) { return storyRepository.save(story); }
+    @Autowired
+    private StoryContentStore storyContentStore;
+    
+    public Story create(Story story) {
+        Story saved = storyRepository.save(story);
+        storyContentStore.invalidate(saved.getStoryId());
+        return saved;
+    }
     public List<Story> listAll() { return storyRepository.findAllByOrderByStoryOrderAsc(); }
     public Optional<Story> getById(Integer id) { return storyRepository.findById(id); }
     public Story update(Story story) {
         if (!storyRepository.existsById(story.getStoryId())) {
             throw new RuntimeException("Story not found with ID: " + story.getStoryId());
         }
+        storyContentStore.invalidate(story.getStoryId());
         return storyRepository.save(story);
     }
-    public void delete(Integer id) { storyRepository.deleteById(id); }
+    public void delete(Integer id) { storyContentStore.invalidate(id); storyRepository.deleteById(id); }
 }
 
 
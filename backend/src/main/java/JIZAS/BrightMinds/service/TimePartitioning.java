@@ -0,0 +1,277 @@
+package JIZAS.BrightMinds.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Opt-in monthly range partitioning of game_attempts (by end_attempt_date) and user_response (by
+ * submitted_at), both of which only ever grow. Off unless brightminds.partitioning.enabled=true.
+ *
+ * On startup, before requests are served, a table that is still a plain table is converted in one
+ * transaction under an exclusive lock. It is renamed and a partitioned table with the same columns
+ * takes its name. That table gets one partition per month that has rows, the next months-ahead
+ * months and a default partition for anything else. The rows are copied over, the old table is
+ * dropped and its indexes and foreign keys are recreated on the new one. Postgres needs the
+ * partition column in the primary key, so it becomes (id, partition column). Ids continue from
+ * the old maximum. Rows without a partition value are set to 1970-01-01 and end up in the default
+ * partition.
+ *
+ * A daily run adds the partitions for the coming months-ahead months. When retention-months is
+ * set, it also detaches the partitions that ended longer ago than that and moves them to the
+ * archive schema (or drops them in drop mode). Queries that filter on the partition column only
+ * read the matching months; stats() shows how many partitions a one-month range query touches.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class TimePartitioning {
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final DateTimeFormatter BOUND = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String NULL_KEY = "1970-01-01 00:00:00";
+
+    // Table, id column, partition column
+    private static final List<String[]> TABLES = List.of(
+            new String[] {"game_attempts", "attempt_id", "end_attempt_date"},
+            new String[] {"user_response", "response_id", "submitted_at"});
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${brightminds.partitioning.enabled:false}")
+    private boolean enabled;
+
+    @Value("${brightminds.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    // 0 keeps every month
+    @Value("${brightminds.partitioning.retention-months:0}")
+    private int retentionMonths;
+
+    // "detach" (move to archive-schema) or "drop"
+    @Value("${brightminds.partitioning.archive-mode:detach}")
+    private String archiveMode;
+
+    @Value("${brightminds.partitioning.archive-schema:archive}")
+    private String archiveSchema;
+
+    private TransactionTemplate transactionTemplate;
+
+    // Run statistics, see stats()
+    private volatile long partitionsCreated;
+    private volatile long partitionsArchived;
+    private volatile LocalDateTime lastRunAt;
+    private volatile String lastError;
+
+    @PostConstruct
+    void convert() {
+        if (!enabled) return;
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        for (String[] table : TABLES) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> convertTable(table[0], table[1], table[2]));
+            } catch (RuntimeException e) {
+                lastError = e.getMessage();
+                System.err.println("TimePartitioning: Could not partition " + table[0] + ": " + e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(initialDelayString = "${brightminds.partitioning.initial-delay-ms:60000}",
+               fixedDelayString = "${brightminds.partitioning.interval-ms:86400000}")
+    public void maintain() {
+        if (!enabled) return;
+        YearMonth now = YearMonth.now();
+        for (String[] table : TABLES) {
+            try {
+                if (!"p".equals(relkind(table[0]))) continue;
+                for (int i = 0; i <= Math.max(monthsAhead, 0); i++) {
+                    YearMonth month = now.plusMonths(i);
+                    Boolean created = transactionTemplate.execute(status -> ensurePartition(table[0], table[2], month));
+                    if (Boolean.TRUE.equals(created)) {
+                        System.out.println("TimePartitioning: Created partition " + partitionName(table[0], month));
+                    }
+                }
+                if (retentionMonths > 0) archiveBefore(table[0], now.minusMonths(retentionMonths));
+            } catch (RuntimeException e) {
+                lastError = e.getMessage();
+                System.err.println("TimePartitioning: Maintenance of " + table[0] + " failed: " + e.getMessage());
+            }
+        }
+        lastRunAt = LocalDateTime.now();
+    }
+
+    private void convertTable(String table, String idColumn, String keyColumn) {
+        if (!"r".equals(relkind(table))) return;
+        jdbcTemplate.execute("LOCK TABLE " + table + " IN ACCESS EXCLUSIVE MODE");
+        // Another instance may have converted it while this one waited for the lock
+        if (!"r".equals(relkind(table))) return;
+        long started = System.currentTimeMillis();
+
+        // Recreated on the new table once the old one is gone; their definitions already name it.
+        // Unique indexes are left out: on a partitioned table they would need the partition column.
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT indexdef FROM pg_indexes WHERE schemaname = current_schema() AND tablename = ? "
+                + "AND indexdef NOT LIKE 'CREATE UNIQUE%'", String.class, table);
+        List<String[]> foreignKeys = jdbcTemplate.query(
+                "SELECT conname, pg_get_constraintdef(oid) AS def FROM pg_constraint WHERE conrelid = to_regclass(?) AND contype = 'f'",
+                (rs, rowNum) -> new String[] {rs.getString("conname"), rs.getString("def")}, table);
+        Set<YearMonth> months = new TreeSet<>();
+        for (Timestamp month : jdbcTemplate.queryForList("SELECT DISTINCT date_trunc('month', " + keyColumn + ") FROM "
+                + table + " WHERE " + keyColumn + " IS NOT NULL", Timestamp.class)) {
+            months.add(YearMonth.from(month.toLocalDateTime()));
+        }
+        for (int i = 0; i <= Math.max(monthsAhead, 0); i++) {
+            months.add(YearMonth.now().plusMonths(i));
+        }
+
+        String old = table + "_unpartitioned";
+        jdbcTemplate.execute("ALTER TABLE " + table + " RENAME TO " + old);
+        jdbcTemplate.update("UPDATE " + old + " SET " + keyColumn + " = TIMESTAMP '" + NULL_KEY + "' WHERE " + keyColumn + " IS NULL");
+        jdbcTemplate.execute("CREATE TABLE " + table + " (LIKE " + old + " INCLUDING DEFAULTS) PARTITION BY RANGE (" + keyColumn + ")");
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN " + idColumn + " SET NOT NULL, ALTER COLUMN " + keyColumn + " SET NOT NULL");
+        jdbcTemplate.execute("CREATE TABLE " + table + "_default PARTITION OF " + table + " DEFAULT");
+        for (YearMonth month : months) {
+            ensurePartition(table, keyColumn, month);
+        }
+        int rows = jdbcTemplate.update("INSERT INTO " + table + " SELECT * FROM " + old);
+        jdbcTemplate.execute("DROP TABLE " + old);
+
+        // The old identity sequence went with the old table; ids continue after the copied ones
+        String sequence = table + "_" + idColumn + "_seq";
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(" + idColumn + "), 0) + 1 FROM " + table, Long.class);
+        jdbcTemplate.execute("CREATE SEQUENCE " + sequence + " START WITH " + maxId + " OWNED BY " + table + "." + idColumn);
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN " + idColumn + " SET DEFAULT nextval('" + sequence + "')");
+        jdbcTemplate.execute("ALTER TABLE " + table + " ADD PRIMARY KEY (" + idColumn + ", " + keyColumn + ")");
+        for (String index : indexes) {
+            jdbcTemplate.execute(index);
+        }
+        for (String[] foreignKey : foreignKeys) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ADD CONSTRAINT " + foreignKey[0] + " " + foreignKey[1]);
+        }
+        partitionsCreated += months.size();
+        System.out.println("TimePartitioning: Partitioned " + table + " by month on " + keyColumn + ": " + rows
+                + " rows in " + months.size() + " partitions, " + (System.currentTimeMillis() - started) + " ms");
+    }
+
+    // Rows the default partition took for this month before it had its own are moved into it first;
+    // otherwise ATTACH refuses. Returns false when the partition already exists.
+    private boolean ensurePartition(String table, String keyColumn, YearMonth month) {
+        String name = partitionName(table, month);
+        if (relkind(name) != null) return false;
+        String from = month.atDay(1).atStartOfDay().format(BOUND);
+        String to = month.plusMonths(1).atDay(1).atStartOfDay().format(BOUND);
+        String defaultPartition = table + "_default";
+
+        jdbcTemplate.execute("LOCK TABLE " + defaultPartition + " IN ACCESS EXCLUSIVE MODE");
+        jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE " + table + " INCLUDING DEFAULTS)");
+        jdbcTemplate.update("WITH moved AS (DELETE FROM " + defaultPartition + " WHERE " + keyColumn + " >= TIMESTAMP '" + from
+                + "' AND " + keyColumn + " < TIMESTAMP '" + to + "' RETURNING *) INSERT INTO " + name + " SELECT * FROM moved");
+        jdbcTemplate.execute("ALTER TABLE " + table + " ATTACH PARTITION " + name
+                + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+        partitionsCreated++;
+        return true;
+    }
+
+    // Detaches the monthly partitions that ended before the given month, each in its own transaction
+    private void archiveBefore(String table, YearMonth oldestKept) {
+        boolean drop = "drop".equalsIgnoreCase(archiveMode);
+        for (String name : partitions(table)) {
+            YearMonth month = monthOf(table, name);
+            if (month == null || !month.isBefore(oldestKept)) continue;
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute("ALTER TABLE " + table + " DETACH PARTITION " + name);
+                if (drop) {
+                    jdbcTemplate.execute("DROP TABLE " + name);
+                } else {
+                    jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + archiveSchema);
+                    jdbcTemplate.execute("ALTER TABLE " + name + " SET SCHEMA " + archiveSchema);
+                }
+            });
+            partitionsArchived++;
+            System.out.println("TimePartitioning: " + (drop ? "Dropped " : "Archived ") + name);
+        }
+    }
+
+    private String relkind(String table) {
+        List<String> kinds = jdbcTemplate.queryForList(
+                "SELECT c.relkind::text FROM pg_class c WHERE c.oid = to_regclass(?)", String.class, table);
+        return kinds.isEmpty() ? null : kinds.get(0);
+    }
+
+    private List<String> partitions(String table) {
+        return jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                + "WHERE i.inhparent = to_regclass(?) ORDER BY c.relname", String.class, table);
+    }
+
+    private static String partitionName(String table, YearMonth month) {
+        return table + "_p" + month.format(SUFFIX);
+    }
+
+    // Month of a partition this class created, or null for any other (e.g. the default partition)
+    private static YearMonth monthOf(String table, String partition) {
+        String prefix = table + "_p";
+        if (!partition.startsWith(prefix)) return null;
+        try {
+            return YearMonth.parse(partition.substring(prefix.length()), SUFFIX);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /** Partitions per table and how many of them a one-month range query reads (1 when pruning works). */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("monthsAhead", monthsAhead);
+        stats.put("retentionMonths", retentionMonths);
+        stats.put("archiveMode", "drop".equalsIgnoreCase(archiveMode) ? "drop" : "detach");
+        YearMonth now = YearMonth.now();
+        for (String[] table : TABLES) {
+            Map<String, Object> tableStats = new LinkedHashMap<>();
+            boolean partitioned = "p".equals(relkind(table[0]));
+            tableStats.put("partitioned", partitioned);
+            if (partitioned) {
+                List<String> partitions = partitions(table[0]);
+                tableStats.put("partitions", partitions);
+                List<String> plan = jdbcTemplate.queryForList("EXPLAIN SELECT 1 FROM " + table[0] + " WHERE " + table[2]
+                        + " >= TIMESTAMP '" + now.atDay(1).atStartOfDay().format(BOUND) + "' AND " + table[2]
+                        + " < TIMESTAMP '" + now.plusMonths(1).atDay(1).atStartOfDay().format(BOUND) + "'", String.class);
+                List<String> scanned = new ArrayList<>();
+                for (String partition : partitions) {
+                    if (plan.stream().anyMatch(line -> line.contains(" on " + partition + " ") || line.endsWith(" on " + partition))) {
+                        scanned.add(partition);
+                    }
+                }
+                tableStats.put("currentMonthQueryReads", scanned);
+            }
+            stats.put(table[0], tableStats);
+        }
+        stats.put("partitionsCreated", partitionsCreated);
+        stats.put("partitionsArchived", partitionsArchived);
+        stats.put("lastRunAt", lastRunAt);
+        stats.put("lastError", lastError);
+        return stats;
+    }
+}
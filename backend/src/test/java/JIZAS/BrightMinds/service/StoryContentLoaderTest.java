@@ -0,0 +1,168 @@
+package JIZAS.BrightMinds.service;
+
+import JIZAS.BrightMinds.dto.GameSceneDTO;
+import JIZAS.BrightMinds.entity.Answer;
+import JIZAS.BrightMinds.entity.Asset;
+import JIZAS.BrightMinds.entity.Choice;
+import JIZAS.BrightMinds.entity.Dialogue;
+import JIZAS.BrightMinds.entity.Question;
+import JIZAS.BrightMinds.entity.Scene;
+import JIZAS.BrightMinds.entity.SceneAsset;
+import JIZAS.BrightMinds.entity.Story;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.json.AutoConfigureJson;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * The loader must read a story with a fixed number of SQL statements, however many dialogues,
+ * assets, choices and answers its scenes have. Runs against a real PostgreSQL: a Testcontainers
+ * instance when Docker is available, or the scratch database given by -Dbrightminds.test.postgres-url
+ * (its schema is recreated). Skipped when neither is there.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+// The repository fragments that write jsonb need an ObjectMapper
+@AutoConfigureJson
+@Import(StoryContentLoader.class)
+class StoryContentLoaderTest {
+
+    private static final String POSTGRES_URL = System.getProperty("brightminds.test.postgres-url");
+    private static final int SCENE_COUNT = 3;
+    // Story, scenes, dialogues, scene assets, questions, choices, answers
+    private static final long STATEMENTS_PER_LOAD = 7;
+
+    private static PostgreSQLContainer<?> container;
+
+    @Autowired private StoryContentLoader loader;
+    @Autowired private TestEntityManager entityManager;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    @BeforeAll
+    static void startDatabase() {
+        if (POSTGRES_URL != null) return;
+        assumeTrue(DockerClientFactory.instance().isDockerAvailable(), "No Docker and no brightminds.test.postgres-url");
+        container = new PostgreSQLContainer<>("postgres:16-alpine");
+        container.start();
+    }
+
+    @AfterAll
+    static void stopDatabase() {
+        if (container != null) container.stop();
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        if (POSTGRES_URL != null) {
+            registry.add("spring.datasource.url", () -> POSTGRES_URL);
+            registry.add("spring.datasource.username", () -> System.getProperty("brightminds.test.postgres-user", "postgres"));
+            registry.add("spring.datasource.password", () -> System.getProperty("brightminds.test.postgres-password", ""));
+        } else {
+            registry.add("spring.datasource.url", () -> container.getJdbcUrl());
+            registry.add("spring.datasource.username", () -> container.getUsername());
+            registry.add("spring.datasource.password", () -> container.getPassword());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 25})
+    void loadsAStoryWithTheSameNumberOfStatementsRegardlessOfRowCount(int rowsPerScene) {
+        Integer storyId = seedStory(rowsPerScene);
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        StoryContentStore.StoryContent content = loader.load(storyId);
+
+        assertEquals(STATEMENTS_PER_LOAD, statistics.getPrepareStatementCount());
+        assertNotNull(content);
+        assertEquals(SCENE_COUNT, content.getScenes().size());
+        for (GameSceneDTO scene : content.getScenes()) {
+            assertEquals(rowsPerScene, scene.getDialogues().size());
+            assertEquals(rowsPerScene, scene.getAssets().size());
+            assertEquals(rowsPerScene, scene.getQuestion().getChoices().size());
+            assertEquals(rowsPerScene, scene.getQuestion().getAnswers().size());
+        }
+    }
+
+    private Integer seedStory(int rowsPerScene) {
+        Story story = new Story();
+        story.setTitle("Story");
+        story.setContentVersion(1L);
+        entityManager.persist(story);
+
+        for (int s = 1; s <= SCENE_COUNT; s++) {
+            Scene scene = new Scene();
+            scene.setStory(story);
+            scene.setSceneOrder(s);
+            scene.setSceneText("Scene " + s);
+            entityManager.persist(scene);
+
+            Question question = new Question();
+            question.setSceneId(scene.getSceneId());
+            question.setType(Question.QuestionType.MCQ);
+            question.setPromptText("Question " + s);
+            question.setPoints(4);
+            entityManager.persist(question);
+
+            for (int i = 0; i < rowsPerScene; i++) {
+                Asset asset = new Asset();
+                asset.setName("asset-" + s + "-" + i);
+                asset.setType("audio");
+                asset.setFilePath("https://cdn.example/asset-" + s + "-" + i + ".mp3");
+                entityManager.persist(asset);
+
+                Dialogue dialogue = new Dialogue();
+                dialogue.setScene(scene);
+                dialogue.setLineText("Line " + i);
+                dialogue.setVoiceAsset(asset);
+                dialogue.setOrderIndex(i);
+                dialogue.setMetadata(Map.of("mood", "calm"));
+                entityManager.persist(dialogue);
+
+                SceneAsset sceneAsset = new SceneAsset();
+                sceneAsset.setScene(scene);
+                sceneAsset.setAsset(asset);
+                sceneAsset.setOrderIndex(i);
+                entityManager.persist(sceneAsset);
+
+                Choice choice = new Choice();
+                choice.setQuestion(question);
+                choice.setChoiceText("Choice " + i);
+                choice.setIsCorrect(i == 0);
+                choice.setOrderIndex(i);
+                entityManager.persist(choice);
+
+                Answer answer = new Answer();
+                answer.setQuestion(question);
+                answer.setAnswerText("Answer " + i);
+                answer.setIsCorrect(true);
+                entityManager.persist(answer);
+            }
+        }
+        return story.getStoryId();
+    }
+}
@@ -0,0 +1,193 @@
+package JIZAS.BrightMinds.service;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs {@link TimePartitioning} against a real PostgreSQL: a Testcontainers instance when Docker is
+ * available, or the scratch database given by -Dbrightminds.test.postgres-url (its tables are dropped).
+ * Skipped when neither is there.
+ */
+class TimePartitioningTest {
+
+    private static final String POSTGRES_URL = System.getProperty("brightminds.test.postgres-url");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final int MONTHS_AHEAD = 2;
+
+    private static PostgreSQLContainer<?> container;
+    private static DriverManagerDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+    private TimePartitioning partitioning;
+    private final YearMonth now = YearMonth.now();
+
+    @BeforeAll
+    static void startDatabase() {
+        if (POSTGRES_URL != null) {
+            dataSource = new DriverManagerDataSource(POSTGRES_URL,
+                    System.getProperty("brightminds.test.postgres-user", "postgres"),
+                    System.getProperty("brightminds.test.postgres-password", ""));
+            return;
+        }
+        assumeTrue(DockerClientFactory.instance().isDockerAvailable(), "No Docker and no brightminds.test.postgres-url");
+        container = new PostgreSQLContainer<>("postgres:16-alpine");
+        container.start();
+        dataSource = new DriverManagerDataSource(container.getJdbcUrl(), container.getUsername(), container.getPassword());
+    }
+
+    @AfterAll
+    static void stopDatabase() {
+        if (container != null) container.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS game_attempts, user_response, app_user CASCADE");
+        jdbcTemplate.execute("CREATE TABLE app_user (user_id BIGINT PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE TABLE game_attempts (attempt_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "user_id BIGINT NOT NULL REFERENCES app_user, score INTEGER, end_attempt_date TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("CREATE INDEX idx_game_attempts_user_end ON game_attempts (user_id, end_attempt_date DESC, attempt_id DESC)");
+        jdbcTemplate.execute("CREATE TABLE user_response (response_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "user_id BIGINT REFERENCES app_user, submitted_at TIMESTAMP)");
+
+        jdbcTemplate.update("INSERT INTO app_user VALUES (1)");
+        for (int back = 3; back >= 0; back--) {
+            for (int day = 1; day <= 3; day++) {
+                insertAttempt(now.minusMonths(back).atDay(day).atTime(12, 0));
+            }
+        }
+        for (int day = 1; day <= 5; day++) {
+            jdbcTemplate.update("INSERT INTO user_response (user_id, submitted_at) VALUES (1, ?)",
+                    Timestamp.valueOf(now.minusMonths(1).atDay(day).atStartOfDay()));
+        }
+        jdbcTemplate.update("INSERT INTO user_response (user_id, submitted_at) VALUES (1, NULL)");
+
+        partitioning = new TimePartitioning();
+        ReflectionTestUtils.setField(partitioning, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(partitioning, "transactionManager", new DataSourceTransactionManager(dataSource));
+        ReflectionTestUtils.setField(partitioning, "enabled", true);
+        ReflectionTestUtils.setField(partitioning, "monthsAhead", MONTHS_AHEAD);
+        ReflectionTestUtils.setField(partitioning, "archiveMode", "detach");
+        ReflectionTestUtils.setField(partitioning, "archiveSchema", "archive");
+    }
+
+    @Test
+    void convertsTablesKeepingRowsIdsIndexesAndForeignKeys() {
+        partitioning.convert();
+
+        assertEquals("p", relkind("game_attempts"));
+        assertEquals("p", relkind("user_response"));
+        for (int i = -3; i <= MONTHS_AHEAD; i++) {
+            assertEquals("r", relkind(partition("game_attempts", now.plusMonths(i))));
+        }
+        for (int back = 3; back >= 0; back--) {
+            assertEquals(3, count(partition("game_attempts", now.minusMonths(back))));
+        }
+        assertEquals(5, count(partition("user_response", now.minusMonths(1))));
+        // The row without a timestamp is kept, dated 1970 in the default partition
+        assertEquals(1, count("user_response_default"));
+
+        assertEquals(List.of("attempt_id", "end_attempt_date"), jdbcTemplate.queryForList(
+                "SELECT a.attname FROM pg_constraint c JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = ANY (c.conkey) "
+                + "WHERE c.conrelid = 'game_attempts'::regclass AND c.contype = 'p' ORDER BY array_position(c.conkey, a.attnum)", String.class));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_constraint WHERE conrelid = 'game_attempts'::regclass AND contype = 'f'", Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_indexes WHERE tablename = 'game_attempts' AND indexname = 'idx_game_attempts_user_end'", Integer.class));
+
+        Long maxId = jdbcTemplate.queryForObject("SELECT max(attempt_id) FROM game_attempts", Long.class);
+        assertEquals(maxId + 1, insertAttempt(now.atDay(5).atTime(8, 0)));
+    }
+
+    @Test
+    void convertingAgainAfterRestartChangesNothing() {
+        partitioning.convert();
+        List<String> partitions = partitions("game_attempts");
+
+        partitioning.convert();
+
+        assertEquals(partitions, partitions("game_attempts"));
+        assertEquals(12, count("game_attempts"));
+        assertNull(partitioning.stats().get("lastError"));
+    }
+
+    @Test
+    void newPartitionTakesOverRowsFromTheDefaultPartition() {
+        partitioning.convert();
+        YearMonth later = now.plusMonths(MONTHS_AHEAD + 2);
+        insertAttempt(later.atDay(1).atStartOfDay());
+        insertAttempt(later.atEndOfMonth().atTime(23, 59, 59));
+        insertAttempt(later.plusMonths(1).atDay(1).atStartOfDay());
+        assertEquals(3, count("game_attempts_default"));
+
+        ReflectionTestUtils.setField(partitioning, "monthsAhead", MONTHS_AHEAD + 2);
+        partitioning.maintain();
+
+        assertEquals(2, count(partition("game_attempts", later)));
+        // The month after is still uncovered, so its row stays behind
+        assertEquals(1, count("game_attempts_default"));
+        assertNull(partitioning.stats().get("lastError"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void oneMonthQueryReadsOnlyThatMonthsPartition() {
+        partitioning.convert();
+        YearMonth month = now.minusMonths(2);
+
+        List<String> plan = jdbcTemplate.queryForList("EXPLAIN SELECT * FROM game_attempts WHERE end_attempt_date >= ? AND end_attempt_date < ?",
+                String.class, Timestamp.valueOf(month.atDay(1).atStartOfDay()), Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay()));
+
+        List<String> scanned = partitions("game_attempts").stream()
+                .filter(p -> plan.stream().anyMatch(line -> line.contains(" on " + p + " ")))
+                .toList();
+        assertEquals(List.of(partition("game_attempts", month)), scanned);
+        Map<String, Object> stats = (Map<String, Object>) partitioning.stats().get("game_attempts");
+        assertEquals(List.of(partition("game_attempts", now)), stats.get("currentMonthQueryReads"));
+    }
+
+    private Long insertAttempt(LocalDateTime endedAt) {
+        return jdbcTemplate.queryForObject("INSERT INTO game_attempts (user_id, score, end_attempt_date) VALUES (1, 5, ?) RETURNING attempt_id",
+                Long.class, Timestamp.valueOf(endedAt));
+    }
+
+    private String relkind(String table) {
+        List<String> kinds = jdbcTemplate.queryForList("SELECT relkind::text FROM pg_class WHERE oid = to_regclass(?)", String.class, table);
+        return kinds.isEmpty() ? null : kinds.get(0);
+    }
+
+    private List<String> partitions(String table) {
+        return jdbcTemplate.queryForList("SELECT c.relname::text FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                + "WHERE i.inhparent = to_regclass(?) ORDER BY 1", String.class, table);
+    }
+
+    private int count(String table) {
+        assertTrue(relkind(table) != null, table + " does not exist");
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Integer.class);
+    }
+
+    private static String partition(String table, YearMonth month) {
+        return table + "_p" + month.format(SUFFIX);
+    }
+}